@@ -62,6 +62,23 @@ public class FenixEduAcademicConfiguration {
         @ConfigurationProperty(key = "physicalAddress.requiresValidation", defaultValue = "true")
         public boolean getPhysicalAddressRequiresValidation();
 
+        @ConfigurationProperty(key = "picture.rendition.cache.directory",
+                description = "Directory where resized pictures are kept besides memory. If empty they are only kept in memory.")
+        public String getPictureRenditionCacheDirectory();
+
+        @ConfigurationProperty(key = "picture.rendition.cache.directory.size.mb", defaultValue = "1024",
+                description = "Maximum disk space used to keep resized pictures, in megabytes. The least recently used are "
+                        + "deleted when it is exceeded")
+        public Integer getPictureRenditionCacheDirectorySizeMb();
+
+        @ConfigurationProperty(key = "picture.rendition.cache.size.mb", defaultValue = "64",
+                description = "Maximum memory used to keep resized pictures, in megabytes")
+        public Integer getPictureRenditionCacheSizeMb();
+
+        @ConfigurationProperty(key = "picture.rendition.precomputed.sizes", defaultValue = "100",
+                description = "Comma separated sizes of the square avatars computed as soon as a photograph is approved")
+        public String getPictureRenditionPrecomputedSizes();
+
         @ConfigurationProperty(key = "raides.request.info", defaultValue = "false")
         public Boolean getRaidesRequestInfo();
 
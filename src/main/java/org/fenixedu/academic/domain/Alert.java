@@ -30,6 +30,7 @@ public abstract class Alert extends Alert_Base {
         setRootDomainObject(Bennu.getInstance());
         setRootDomainObjectForActiveAlerts(Bennu.getInstance());
         setWhenCreated(new DateTime());
+        AlertSchedule.add(this);
     }
 
     protected void init(final MultiLanguageString subject, final MultiLanguageString body) {
@@ -102,6 +103,25 @@ public abstract class Alert extends Alert_Base {
         }
     }
 
+    /**
+     * Checks the alert, firing or discarding it if needed, and schedules the next check of alerts that remain active.
+     */
+    public void check() {
+        fire();
+        if (getRootDomainObjectForActiveAlerts() != null) {
+            super.setNextCheck(getNextCheckAfter(new DateTime()));
+            AlertSchedule.add(this);
+        }
+    }
+
+    /**
+     * Instant from which the alert must be checked again. Alerts compare dates without time, so by default they are checked
+     * again on the next day; subclasses that know the date they become due may postpone the check until then.
+     */
+    protected DateTime getNextCheckAfter(final DateTime when) {
+        return when.toLocalDate().plusDays(1).toDateTimeAtStartOfDay();
+    }
+
     public void discard() {
         super.setRootDomainObjectForActiveAlerts(null);
         super.setActive(false);
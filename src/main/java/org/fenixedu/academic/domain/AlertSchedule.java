@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.fenixedu.academic.domain.util.DomainIndex;
+import org.fenixedu.bennu.core.domain.Bennu;
+import org.joda.time.DateTime;
+
+/**
+ * Index of the active {@link Alert}s by the instant they must be checked again, so that each run of the alerts task only
+ * touches the alerts that are due.
+ *
+ * Alerts created or checked by this application server are indexed when their transaction commits. Alerts created or
+ * checked by other servers move the persistent version of the index, so the next lookup sees them by scanning the active
+ * alerts until the index is rebuilt.
+ */
+public class AlertSchedule {
+
+    /* alerts never checked are due right away */
+    private static final Long NEVER_CHECKED = Long.valueOf(0L);
+
+    private static final ScheduleIndex index = new ScheduleIndex();
+
+    private AlertSchedule() {
+    }
+
+    /**
+     * Must be called whenever an alert is created or its next check changes.
+     */
+    public static void add(final Alert alert) {
+        index.add(alert);
+    }
+
+    /**
+     * Returns the active alerts whose next check is not after the given instant, the most overdue first.
+     */
+    public static List<Alert> getDue(final DateTime when) {
+        return index.getDue(when.getMillis());
+    }
+
+    /**
+     * Number of alerts currently indexed, due or not.
+     */
+    public static int getScheduledCount() {
+        return index.count();
+    }
+
+    private static Long nextCheckOf(final Alert alert) {
+        if (alert.getRootDomainObjectForActiveAlerts() == null) {
+            return null;
+        }
+        return alert.getNextCheck() != null ? Long.valueOf(alert.getNextCheck().getMillis()) : NEVER_CHECKED;
+    }
+
+    private static class ScheduleIndex extends DomainIndex<Long, Alert> {
+
+        private ScheduleIndex() {
+            super(() -> Bennu.getInstance().getActiveAlertsSet(), AlertSchedule::nextCheckOf, persistentVersion("AlertSchedule"),
+                    ConcurrentSkipListMap::new);
+        }
+
+        private List<Alert> getDue(final long when) {
+            final List<Alert> result = new ArrayList<Alert>();
+            final ConcurrentNavigableMap<Long, Set<Alert>> entries = (ConcurrentNavigableMap<Long, Set<Alert>>) getEntries();
+            if (entries == null) {
+                for (final Alert alert : getSource()) {
+                    final Long nextCheck = keyOf(alert);
+                    if (nextCheck != null && nextCheck.longValue() <= when) {
+                        result.add(alert);
+                    }
+                }
+                result.sort(Comparator.comparing(this::keyOf));
+                return result;
+            }
+
+            for (final Long nextCheck : entries.headMap(when, true).keySet()) {
+                // skips alerts discarded, or checked again in the meantime
+                result.addAll(lookup(entries, nextCheck));
+            }
+            return result;
+        }
+
+        private int count() {
+            final ConcurrentNavigableMap<Long, Set<Alert>> entries = (ConcurrentNavigableMap<Long, Set<Alert>>) getEntries();
+            if (entries == null) {
+                return (int) getSource().stream().filter(alert -> keyOf(alert) != null).count();
+            }
+
+            int result = 0;
+            for (final Set<Alert> alerts : entries.values()) {
+                result += alerts.size();
+            }
+            return result;
+        }
+
+    }
+
+}
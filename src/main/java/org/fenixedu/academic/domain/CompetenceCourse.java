@@ -22,6 +22,7 @@ import static org.fenixedu.academic.predicate.AccessControl.check;
 
 import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -32,6 +33,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
@@ -51,6 +53,7 @@ import org.fenixedu.academic.domain.organizationalStructure.DepartmentUnit;
 import org.fenixedu.academic.domain.organizationalStructure.ScientificAreaUnit;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.domain.time.calendarStructure.AcademicPeriod;
+import org.fenixedu.academic.domain.util.TextIndex;
 import org.fenixedu.academic.predicate.AccessControl;
 import org.fenixedu.academic.predicate.CompetenceCoursePredicates;
 import org.fenixedu.academic.util.MultiLanguageString;
@@ -60,6 +63,8 @@ import org.fenixedu.commons.StringNormalizer;
 import org.fenixedu.commons.i18n.LocalizedString;
 import org.joda.time.YearMonthDay;
 
+import pt.ist.fenixframework.dml.runtime.RelationAdapter;
+
 public class CompetenceCourse extends CompetenceCourse_Base {
 
     public static final Comparator<CompetenceCourse> COMPETENCE_COURSE_COMPARATOR_BY_NAME = new Comparator<CompetenceCourse>() {
@@ -71,6 +76,30 @@ public class CompetenceCourse extends CompetenceCourse_Base {
 
     };
 
+    /* normalized names of every information, and the normalized code, for searchBolonhaCompetenceCourses */
+    private static final TextIndex<CompetenceCourse> SEARCH_INDEX = new TextIndex<CompetenceCourse>("competence course",
+            () -> Bennu.getInstance().getCompetenceCoursesSet(), CompetenceCourse::getSearchTexts,
+            CompetenceCourse::getExternalId, true);
+
+    static {
+        getRelationCompetenceCourseInformationCompetenceCourse().addListener(
+                new RelationAdapter<CompetenceCourse, CompetenceCourseInformation>() {
+                    @Override
+                    public void afterAdd(CompetenceCourse competenceCourse, CompetenceCourseInformation information) {
+                        if (competenceCourse != null) {
+                            SEARCH_INDEX.add(competenceCourse);
+                        }
+                    }
+
+                    @Override
+                    public void afterRemove(CompetenceCourse competenceCourse, CompetenceCourseInformation information) {
+                        if (competenceCourse != null) {
+                            SEARCH_INDEX.add(competenceCourse);
+                        }
+                    }
+                });
+    }
+
     protected CompetenceCourse() {
         super();
         setRootDomainObject(Bennu.getInstance());
@@ -201,6 +230,7 @@ public class CompetenceCourse extends CompetenceCourse_Base {
         }
         super.setCode(code);
         super.setName(name);
+        SEARCH_INDEX.add(this);
     }
 
     public void edit(String code, String name, Collection<Department> departments) {
@@ -998,6 +1028,7 @@ public class CompetenceCourse extends CompetenceCourse_Base {
         }
 
         super.setCode(code);
+        SEARCH_INDEX.add(this);
     }
 
     @Override
@@ -1199,9 +1230,12 @@ public class CompetenceCourse extends CompetenceCourse_Base {
     }
 
     public boolean matchesName(String name) {
-        name = StringNormalizer.normalize(name).replaceAll("[^0-9a-zA-Z]", " ").trim();
+        return matchesName(getSearchPattern(name));
+    }
+
+    private boolean matchesName(final Pattern pattern) {
         for (final CompetenceCourseInformation information : getCompetenceCourseInformationsSet()) {
-            if (StringNormalizer.normalize(information.getName()).matches(".*" + name.replaceAll(" ", ".*") + ".*")) {
+            if (pattern.matcher(StringNormalizer.normalize(information.getName())).matches()) {
                 return true;
             }
         }
@@ -1209,11 +1243,42 @@ public class CompetenceCourse extends CompetenceCourse_Base {
     }
 
     public boolean matchesCode(String code) {
-        if (getCode() == null) {
-            return false;
+        return matchesCode(getSearchPattern(code));
+    }
+
+    private boolean matchesCode(final Pattern pattern) {
+        return getCode() != null && pattern.matcher(StringNormalizer.normalize(getCode())).matches();
+    }
+
+    private static String[] getSearchWords(final String search) {
+        return StringNormalizer.normalize(search).replaceAll("[^0-9a-zA-Z]", " ").trim().split(" ");
+    }
+
+    /* the words of the search, in order, anywhere in the text */
+    private static Pattern getSearchPattern(final String search) {
+        return Pattern.compile(".*" + String.join(".*", getSearchWords(search)) + ".*");
+    }
+
+    private static Collection<String> getSearchTexts(final CompetenceCourse competenceCourse) {
+        final List<String> result = new ArrayList<String>();
+        if (competenceCourse.getRootDomainObject() != null) {
+            for (final CompetenceCourseInformation information : competenceCourse.getCompetenceCourseInformationsSet()) {
+                if (information.getName() != null) {
+                    result.add(StringNormalizer.normalize(information.getName()));
+                }
+            }
+            if (competenceCourse.getCode() != null) {
+                result.add(StringNormalizer.normalize(competenceCourse.getCode()));
+            }
         }
-        code = StringNormalizer.normalize(code).replaceAll("[^0-9a-zA-Z]", " ").trim();
-        return (StringNormalizer.normalize(getCode()).matches(".*" + code.replaceAll(" ", ".*") + ".*"));
+        return result;
+    }
+
+    /**
+     * Must be called whenever the name of one of the informations of the competence course changes.
+     */
+    public void reindexSearchTexts() {
+        SEARCH_INDEX.add(this);
     }
 
     public ExecutionSemester getStartExecutionSemester() {
@@ -1244,15 +1309,25 @@ public class CompetenceCourse extends CompetenceCourse_Base {
     }
 
     static public Collection<CompetenceCourse> searchBolonhaCompetenceCourses(String searchName, String searchCode) {
+        final Pattern namePattern = searchName.isEmpty() ? null : getSearchPattern(searchName);
+        final Pattern codePattern = searchCode.isEmpty() ? null : getSearchPattern(searchCode);
+
+        // every word of the search is part of a name or of the code, so the index narrows the courses to check
+        final List<String> searchWords = new ArrayList<String>();
+        searchWords.addAll(Arrays.asList(getSearchWords(searchName)));
+        searchWords.addAll(Arrays.asList(getSearchWords(searchCode)));
+        final Iterable<CompetenceCourse> indexed = SEARCH_INDEX.containing(searchWords.toArray(new String[searchWords.size()]));
+        final Iterable<CompetenceCourse> candidates = indexed != null ? indexed : Bennu.getInstance().getCompetenceCoursesSet();
+
         final Set<CompetenceCourse> result = new TreeSet<CompetenceCourse>(COMPETENCE_COURSE_COMPARATOR_BY_NAME);
-        for (final CompetenceCourse competenceCourse : Bennu.getInstance().getCompetenceCoursesSet()) {
+        for (final CompetenceCourse competenceCourse : candidates) {
             if (!competenceCourse.isBolonha()) {
                 continue;
             }
-            if ((!searchName.isEmpty()) && (!competenceCourse.matchesName(searchName))) {
+            if (namePattern != null && !competenceCourse.matchesName(namePattern)) {
                 continue;
             }
-            if ((!searchCode.isEmpty()) && (!competenceCourse.matchesCode(searchCode))) {
+            if (codePattern != null && !competenceCourse.matchesCode(codePattern)) {
                 continue;
             }
             result.add(competenceCourse);
@@ -758,6 +758,7 @@ public class Enrolment extends Enrolment_Base implements IEnrolment {
     final public void setEnrollmentState(EnrollmentState enrollmentState) {
         super.setEnrollmentState(enrollmentState);
         resetIsFirstTimeEnrolment();
+        invalidateCurriculumSnapshot();
     }
 
     @Override
@@ -30,6 +30,7 @@ import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.exceptions.EnrolmentNotPayedException;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
+import org.fenixedu.academic.domain.student.curriculum.CurriculumSnapshot;
 import org.fenixedu.academic.domain.thesis.Thesis;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.academic.util.EnrolmentEvaluationState;
@@ -128,6 +129,19 @@ public class EnrolmentEvaluation extends EnrolmentEvaluation_Base {
             }
         }
         super.setExamDateYearMonthDay(evaluationDateYearMonthDay);
+        invalidateCurriculumSnapshot();
+    }
+
+    @Override
+    public void setEnrolmentEvaluationState(EnrolmentEvaluationState enrolmentEvaluationState) {
+        super.setEnrolmentEvaluationState(enrolmentEvaluationState);
+        invalidateCurriculumSnapshot();
+    }
+
+    private void invalidateCurriculumSnapshot() {
+        if (getEnrolment() != null) {
+            CurriculumSnapshot.invalidate(getEnrolment().getStudentCurricularPlan());
+        }
     }
 
     protected EnrolmentEvaluation(Enrolment enrolment, EnrolmentEvaluationState enrolmentEvaluationState,
@@ -355,6 +369,7 @@ public class EnrolmentEvaluation extends EnrolmentEvaluation_Base {
 
         setPersonResponsibleForGrade(null);
         setPerson(null);
+        invalidateCurriculumSnapshot();
         setEnrolment(null);
         setMarkSheet(null);
         setRectification(null);
@@ -433,6 +448,7 @@ public class EnrolmentEvaluation extends EnrolmentEvaluation_Base {
 
         // TODO remove this once we're sure migration to Grade went OK
         super.setGradeValue(grade.getValue());
+        invalidateCurriculumSnapshot();
     }
 
     @Deprecated
@@ -63,6 +63,18 @@ abstract public class ExecutionInterval extends ExecutionInterval_Base {
         super.setAcademicInterval(academicInterval);
     }
 
+    @Override
+    public void setBeginDateYearMonthDay(YearMonthDay beginDateYearMonthDay) {
+        super.setBeginDateYearMonthDay(beginDateYearMonthDay);
+        ExecutionIntervalCalendar.invalidateAfterCommit();
+    }
+
+    @Override
+    public void setEndDateYearMonthDay(YearMonthDay endDateYearMonthDay) {
+        super.setEndDateYearMonthDay(endDateYearMonthDay);
+        ExecutionIntervalCalendar.invalidateAfterCommit();
+    }
+
     @Override
     public void setState(PeriodState state) {
         if (state == null) {
@@ -0,0 +1,173 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.fenixedu.academic.domain.util.TransactionalCache;
+import org.joda.time.LocalDate;
+import org.joda.time.YearMonthDay;
+
+/**
+ * Resolves dates to the execution intervals (years or semesters) that contain them.
+ *
+ * Lookups are answered from an immutable snapshot of the intervals sorted by begin date, with a binary search. Execution
+ * intervals of the same kind never overlap, so the only candidate for a date is the last interval beginning on or before it.
+ * The candidate is always checked against its dates in the current transaction; when it does not match, the intervals are
+ * scanned as before and the snapshot is discarded, to be rebuilt on the next lookup.
+ *
+ * Snapshots are kept in a {@link TransactionalCache}, so they are built from committed state, discarded whenever a
+ * transaction that created, deleted or changed the dates of an execution interval commits, and not used by that transaction,
+ * which builds them from the intervals as it sees them.
+ */
+class ExecutionIntervalCalendar<T extends ExecutionInterval> {
+
+    private static final TransactionalCache<ExecutionIntervalCalendar<?>, Snapshot<?>> snapshots = TransactionalCache.ofSize(
+            "execution interval calendars", 16, 10, TimeUnit.MINUTES);
+
+    private final Supplier<? extends Collection<T>> source;
+
+    ExecutionIntervalCalendar(final Supplier<? extends Collection<T>> source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the interval that contains the given date, or <code>null</code> if there is none.
+     */
+    T find(final LocalDate date) {
+        final T candidate = getSnapshot().find(date);
+        if (candidate != null && contains(candidate, date)) {
+            return candidate;
+        }
+
+        for (final T interval : source.get()) {
+            if (contains(interval, date)) {
+                snapshots.invalidate(this);
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the interval that begins in the given civil year, or <code>null</code> if there is none.
+     */
+    T findByBeginYear(final int year) {
+        final T candidate = getSnapshot().findFirstBeginningOnOrAfter(new LocalDate(year, 1, 1));
+        if (candidate != null && candidate.getRootDomainObject() != null && candidate.getBeginDateYearMonthDay() != null
+                && candidate.getBeginDateYearMonthDay().getYear() == year) {
+            return candidate;
+        }
+
+        for (final T interval : source.get()) {
+            if (interval.getBeginDateYearMonthDay() != null && interval.getBeginDateYearMonthDay().getYear() == year) {
+                snapshots.invalidate(this);
+                return interval;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All intervals with dates, sorted by begin date, as of the last snapshot or as seen by the current transaction if it
+     * changed execution intervals.
+     */
+    List<T> getAll() {
+        return getSnapshot().intervals;
+    }
+
+    /**
+     * Discards the snapshots of every calendar once the running transaction commits. Must be called whenever an execution
+     * interval is created or deleted, or its dates change.
+     */
+    static void invalidateAfterCommit() {
+        snapshots.invalidateAll();
+    }
+
+    private static boolean contains(final ExecutionInterval interval, final LocalDate date) {
+        final YearMonthDay begin = interval.getBeginDateYearMonthDay();
+        final YearMonthDay end = interval.getEndDateYearMonthDay();
+        return interval.getRootDomainObject() != null && begin != null && end != null && !begin.isAfter(date)
+                && !end.isBefore(date);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Snapshot<T> getSnapshot() {
+        return (Snapshot<T>) snapshots.get(this, "snapshot", () -> new Snapshot<T>(source.get()));
+    }
+
+    private static class Snapshot<T extends ExecutionInterval> {
+
+        private final List<T> intervals;
+
+        private final LocalDate[] begins;
+
+        private final LocalDate[] ends;
+
+        private Snapshot(final Collection<T> source) {
+            final List<T> sorted = new ArrayList<T>(source.size());
+            for (final T interval : source) {
+                if (interval.getBeginDateYearMonthDay() != null && interval.getEndDateYearMonthDay() != null) {
+                    sorted.add(interval);
+                }
+            }
+            Collections.sort(sorted, Comparator.comparing(i -> i.getBeginDateYearMonthDay().toLocalDate()));
+
+            this.intervals = Collections.unmodifiableList(sorted);
+            this.begins = new LocalDate[sorted.size()];
+            this.ends = new LocalDate[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                begins[i] = sorted.get(i).getBeginDateYearMonthDay().toLocalDate();
+                ends[i] = sorted.get(i).getEndDateYearMonthDay().toLocalDate();
+            }
+        }
+
+        /* the last interval beginning on or before the given date, if it also ends on or after it */
+        private T find(final LocalDate date) {
+            final int count = countBeginningOnOrBefore(date);
+            return count > 0 && !ends[count - 1].isBefore(date) ? intervals.get(count - 1) : null;
+        }
+
+        private T findFirstBeginningOnOrAfter(final LocalDate date) {
+            final int count = countBeginningOnOrBefore(date.minusDays(1));
+            return count < intervals.size() ? intervals.get(count) : null;
+        }
+
+        private int countBeginningOnOrBefore(final LocalDate date) {
+            int low = 0;
+            int high = begins.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (begins[middle].isAfter(date)) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+    }
+
+}
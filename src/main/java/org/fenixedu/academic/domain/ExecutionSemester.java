@@ -422,6 +422,7 @@ public class ExecutionSemester extends ExecutionSemester_Base implements Compara
         setRootDomainObjectForExecutionPeriod(null);
         setRootDomainObject(null);
         deleteDomainObject();
+        ExecutionIntervalCalendar.invalidateAfterCommit();
     }
 
     public int getNumberOfProfessorships(CurricularCourse curricularCourse) {
@@ -629,18 +630,15 @@ public class ExecutionSemester extends ExecutionSemester_Base implements Compara
         return null;
     }
 
+    private static final ExecutionIntervalCalendar<ExecutionSemester> calendar = new ExecutionIntervalCalendar<ExecutionSemester>(
+            () -> Bennu.getInstance().getExecutionPeriodsSet());
+
     public static ExecutionSemester readByDateTime(final DateTime dateTime) {
-        final YearMonthDay yearMonthDay = dateTime.toYearMonthDay();
-        return readByYearMonthDay(yearMonthDay);
+        return calendar.find(dateTime.toLocalDate());
     }
 
     public static ExecutionSemester readByYearMonthDay(final YearMonthDay yearMonthDay) {
-        for (final ExecutionSemester executionSemester : Bennu.getInstance().getExecutionPeriodsSet()) {
-            if (executionSemester.containsDay(yearMonthDay)) {
-                return executionSemester;
-            }
-        }
-        return null;
+        return calendar.find(yearMonthDay.toLocalDate());
     }
 
     public Stream<TeacherAuthorization> getTeacherAuthorizationStream() {
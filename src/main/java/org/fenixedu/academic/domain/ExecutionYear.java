@@ -22,10 +22,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -303,6 +301,7 @@ public class ExecutionYear extends ExecutionYear_Base implements Comparable<Exec
         setRootDomainObject(null);
         setRootDomainObjectForExecutionYear(null);
         deleteDomainObject();
+        ExecutionIntervalCalendar.invalidateAfterCommit();
     }
 
     public boolean belongsToCivilYear(int civilYear) {
@@ -471,78 +470,19 @@ public class ExecutionYear extends ExecutionYear_Base implements Comparable<Exec
         return ExecutionSemester.readFirstBolonhaExecutionPeriod().getExecutionYear();
     }
 
-    public static class ExecutionYearSearchCache {
-        private final Map<Integer, Set<ExecutionYear>> map = new HashMap<Integer, Set<ExecutionYear>>();
-
-        private Set<ExecutionYear> updateIfNeeded(final Integer year) {
-            Set<ExecutionYear> result = map.get(year);
-
-            // for a given civil year, a maximum of two ExecutionYear can be indexed => must update cache if only one ExecutionYear is cached
-            if (result == null || result.size() < 2) {
-                for (final ExecutionYear executionYear : Bennu.getInstance().getExecutionYearsSet()) {
-                    add(executionYear);
-                }
-                result = map.get(year);
-            }
-
-            return result;
-        }
-
-        public ExecutionYear findByDateTime(final DateTime dateTime) {
-            final Integer year = Integer.valueOf(dateTime.getYear());
-            final Set<ExecutionYear> executionYears = updateIfNeeded(year);
-            if (executionYears != null) {
-                for (final ExecutionYear executionYear : executionYears) {
-                    if (executionYear.containsDate(dateTime)) {
-                        return executionYear;
-                    }
-                }
-            }
-            return null;
-        }
-
-        public ExecutionYear findByPartial(final Partial partial) {
-            final Integer year = Integer.valueOf(partial.get(DateTimeFieldType.year()));
-            final Set<ExecutionYear> executionYears = updateIfNeeded(year);
-            if (executionYears != null) {
-                for (final ExecutionYear executionYear : executionYears) {
-                    if (executionYear.getBeginDateYearMonthDay().getYear() == year) {
-                        return executionYear;
-                    }
-                }
-            }
-            return null;
-        }
-
-        private void add(final ExecutionYear executionYear) {
-            final Integer year1 = executionYear.getBeginDateYearMonthDay().getYear();
-            final Integer year2 = executionYear.getEndDateYearMonthDay().getYear();
-            add(executionYear, year1);
-            add(executionYear, year2);
-        }
-
-        private void add(final ExecutionYear executionYear, final Integer year) {
-            Set<ExecutionYear> executionYears = map.get(year);
-            if (executionYears == null) {
-                executionYears = new HashSet<ExecutionYear>();
-                map.put(year, executionYears);
-            }
-            executionYears.add(executionYear);
-        }
-    }
-
-    private static final ExecutionYearSearchCache executionYearSearchCache = new ExecutionYearSearchCache();
+    private static final ExecutionIntervalCalendar<ExecutionYear> calendar = new ExecutionIntervalCalendar<ExecutionYear>(
+            () -> Bennu.getInstance().getExecutionYearsSet());
 
     static public ExecutionYear readByDateTime(final DateTime dateTime) {
-        return executionYearSearchCache.findByDateTime(dateTime);
+        return calendar.find(dateTime.toLocalDate());
     }
 
     static public ExecutionYear readByDateTime(final LocalDate localDate) {
-        return executionYearSearchCache.findByDateTime(localDate.toDateTimeAtCurrentTime());
+        return calendar.find(localDate);
     }
 
     static public ExecutionYear readByPartial(final Partial partial) {
-        return executionYearSearchCache.findByPartial(partial);
+        return calendar.findByBeginYear(partial.get(DateTimeFieldType.year()));
     }
 
     public static ExecutionYear readBy(final YearMonthDay begin, YearMonthDay end) {
@@ -561,7 +501,7 @@ public class ExecutionYear extends ExecutionYear_Base implements Comparable<Exec
     static public List<ExecutionYear> readExecutionYearsByCivilYear(int civilYear) {
         final List<ExecutionYear> result = new ArrayList<ExecutionYear>();
 
-        for (final ExecutionYear executionYear : executionYearSearchCache.map.get(civilYear)) {
+        for (final ExecutionYear executionYear : calendar.getAll()) {
             if (executionYear.belongsToCivilYear(civilYear)) {
                 result.add(executionYear);
             }
@@ -41,6 +41,7 @@ import org.fenixedu.academic.domain.space.LessonInstanceSpaceOccupation;
 import org.fenixedu.academic.domain.space.LessonSpaceOccupation;
 import org.fenixedu.academic.domain.space.SpaceUtils;
 import org.fenixedu.academic.domain.time.calendarStructure.AcademicInterval;
+import org.fenixedu.academic.domain.util.icalendar.CalendarFeedCache;
 import org.fenixedu.academic.domain.util.icalendar.ClassEventBean;
 import org.fenixedu.academic.domain.util.icalendar.EventBean;
 import org.fenixedu.academic.dto.GenericPair;
@@ -175,11 +176,13 @@ public class Lesson extends Lesson_Base {
         checkShiftLoad(getShift());
 
         lessonSpaceOccupationManagement(newRoom);
+        CalendarFeedCache.invalidateAll();
     }
 
     public void edit(final Space newRoom) {
         AccessControl.check(this, ResourceAllocationRolePredicates.checkPermissionsToManageLessons);
         lessonSpaceOccupationManagement(newRoom);
+        CalendarFeedCache.invalidateAll();
     }
 
     public void delete() {
@@ -483,22 +483,19 @@ public class MarkSheet extends MarkSheet_Base {
             throw new DomainException("error.markSheet.invalid.arguments");
         }
         if (isNotConfirmed()) {
-            setValidator(validator);
-
-            Set<Enrolment> inDebtEnrolments = new HashSet<Enrolment>();
-            for (final EnrolmentEvaluation enrolmentEvaluation : this.getEnrolmentEvaluationsSet()) {
-                try {
-                    enrolmentEvaluation.confirmSubmission(getEnrolmentEvaluationStateToConfirm(), validator, "");
-                } catch (EnrolmentNotPayedException e) {
-                    inDebtEnrolments.add(e.getEnrolment());
-                }
-            }
-
+            // check every grade before changing any of them, so that sheets with debts fail without doing any work
+            final Set<Enrolment> inDebtEnrolments = getInDebtEnrolments();
             if (!inDebtEnrolments.isEmpty()) {
                 throw new InDebtEnrolmentsException("EnrolmentEvaluation.cannot.set.grade.on.not.payed.enrolment.evaluation",
                         inDebtEnrolments);
             }
 
+            setValidator(validator);
+
+            for (final EnrolmentEvaluation enrolmentEvaluation : this.getEnrolmentEvaluationsSet()) {
+                enrolmentEvaluation.confirmSubmission(getEnrolmentEvaluationStateToConfirm(), validator, "");
+            }
+
             setConfirmationDateDateTime(new DateTime());
             setMarkSheetState(getMarkSheetStateToConfirm());
 
@@ -507,6 +504,19 @@ public class MarkSheet extends MarkSheet_Base {
         }
     }
 
+    /**
+     * Enrolments whose grades cannot be confirmed because the improvement of approved enrolment fee is not payed.
+     */
+    public Set<Enrolment> getInDebtEnrolments() {
+        final Set<Enrolment> result = new HashSet<Enrolment>();
+        for (final EnrolmentEvaluation enrolmentEvaluation : getEnrolmentEvaluationsSet()) {
+            if (enrolmentEvaluation.isPayable() && !enrolmentEvaluation.isPayed()) {
+                result.add(enrolmentEvaluation.getEnrolment());
+            }
+        }
+        return result;
+    }
+
     protected MarkSheetState getMarkSheetStateToConfirm() {
         if (this.getMarkSheetState() == MarkSheetState.NOT_CONFIRMED) {
             return MarkSheetState.CONFIRMED;
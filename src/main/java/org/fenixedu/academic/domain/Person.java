@@ -42,6 +42,7 @@ import org.fenixedu.academic.domain.accounting.Event;
 import org.fenixedu.academic.domain.accounting.EventType;
 import org.fenixedu.academic.domain.accounting.PaymentCode;
 import org.fenixedu.academic.domain.accounting.PaymentCodeType;
+import org.fenixedu.academic.domain.accounting.PersonDebtLedger;
 import org.fenixedu.academic.domain.accounting.Receipt;
 import org.fenixedu.academic.domain.accounting.ResidenceEvent;
 import org.fenixedu.academic.domain.accounting.ServiceAgreement;
@@ -82,6 +83,7 @@ import org.fenixedu.academic.domain.person.IDDocumentType;
 import org.fenixedu.academic.domain.person.IdDocument;
 import org.fenixedu.academic.domain.person.IdDocumentTypeObject;
 import org.fenixedu.academic.domain.person.MaritalStatus;
+import org.fenixedu.academic.domain.person.PersonNameIndex;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.domain.phd.alert.PhdAlertMessage;
 import org.fenixedu.academic.domain.phd.candidacy.PHDProgramCandidacy;
@@ -210,18 +212,27 @@ public class Person extends Person_Base {
 
     public void setIdentificationAndNames(String documentIdNumber, final IDDocumentType idDocumentType, final String givenNames,
             final String familyNames) {
-        getProfile().changeName(givenNames, familyNames, null);
+        changeName(givenNames, familyNames, null);
         setIdentification(documentIdNumber, idDocumentType);
     }
 
+    /**
+     * Changes the names kept in the profile of the person. Names must be changed through this method, or the setters below,
+     * so that the person is found by its new name in searches.
+     */
+    public void changeName(final String givenNames, final String familyNames, final String displayName) {
+        getProfile().changeName(givenNames, familyNames, displayName);
+        PersonNameIndex.add(this);
+    }
+
     public void setGivenNames(String newGivenNames) {
         UserProfile profile = getProfile();
-        profile.changeName(newGivenNames, profile.getFamilyNames(), profile.getDisplayName());
+        changeName(newGivenNames, profile.getFamilyNames(), profile.getDisplayName());
     }
 
     public void setFamilyNames(String newFamilyNames) {
         UserProfile profile = getProfile();
-        profile.changeName(profile.getGivenNames(), newFamilyNames, profile.getDisplayName());
+        changeName(profile.getGivenNames(), newFamilyNames, profile.getDisplayName());
     }
 
     private boolean checkIfDocumentNumberIdAndDocumentIdTypeExists(final String documentIDNumber,
@@ -249,6 +260,7 @@ public class Person extends Person_Base {
             setUser(profile.getUser());
         }
         setMaritalStatus(MaritalStatus.UNKNOWN);
+        PersonNameIndex.add(this);
     }
 
     /**
@@ -355,7 +367,7 @@ public class Person extends Person_Base {
     }
 
     public Person editByPublicCandidate(final PersonBean personBean) {
-        getProfile().changeName(personBean.getGivenNames(), personBean.getFamilyNames(), null);
+        changeName(personBean.getGivenNames(), personBean.getFamilyNames(), null);
         setGender(personBean.getGender());
         setIdentification(personBean.getDocumentIdNumber(), personBean.getIdDocumentType());
         setExpirationDateOfDocumentIdYearMonthDay(personBean.getDocumentIdExpirationDate());
@@ -375,7 +387,7 @@ public class Person extends Person_Base {
         this.setIdentification(candidacyExternalDetails.getDocumentIdNumber(), candidacyExternalDetails.getIdDocumentType());
         this.setExpirationDateOfDocumentIdYearMonthDay(candidacyExternalDetails.getExpirationDateOfDocumentIdYearMonthDay());
         this.setGender(candidacyExternalDetails.getGender());
-        getProfile().changeName(candidacyExternalDetails.getGivenNames(), candidacyExternalDetails.getFamilyNames(), null);
+        changeName(candidacyExternalDetails.getGivenNames(), candidacyExternalDetails.getFamilyNames(), null);
         this.setSocialSecurityNumber(candidacyExternalDetails.getSocialSecurityNumber());
 
         final PhysicalAddressData physicalAddressData =
@@ -444,7 +456,7 @@ public class Person extends Person_Base {
 
     private void setProperties(final PersonBean personBean) {
 
-        getProfile().changeName(personBean.getGivenNames(), personBean.getFamilyNames(), null);
+        changeName(personBean.getGivenNames(), personBean.getFamilyNames(), null);
 
         setGender(personBean.getGender());
         setProfession(personBean.getProfession());
@@ -1334,8 +1346,8 @@ public class Person extends Person_Base {
     }
 
     public boolean hasAnyAdministrativeOfficeFeeAndInsuranceEventInDebt() {
-        for (final Event event : getEventsByEventType(EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE)) {
-            if (event.isInDebt()) {
+        for (final Event event : PersonDebtLedger.of(this).getEventsInDebt()) {
+            if (event.getEventType() == EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE) {
                 return true;
             }
         }
@@ -1344,16 +1356,11 @@ public class Person extends Person_Base {
     }
 
     public boolean hasAnyPastAdministrativeOfficeFeeAndInsuranceEventInDebt() {
-        for (final Event event : getEventsByEventType(EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE)) {
-            final AdministrativeOfficeFeeAndInsuranceEvent administrativeOfficeFeeAndInsuranceEvent =
-                    (AdministrativeOfficeFeeAndInsuranceEvent) event;
-
-            if (administrativeOfficeFeeAndInsuranceEvent instanceof PastAdministrativeOfficeFeeAndInsuranceEvent) {
-                if (event.isInDebt()) {
-                    return true;
-                }
+        for (final Event event : PersonDebtLedger.of(this).getEventsInDebt()) {
+            if (event.getEventType() == EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE
+                    && event instanceof PastAdministrativeOfficeFeeAndInsuranceEvent) {
+                return true;
             }
-
         }
 
         return false;
@@ -1362,9 +1369,9 @@ public class Person extends Person_Base {
     public boolean hasAnyResidencePaymentsInDebtForPreviousYear() {
         final int previousYear = new LocalDate().minusYears(1).getYear();
 
-        for (final Event event : getResidencePaymentEvents()) {
-            final ResidenceEvent residenceEvent = (ResidenceEvent) event;
-            if (residenceEvent.isFor(previousYear) && !residenceEvent.isCancelled() && !residenceEvent.isPayed()) {
+        // residence events that are neither cancelled nor payed are the open ones
+        for (final Event event : PersonDebtLedger.of(this).getOpenEvents()) {
+            if (event instanceof ResidenceEvent && ((ResidenceEvent) event).isFor(previousYear)) {
                 return true;
             }
         }
@@ -22,11 +22,19 @@ import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.fenixedu.academic.FenixEduAcademicConfiguration;
 import org.fenixedu.academic.domain.photograph.AspectRatio;
 import org.fenixedu.academic.domain.photograph.Picture;
 import org.fenixedu.academic.domain.photograph.PictureMode;
 import org.fenixedu.academic.domain.photograph.PictureOriginal;
+import org.fenixedu.academic.domain.photograph.PictureRenditionCache;
 import org.fenixedu.academic.domain.util.email.Message;
 import org.fenixedu.academic.domain.util.email.Recipient;
 import org.fenixedu.academic.domain.util.email.SystemSender;
@@ -41,8 +49,14 @@ import org.imgscalr.Scalr;
 import org.imgscalr.Scalr.Method;
 import org.imgscalr.Scalr.Mode;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+import pt.ist.fenixframework.FenixFramework;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 public class Photograph extends Photograph_Base implements Comparable<Photograph> {
 
@@ -50,6 +64,13 @@ public class Photograph extends Photograph_Base implements Comparable<Photograph
 
     private static final String REJECTION_MAIL_BODY_KEY = "photo.email.body.rejection";
 
+    private static final String MYSTERY_MAN_ID = "mm-av";
+
+    private static final Logger logger = LoggerFactory.getLogger(Photograph.class);
+
+    private static final ExecutorService renditionPrecomputer = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true).setNameFormat("photograph-renditions-%d").build());
+
     private Photograph() {
         super();
         setRootDomainObject(Bennu.getInstance());
@@ -115,6 +136,7 @@ public class Photograph extends Photograph_Base implements Comparable<Photograph
                 if (getPhotoType() != PhotoType.INSTITUTIONAL) {
                     logState("log.personInformation.photo.approved");
                 }
+                precomputeRenditionsAfterCommit();
             }
         }
     }
@@ -165,6 +187,11 @@ public class Photograph extends Photograph_Base implements Comparable<Photograph
     }
 
     public byte[] getCustomAvatar(int xRatio, int yRatio, int width, int height, PictureMode pictureMode) {
+        final String key = PictureRenditionCache.key(getExternalId(), xRatio, yRatio, width, height, pictureMode);
+        return PictureRenditionCache.get(key, () -> renderCustomAvatar(xRatio, yRatio, width, height, pictureMode));
+    }
+
+    private byte[] renderCustomAvatar(int xRatio, int yRatio, int width, int height, PictureMode pictureMode) {
         PictureOriginal original = getOriginal();
         BufferedImage image =
                 original.getPictureFileFormat() == ContentType.JPG ? Picture.readImage(original.getPictureData()) : read(original);
@@ -213,10 +240,47 @@ public class Photograph extends Photograph_Base implements Comparable<Photograph
     }
 
     public static byte[] mysteryManPhoto(int xRatio, int yRatio, int width, int height, PictureMode pictureMode) {
+        // the mystery man is always processed as a square of the given width
+        final String key = PictureRenditionCache.key(MYSTERY_MAN_ID, 1, 1, width, width, PictureMode.FIT);
+        return PictureRenditionCache.get(key, () -> renderMysteryMan(width));
+    }
+
+    private static byte[] renderMysteryMan(int width) {
         try (InputStream mm = Photograph.class.getClassLoader().getResourceAsStream("META-INF/resources/img/mysteryman.png")) {
             return Avatar.process(mm, "image/png", width);
         } catch (IOException e) {
-            return null;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void precomputeRenditionsAfterCommit() {
+        final String externalId = getExternalId();
+        try {
+            FenixFramework.getTransaction().registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        renditionPrecomputer.execute(() -> precomputeRenditions(externalId));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Unable to schedule renditions of photograph " + externalId, e);
+        }
+    }
+
+    @Atomic(mode = TxMode.READ)
+    private static void precomputeRenditions(String externalId) {
+        final Photograph photograph = FenixFramework.getDomainObject(externalId);
+        for (String size : FenixEduAcademicConfiguration.getConfiguration().getPictureRenditionPrecomputedSizes().split(",")) {
+            if (!size.trim().isEmpty()) {
+                final int pixels = PictureRenditionCache.renditionSize(Integer.parseInt(size.trim()));
+                photograph.getCustomAvatar(pixels, pixels, PictureMode.ZOOM);
+            }
         }
     }
 
@@ -32,6 +32,7 @@ import java.util.Map;
 
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.student.GroupEnrolment;
+import org.fenixedu.academic.domain.util.icalendar.CalendarFeedCache;
 import org.fenixedu.academic.domain.util.icalendar.EvaluationEventBean;
 import org.fenixedu.academic.service.services.exceptions.FenixServiceException;
 import org.fenixedu.academic.util.Bundle;
@@ -138,6 +139,7 @@ public class Project extends Project_Base {
         departmentsList.addAll(departments);
 
         logEdit();
+        CalendarFeedCache.invalidateAll();
     }
 
     private void setOnlineSubmissionProperties(Boolean onlineSubmissionsAllowed, Integer maxSubmissionsToKeep, Grouping grouping) {
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.fenixedu.academic.domain.util.email.Message;
 import org.fenixedu.academic.domain.util.email.SystemSender;
 import org.fenixedu.bennu.core.domain.Bennu;
@@ -33,6 +34,21 @@ import pt.ist.fenixframework.Atomic;
 
 abstract public class PublicCandidacyHashCode extends PublicCandidacyHashCode_Base {
 
+    /*
+     * Values and emails are set once, when the hash code is created, so the indexes also answer transactions older than them.
+     * Hash codes created by other servers are found by scanning until the indexes are rebuilt in the background, but existing
+     * values are always answered from the index.
+     */
+    private static final DomainIndex<String, PublicCandidacyHashCode> VALUE_INDEX =
+            new DomainIndex<String, PublicCandidacyHashCode>("PublicCandidacyHashCode.value",
+                    () -> Bennu.getInstance().getCandidacyHashCodesSet(),
+                    hashCode -> hashCode.getRootDomainObject() != null ? hashCode.getValue() : null, true);
+
+    private static final DomainIndex<String, PublicCandidacyHashCode> EMAIL_INDEX =
+            new DomainIndex<String, PublicCandidacyHashCode>("PublicCandidacyHashCode.email",
+                    () -> Bennu.getInstance().getCandidacyHashCodesSet(),
+                    hashCode -> hashCode.getRootDomainObject() != null ? hashCode.getEmail() : null, true);
+
     protected PublicCandidacyHashCode() {
         super();
         setRootDomainObject(Bennu.getInstance());
@@ -59,28 +75,28 @@ abstract public class PublicCandidacyHashCode extends PublicCandidacyHashCode_Ba
 
     abstract public boolean hasCandidacyProcess();
 
+    @Override
+    public void setValue(String value) {
+        super.setValue(value);
+        VALUE_INDEX.add(this);
+    }
+
+    @Override
+    public void setEmail(String email) {
+        super.setEmail(email);
+        EMAIL_INDEX.add(this);
+    }
+
     static public PublicCandidacyHashCode getPublicCandidacyCodeByHash(final String hash) {
         if (isEmpty(hash)) {
             return null;
         }
 
-        for (final PublicCandidacyHashCode hashCode : Bennu.getInstance().getCandidacyHashCodesSet()) {
-            if (hash.equals(hashCode.getValue())) {
-                return hashCode;
-            }
-        }
-
-        return null;
+        return VALUE_INDEX.getAny(hash);
     }
 
     protected static List<PublicCandidacyHashCode> getHashCodesAssociatedWithEmail(final String email) {
-        final List<PublicCandidacyHashCode> result = new ArrayList<PublicCandidacyHashCode>();
-        for (final PublicCandidacyHashCode hashCode : Bennu.getInstance().getCandidacyHashCodesSet()) {
-            if (hashCode.getEmail().equals(email)) {
-                result.add(hashCode);
-            }
-        }
-        return result;
+        return new ArrayList<PublicCandidacyHashCode>(EMAIL_INDEX.get(email));
     }
 
 }
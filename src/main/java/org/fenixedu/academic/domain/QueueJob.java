@@ -18,6 +18,7 @@
  */
 package org.fenixedu.academic.domain;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -53,8 +54,25 @@ public abstract class QueueJob extends QueueJob_Base {
         setPerson(AccessControl.getPerson());
     }
 
+    /**
+     * Computes the result of the job. It is run in a read-only transaction (upgraded to a write transaction only if the job
+     * changes the domain), so jobs should leave their domain changes to {@link #storeResult(QueueJobResult)}.
+     */
     public abstract QueueJobResult execute() throws Exception;
 
+    /**
+     * Stores the result computed by {@link #execute()}. Runs in the short write transaction that marks the job as done.
+     */
+    public void storeResult(final QueueJobResult result) throws IOException {
+    }
+
+    /**
+     * Reports how much of the job is done, so that it can be followed while it runs.
+     */
+    protected void reportProgress(final long done, final long total) {
+        QueueJobProgress.report(this, done, total);
+    }
+
     public String getDescription() {
         return "Tarefa";
     }
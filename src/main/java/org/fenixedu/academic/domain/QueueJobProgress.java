@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Progress of a {@link QueueJob} being executed by this application server, as reported by the job itself through
+ * {@link QueueJob#reportProgress(long, long)}.
+ */
+public class QueueJobProgress {
+
+    private static final ConcurrentMap<String, QueueJobProgress> running = new ConcurrentHashMap<String, QueueJobProgress>();
+
+    private final String externalId;
+
+    private final String description;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private volatile long done = 0;
+
+    private volatile long total = 0;
+
+    private QueueJobProgress(final String externalId, final String description) {
+        this.externalId = externalId;
+        this.description = description;
+    }
+
+    public static void started(final QueueJob job, final String description) {
+        running.put(job.getExternalId(), new QueueJobProgress(job.getExternalId(), description));
+    }
+
+    public static void finished(final QueueJob job) {
+        running.remove(job.getExternalId());
+    }
+
+    public static Collection<QueueJobProgress> getRunning() {
+        return new ArrayList<QueueJobProgress>(running.values());
+    }
+
+    static void report(final QueueJob job, final long done, final long total) {
+        final QueueJobProgress progress = running.get(job.getExternalId());
+        if (progress != null) {
+            progress.total = total;
+            progress.done = done;
+        }
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public long getDone() {
+        return done;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        final String progress = total > 0 ? String.format("%s of %s (%s%%)", done, total, done * 100 / total) : "unknown";
+        return String.format("%s: %s, running for %s s, progress %s", externalId, description, getElapsedMillis() / 1000,
+                progress);
+    }
+
+}
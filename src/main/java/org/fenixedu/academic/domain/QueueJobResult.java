@@ -18,9 +18,14 @@
  */
 package org.fenixedu.academic.domain;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
 public class QueueJobResult {
     private String contentType;
     private byte[] content;
+    private File contentFile;
 
     public String getContentType() {
         return contentType;
@@ -37,4 +42,22 @@ public class QueueJobResult {
     public void setContent(byte[] content) {
         this.content = content;
     }
+
+    /**
+     * A temporary file with the content, used instead of {@link #getContent()} by jobs whose results are too large to be kept
+     * in memory. It is deleted by {@link #discard()} once the result is stored.
+     */
+    public File getContentFile() {
+        return contentFile;
+    }
+
+    public void setContentFile(File contentFile) {
+        this.contentFile = contentFile;
+    }
+
+    public void discard() throws IOException {
+        if (contentFile != null) {
+            Files.deleteIfExists(contentFile.toPath());
+        }
+    }
 }
@@ -18,6 +18,11 @@
  */
 package org.fenixedu.academic.domain;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.fenixedu.academic.domain.documents.GeneratedDocumentType;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.bennu.core.domain.User;
@@ -32,6 +37,14 @@ public class QueueJobResultFile extends QueueJobResultFile_Base {
         init(GeneratedDocumentType.QUEUE_JOB, operator, operator, filename, content);
     }
 
+    protected QueueJobResultFile(QueueJobWithFile job, Person operator, String filename, File content) throws IOException {
+        super();
+        setJob(job);
+        try (final InputStream stream = new FileInputStream(content)) {
+            init(GeneratedDocumentType.QUEUE_JOB, operator, operator, filename, stream);
+        }
+    }
+
     @Override
     public boolean isAccessible(User user) {
         return super.isAccessible(user) || RoleType.MANAGER.isMember(user);
@@ -48,4 +61,9 @@ public class QueueJobResultFile extends QueueJobResultFile_Base {
         new QueueJobResultFile(job, person, filename, content);
     }
 
+    @Atomic
+    public static void store(QueueJobWithFile job, Person person, String filename, File content) throws IOException {
+        new QueueJobResultFile(job, person, filename, content);
+    }
+
 }
@@ -40,6 +40,8 @@ import org.apache.commons.collections.Transformer;
 import org.apache.commons.lang.StringUtils;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicAccessRule;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicOperationType;
+import org.fenixedu.academic.domain.accounting.Event;
+import org.fenixedu.academic.domain.accounting.PersonDebtLedger;
 import org.fenixedu.academic.domain.accounting.events.EnrolmentOutOfPeriodEvent;
 import org.fenixedu.academic.domain.accounting.events.ImprovementOfApprovedEnrolmentEvent;
 import org.fenixedu.academic.domain.accounting.events.gratuity.GratuityEvent;
@@ -68,6 +70,7 @@ import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.RegistrationProtocol;
 import org.fenixedu.academic.domain.student.Student;
 import org.fenixedu.academic.domain.student.curriculum.Curriculum;
+import org.fenixedu.academic.domain.student.curriculum.CurriculumSnapshot;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationStateType;
 import org.fenixedu.academic.domain.studentCurricularPlan.Specialization;
 import org.fenixedu.academic.domain.studentCurricularPlan.StudentCurricularPlanState;
@@ -413,6 +416,13 @@ public class StudentCurricularPlan extends StudentCurricularPlan_Base {
         return getRoot().getCurriculum(when, executionYear);
     }
 
+    /**
+     * Results of the current curriculum for the given execution year, shared until the curriculum of this plan changes.
+     */
+    final public CurriculumSnapshot getCurriculumSnapshot(final ExecutionYear executionYear) {
+        return CurriculumSnapshot.of(this, executionYear);
+    }
+
     final public boolean isActive() {
         return isLastStudentCurricularPlanFromRegistration() && getRegistration().isActive();
     }
@@ -1568,18 +1578,12 @@ public class StudentCurricularPlan extends StudentCurricularPlan_Base {
     }
 
     final public boolean hasAnyNotPayedGratuityEvents() {
-        for (final GratuityEvent gratuityEvent : getGratuityEventsSet()) {
-            if (gratuityEvent.isInDebt()) {
-                return true;
-            }
-        }
-
-        return false;
+        return !getGratuityEventsInDebt().isEmpty();
     }
 
     final public boolean hasAnyNotPayedGratuityEventsUntil(final ExecutionYear executionYear) {
-        for (final GratuityEvent gratuityEvent : getGratuityEventsSet()) {
-            if (gratuityEvent.getExecutionYear().isBeforeOrEquals(executionYear) && gratuityEvent.isInDebt()) {
+        for (final GratuityEvent gratuityEvent : getGratuityEventsInDebt()) {
+            if (gratuityEvent.getExecutionYear().isBeforeOrEquals(executionYear)) {
                 return true;
             }
         }
@@ -1592,8 +1596,8 @@ public class StudentCurricularPlan extends StudentCurricularPlan_Base {
      */
     final public boolean hasAnyNotPayedGratuityEventsForPreviousYears(final ExecutionYear limitExecutionYear) {
 
-        for (final GratuityEvent gratuityEvent : getGratuityEventsSet()) {
-            if (gratuityEvent.getExecutionYear().isBefore(limitExecutionYear) && gratuityEvent.isInDebt()) {
+        for (final GratuityEvent gratuityEvent : getGratuityEventsInDebt()) {
+            if (gratuityEvent.getExecutionYear().isBefore(limitExecutionYear)) {
                 return true;
             }
         }
@@ -1601,6 +1605,16 @@ public class StudentCurricularPlan extends StudentCurricularPlan_Base {
         return false;
     }
 
+    private List<GratuityEvent> getGratuityEventsInDebt() {
+        final List<GratuityEvent> result = new ArrayList<GratuityEvent>();
+        for (final Event event : PersonDebtLedger.of(getPerson()).getEventsInDebt()) {
+            if (event instanceof GratuityEvent && ((GratuityEvent) event).getStudentCurricularPlan() == this) {
+                result.add((GratuityEvent) event);
+            }
+        }
+        return result;
+    }
+
     public int numberCompletedCoursesForSpecifiedDegrees(final Set<Degree> degrees) {
         int numberCompletedCourses = 0;
         for (final StudentCurricularPlan studentCurricularPlan : getRegistration().getStudentCurricularPlansSet()) {
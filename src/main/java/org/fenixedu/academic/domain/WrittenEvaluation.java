@@ -39,6 +39,7 @@ import org.fenixedu.academic.domain.space.SpaceUtils;
 import org.fenixedu.academic.domain.space.WrittenEvaluationSpaceOccupation;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
+import org.fenixedu.academic.domain.util.icalendar.CalendarFeedCache;
 import org.fenixedu.academic.domain.util.icalendar.EvaluationEventBean;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.academic.util.DateFormatUtil;
@@ -457,6 +458,7 @@ abstract public class WrittenEvaluation extends WrittenEvaluation_Base {
         }
 
         checkIntervalBetweenEvaluations();
+        CalendarFeedCache.invalidateAll();
     }
 
     @Override
@@ -0,0 +1,73 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.accessControl;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.fenixedu.academic.domain.util.TransactionalCache;
+import org.fenixedu.bennu.core.domain.User;
+import org.fenixedu.bennu.core.groups.Group;
+
+/**
+ * Materialized members of groups whose membership is expensive to compute, keyed by the group definition.
+ *
+ * Members are kept in a {@link TransactionalCache}, computed from committed state and shared until a transaction that changed
+ * the data they depend on commits, which must be signalled with {@link #invalidateAfterCommit()} (usually from relation
+ * listeners). Transactions that made such changes compute the members again, so they always see their own changes, and
+ * members computed while such a change commits are never kept. Entries also expire after a while, which bounds the staleness
+ * caused by changes that are not signalled, such as the passing of time or changes made by other application servers.
+ */
+public class GroupMembershipCache<G extends Group> {
+
+    private static final String MEMBERS = "members";
+
+    private final TransactionalCache<G, Set<User>> members;
+
+    public GroupMembershipCache(final String name, final long duration, final TimeUnit unit) {
+        this.members = TransactionalCache.ofSize(name, 1000, duration, unit);
+    }
+
+    /**
+     * Returns a copy of the members of the group, computing them if needed.
+     */
+    public Set<User> getMembers(final G group, final Supplier<Set<User>> supplier) {
+        return new HashSet<User>(members.get(group, MEMBERS,
+                () -> Collections.unmodifiableSet(new HashSet<User>(supplier.get()))));
+    }
+
+    /**
+     * Discards every materialized group once the running transaction commits.
+     */
+    public void invalidateAfterCommit() {
+        members.invalidateAll();
+    }
+
+    /**
+     * Discards the materialized groups matching the given predicate once the running transaction commits.
+     */
+    public void invalidateAfterCommit(final Predicate<? super G> affected) {
+        members.invalidateIf(affected);
+    }
+
+}
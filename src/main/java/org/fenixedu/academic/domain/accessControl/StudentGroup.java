@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.fenixedu.academic.domain.Attends;
 import org.fenixedu.academic.domain.CurricularYear;
@@ -35,6 +36,7 @@ import org.fenixedu.academic.domain.degree.DegreeType;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.domain.student.Registration;
+import org.fenixedu.academic.domain.student.registrationStates.RegistrationState;
 import org.fenixedu.academic.domain.studentCurriculum.CurriculumModule.ConclusionValue;
 import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.util.Bundle;
@@ -46,6 +48,8 @@ import org.fenixedu.bennu.core.i18n.BundleUtil;
 import org.fenixedu.spaces.domain.Space;
 import org.joda.time.DateTime;
 
+import pt.ist.fenixframework.dml.runtime.RelationAdapter;
+
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
@@ -56,6 +60,64 @@ import com.google.common.collect.Sets;
 public class StudentGroup extends FenixGroup {
     private static final long serialVersionUID = -3059659317143315425L;
 
+    private static final GroupMembershipCache<StudentGroup> MEMBERS =
+            new GroupMembershipCache<StudentGroup>("student group members", 10, TimeUnit.MINUTES);
+
+    static {
+        Registration.getRelationRegistrationStateRegistration().addListener(
+                new RelationAdapter<Registration, RegistrationState>() {
+                    @Override
+                    public void afterAdd(Registration registration, RegistrationState state) {
+                        MEMBERS.invalidateAfterCommit();
+                    }
+
+                    @Override
+                    public void afterRemove(Registration registration, RegistrationState state) {
+                        MEMBERS.invalidateAfterCommit();
+                    }
+                });
+        Registration.getRelationStudentCurricularPlanStudent().addListener(
+                new RelationAdapter<Registration, StudentCurricularPlan>() {
+                    @Override
+                    public void afterAdd(Registration registration, StudentCurricularPlan studentCurricularPlan) {
+                        MEMBERS.invalidateAfterCommit();
+                    }
+
+                    @Override
+                    public void afterRemove(Registration registration, StudentCurricularPlan studentCurricularPlan) {
+                        MEMBERS.invalidateAfterCommit();
+                    }
+                });
+        ExecutionCourse.getRelationExecutionCourseAttends().addListener(new RelationAdapter<ExecutionCourse, Attends>() {
+            @Override
+            public void afterAdd(ExecutionCourse executionCourse, Attends attends) {
+                invalidateMembersOf(executionCourse);
+            }
+
+            @Override
+            public void afterRemove(ExecutionCourse executionCourse, Attends attends) {
+                invalidateMembersOf(executionCourse);
+            }
+        });
+        Registration.getRelationAttendsStudent().addListener(new RelationAdapter<Registration, Attends>() {
+            @Override
+            public void afterAdd(Registration registration, Attends attends) {
+                invalidateMembersOf(attends != null ? attends.getExecutionCourse() : null);
+            }
+
+            @Override
+            public void afterRemove(Registration registration, Attends attends) {
+                invalidateMembersOf(attends != null ? attends.getExecutionCourse() : null);
+            }
+        });
+    }
+
+    private static void invalidateMembersOf(final ExecutionCourse executionCourse) {
+        if (executionCourse != null) {
+            MEMBERS.invalidateAfterCommit(group -> group.executionCourse == executionCourse);
+        }
+    }
+
     @GroupArgument
     private DegreeType degreeType;
 
@@ -172,6 +234,10 @@ public class StudentGroup extends FenixGroup {
 
     @Override
     public Set<User> getMembers() {
+        return MEMBERS.getMembers(this, this::computeMembers);
+    }
+
+    private Set<User> computeMembers() {
         if (executionCourse != null) {
             if (degree == null && degreeType == null && campus == null) {
                 return registrationsToUsers(getCourseBasedRegistrations(executionCourse));
@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 
 import org.fenixedu.academic.domain.AcademicProgram;
 import org.fenixedu.academic.domain.Degree;
+import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicAccessRuleIndex.Entry;
 import org.fenixedu.academic.domain.accessControl.rules.AccessRule;
 import org.fenixedu.academic.domain.accessControl.rules.AccessRuleSystem;
 import org.fenixedu.academic.domain.accessControl.rules.AccessTarget;
@@ -37,7 +38,24 @@ import org.fenixedu.bennu.core.domain.User;
 import org.fenixedu.bennu.core.groups.Group;
 import org.joda.time.DateTime;
 
+import pt.ist.fenixframework.dml.runtime.RelationAdapter;
+
 public class AcademicAccessRule extends AcademicAccessRule_Base implements Comparable<AcademicAccessRule> {
+    static {
+        AdministrativeOffice.getRelationAdministrativeOfficeManagedAcademicPrograms().addListener(
+                new RelationAdapter<AdministrativeOffice, AcademicProgram>() {
+                    @Override
+                    public void afterAdd(AdministrativeOffice office, AcademicProgram program) {
+                        AcademicAccessRuleIndex.invalidateAfterCommit();
+                    }
+
+                    @Override
+                    public void afterRemove(AdministrativeOffice office, AcademicProgram program) {
+                        AcademicAccessRuleIndex.invalidateAfterCommit();
+                    }
+                });
+    }
+
     public static abstract class AcademicAccessTarget implements AccessTarget {
         public abstract void write(AcademicAccessRule academicAccessRule, AcademicOperationType operation);
     }
@@ -89,6 +107,13 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
         for (AcademicAccessTarget target : whatCanAffect) {
             target.write(this, operation);
         }
+        AcademicAccessRuleIndex.invalidateAfterCommit();
+    }
+
+    @Override
+    public void revoke() {
+        super.revoke();
+        AcademicAccessRuleIndex.invalidateAfterCommit();
     }
 
     @Override
@@ -139,7 +164,7 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
     }
 
     protected static Stream<AcademicAccessRule> filter(AcademicOperationType function) {
-        return accessRules().filter(r -> r.getOperation().equals(function));
+        return AcademicAccessRuleIndex.entries(function).map(Entry::getRule);
     }
 
     protected static Stream<AcademicAccessRule> filter(AcademicOperationType function, DateTime when) {
@@ -148,14 +173,7 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
 
     protected static Stream<AcademicAccessRule> filter(AcademicOperationType function, Set<AcademicProgram> programs,
             Set<AdministrativeOffice> offices) {
-        Stream<AcademicAccessRule> stream = filter(function);
-        if (programs != null && !programs.isEmpty()) {
-            stream = stream.filter(r -> r.getFullProgramSet().collect(Collectors.toSet()).containsAll(programs));
-        }
-        if (offices != null && !offices.isEmpty()) {
-            stream = stream.filter(r -> r.getOfficeSet().containsAll(offices));
-        }
-        return stream;
+        return AcademicAccessRuleIndex.entries(function).filter(e -> e.affects(programs, offices)).map(Entry::getRule);
     }
 
     protected static Stream<AcademicAccessRule> filter(AcademicOperationType function, Set<AcademicProgram> programs,
@@ -171,14 +189,14 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
     }
 
     public static Set<User> getMembers(Predicate<? super AcademicAccessRule> filter) {
-        return AcademicAccessRule.accessRules().filter(filter).map(AccessRule::getWhoCanAccess)
+        return AcademicAccessRuleIndex.entries().filter(e -> filter.test(e.getRule())).map(Entry::getWhoCanAccess)
                 .flatMap(group -> group.getMembers().stream()).collect(Collectors.toSet());
     }
 
     public static Set<User> getMembers(AcademicOperationType function, Set<AcademicProgram> programs,
             Set<AdministrativeOffice> offices) {
-        return filter(function, programs, offices).map(AccessRule::getWhoCanAccess).flatMap(group -> group.getMembers().stream())
-                .collect(Collectors.toSet());
+        return AcademicAccessRuleIndex.entries(function).filter(e -> e.affects(programs, offices)).map(Entry::getWhoCanAccess)
+                .flatMap(group -> group.getMembers().stream()).collect(Collectors.toSet());
     }
 
     public static Set<User> getMembers(Predicate<? super AcademicAccessRule> filter, DateTime when) {
@@ -193,12 +211,13 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
     }
 
     public static boolean isMember(User user, Predicate<? super AcademicAccessRule> filter) {
-        return AcademicAccessRule.accessRules().filter(filter).anyMatch(group -> group.isMember(user));
+        return AcademicAccessRuleIndex.entriesOf(user).anyMatch(e -> filter.test(e.getRule()));
     }
 
     public static boolean isMember(User user, AcademicOperationType function, Set<AcademicProgram> programs,
             Set<AdministrativeOffice> offices) {
-        return filter(function, programs, offices).anyMatch(group -> group.isMember(user));
+        return AcademicAccessRuleIndex.entriesOf(user).anyMatch(
+                e -> e.getOperation().equals(function) && e.affects(programs, offices));
     }
 
     public static boolean isMember(User user, Predicate<? super AcademicAccessRule> filter, DateTime when) {
@@ -211,12 +230,13 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
     }
 
     public static Stream<AcademicProgram> getProgramsAccessibleToFunction(AcademicOperationType function, User user) {
-        return filter(function).filter(r -> r.getWhoCanAccess().isMember(user)).flatMap(r -> r.getFullProgramSet());
+        return AcademicAccessRuleIndex.entriesOf(user).filter(e -> e.getOperation().equals(function))
+                .flatMap(e -> e.getPrograms().stream());
     }
 
     public static boolean isProgramAccessibleToFunction(AcademicOperationType function, AcademicProgram program, User user) {
-        return filter(function).filter(r -> r.getWhoCanAccess().isMember(user)).flatMap(r -> r.getFullProgramSet())
-                .anyMatch(p -> p.equals(program));
+        return AcademicAccessRuleIndex.entriesOf(user).anyMatch(
+                e -> e.getOperation().equals(function) && e.getPrograms().contains(program));
     }
 
     public static Stream<Degree> getDegreesAccessibleToFunction(AcademicOperationType function, User user) {
@@ -232,7 +252,8 @@ public class AcademicAccessRule extends AcademicAccessRule_Base implements Compa
     }
 
     public static Stream<AdministrativeOffice> getOfficesAccessibleToFunction(AcademicOperationType function, User user) {
-        return filter(function).filter(r -> r.getWhoCanAccess().isMember(user)).flatMap(r -> r.getOfficeSet().stream());
+        return AcademicAccessRuleIndex.entriesOf(user).filter(e -> e.getOperation().equals(function))
+                .flatMap(e -> e.getOffices().stream());
     }
 
     @Override
@@ -0,0 +1,236 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.accessControl.academicAdministration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.fenixedu.academic.domain.AcademicProgram;
+import org.fenixedu.academic.domain.administrativeOffice.AdministrativeOffice;
+import org.fenixedu.academic.domain.util.CommittedState;
+import org.fenixedu.academic.domain.util.DocumentSequence;
+import org.fenixedu.bennu.core.domain.User;
+import org.fenixedu.bennu.core.groups.Group;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+/**
+ * Precomputed view of the current academic access rules.
+ *
+ * Rules are grouped by operation, each with its group and full program and office sets already resolved, so checks no longer
+ * rebuild them for every rule. Whether a user belongs to the group of a rule is always evaluated by the checking transaction, so
+ * a user removed from a group loses the access it granted as soon as the removal is seen. Rules are immutable (changing a rule
+ * revokes it and grants a new one), so the view only needs to be rebuilt when a transaction that granted or revoked a rule, or
+ * changed the programs managed by an administrative office, commits. Such transactions read the rules directly until they finish,
+ * and advance a persistent version of the rules, which every check compares with the version the view was built from: a rule
+ * revoked on any application server stops granting access as soon as the checking transaction sees the revocation.
+ *
+ * The view is always built from committed state, and a failure to build it fails the check. Transactions older than the
+ * view, which do not see its version yet, read the rules directly.
+ */
+class AcademicAccessRuleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcademicAccessRuleIndex.class);
+
+    private static final String VERSION_SEQUENCE = "AcademicAccessRule";
+
+    private static final Set<Transaction> changed = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong generation = new AtomicLong();
+
+    private static volatile Snapshot snapshot = null;
+
+    static class Entry {
+
+        private final AcademicAccessRule rule;
+
+        private final AcademicOperationType operation;
+
+        private final Group whoCanAccess;
+
+        private final Set<AcademicProgram> programs;
+
+        private final Set<AdministrativeOffice> offices;
+
+        Entry(final AcademicAccessRule rule) {
+            this.rule = rule;
+            this.operation = rule.getOperation();
+            this.whoCanAccess = rule.getWhoCanAccess();
+            this.programs = Collections.unmodifiableSet(rule.getFullProgramSet().collect(Collectors.toSet()));
+            this.offices = Collections.unmodifiableSet(new HashSet<AdministrativeOffice>(rule.getOfficeSet()));
+        }
+
+        AcademicAccessRule getRule() {
+            return rule;
+        }
+
+        AcademicOperationType getOperation() {
+            return operation;
+        }
+
+        Group getWhoCanAccess() {
+            return whoCanAccess;
+        }
+
+        Set<AcademicProgram> getPrograms() {
+            return programs;
+        }
+
+        Set<AdministrativeOffice> getOffices() {
+            return offices;
+        }
+
+        boolean affects(final Set<AcademicProgram> programs, final Set<AdministrativeOffice> offices) {
+            return (programs == null || this.programs.containsAll(programs))
+                    && (offices == null || this.offices.containsAll(offices));
+        }
+    }
+
+    private static class Snapshot {
+
+        private final int version;
+
+        private final List<Entry> entries;
+
+        private final Map<AcademicOperationType, List<Entry>> byOperation =
+                new EnumMap<AcademicOperationType, List<Entry>>(AcademicOperationType.class);
+
+        private Snapshot(final int version, final List<Entry> entries) {
+            this.version = version;
+            this.entries = Collections.unmodifiableList(entries);
+            for (final Entry entry : entries) {
+                byOperation.computeIfAbsent(entry.getOperation(), o -> new ArrayList<Entry>()).add(entry);
+            }
+        }
+    }
+
+    static Stream<Entry> entries() {
+        if (isBypassed()) {
+            return AcademicAccessRule.accessRules().map(Entry::new);
+        }
+        return getSnapshot().entries.stream();
+    }
+
+    static Stream<Entry> entries(final AcademicOperationType operation) {
+        if (isBypassed()) {
+            return entries().filter(e -> e.getOperation().equals(operation));
+        }
+        final List<Entry> result = getSnapshot().byOperation.get(operation);
+        return result != null ? result.stream() : Stream.empty();
+    }
+
+    /**
+     * The rules whose group contains the given user.
+     */
+    static Stream<Entry> entriesOf(final User user) {
+        if (user == null) {
+            return Stream.empty();
+        }
+        return entries().filter(e -> e.getWhoCanAccess().isMember(user));
+    }
+
+    /* the current transaction changed the rules, which must then be read directly */
+    private static boolean isBypassed() {
+        final Transaction transaction = FenixFramework.getTransaction();
+        return transaction != null && changed.contains(transaction);
+    }
+
+    /**
+     * Advances the version of the rules, discards the view once the running transaction commits, and makes the running
+     * transaction read the rules directly.
+     */
+    static void invalidateAfterCommit() {
+        final Transaction transaction = FenixFramework.getTransaction();
+        if (transaction == null) {
+            invalidate();
+            return;
+        }
+        if (changed.add(transaction)) {
+            DocumentSequence.next(VERSION_SEQUENCE, null, () -> 0);
+            try {
+                transaction.registerSynchronization(new Synchronization() {
+
+                    @Override
+                    public void beforeCompletion() {
+                    }
+
+                    @Override
+                    public void afterCompletion(final int status) {
+                        if (status == Status.STATUS_COMMITTED) {
+                            invalidate();
+                        }
+                        changed.remove(transaction);
+                    }
+                });
+            } catch (final Exception e) {
+                logger.warn("Unable to register access rule index invalidation", e);
+                changed.remove(transaction);
+                invalidate();
+            }
+        }
+    }
+
+    private static synchronized void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private static Snapshot getSnapshot() {
+        final int version = DocumentSequence.current(VERSION_SEQUENCE, null);
+        Snapshot result = snapshot;
+        if (result != null && result.version == version) {
+            return result;
+        }
+        if (result != null && result.version > version) {
+            // the running transaction does not see the changes the view reflects yet
+            return new Snapshot(version, readRules());
+        }
+
+        final long current = generation.get();
+        // read the committed rules in a separate transaction, so that rules of an uncommitted transaction never grant access
+        result = CommittedState.read(() -> new Snapshot(DocumentSequence.current(VERSION_SEQUENCE, null), readRules()));
+        synchronized (AcademicAccessRuleIndex.class) {
+            // a rule changed while building, use this view once but do not keep it
+            if (generation.get() == current && (snapshot == null || snapshot.version < result.version)) {
+                snapshot = result;
+            }
+        }
+        return result.version == version ? result : new Snapshot(version, readRules());
+    }
+
+    private static List<Entry> readRules() {
+        return AcademicAccessRule.accessRules().map(Entry::new).collect(Collectors.toList());
+    }
+
+}
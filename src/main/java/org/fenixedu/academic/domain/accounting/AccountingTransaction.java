@@ -80,6 +80,7 @@ public class AccountingTransaction extends AccountingTransaction_Base {
         checkParameters(event, debit, credit);
 
         super.setEvent(event);
+        PersonDebtLedger.invalidate(event.getParty());
         super.setResponsibleUser(responsibleUser);
         super.addEntries(debit);
         super.addEntries(credit);
@@ -117,7 +118,13 @@ public class AccountingTransaction extends AccountingTransaction_Base {
 
     @Override
     public void setEvent(Event event) {
+        if (getEvent() != null) {
+            PersonDebtLedger.invalidate(getEvent().getParty());
+        }
         super.setEvent(event);
+        if (event != null) {
+            PersonDebtLedger.invalidate(event.getParty());
+        }
     }
 
     @Override
@@ -314,6 +321,9 @@ public class AccountingTransaction extends AccountingTransaction_Base {
         }
 
         super.setResponsibleUser(null);
+        if (getEvent() != null) {
+            PersonDebtLedger.invalidate(getEvent().getParty());
+        }
         super.setEvent(null);
         setRootDomainObject(null);
 
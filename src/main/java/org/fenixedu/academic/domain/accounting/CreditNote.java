@@ -30,6 +30,7 @@ import java.util.Set;
 import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.exceptions.DomainExceptionWithLabelFormatter;
+import org.fenixedu.academic.domain.util.DocumentSequence;
 import org.fenixedu.academic.dto.accounting.CreditNoteEntryDTO;
 import org.fenixedu.academic.util.LabelFormatter;
 import org.fenixedu.academic.util.Money;
@@ -85,9 +86,10 @@ public class CreditNote extends CreditNote_Base {
     }
 
     private Integer generateCreditNoteNumber(final Integer year) {
-        final List<CreditNote> creditNotes = getCreditNotesForYear(year);
-        return creditNotes.isEmpty() ? Integer.valueOf(1) : Collections.max(creditNotes, CreditNote.COMPARATOR_BY_NUMBER)
-                .getNumber() + 1;
+        return DocumentSequence.next(CreditNote.class.getSimpleName(), year, () -> {
+            final List<CreditNote> creditNotes = getCreditNotesForYear(year);
+            return creditNotes.isEmpty() ? 0 : Collections.max(creditNotes, CreditNote.COMPARATOR_BY_NUMBER).getNumber();
+        });
     }
 
     private List<CreditNote> getCreditNotesForYear(final Integer year) {
@@ -73,12 +73,14 @@ public abstract class Event extends Event_Base {
         checkParameters(eventType, person);
         super.setEventType(eventType);
         super.setParty(person);
+        PersonDebtLedger.invalidate(person);
     }
 
     protected void init(EventType eventType, Party party) {
         checkParameters(eventType, party);
         super.setEventType(eventType);
         super.setParty(party);
+        PersonDebtLedger.invalidate(party);
     }
 
     private void checkParameters(EventType eventType, Party person) throws DomainException {
@@ -760,6 +762,7 @@ public abstract class Event extends Event_Base {
     protected void changeState(EventState state, DateTime when) {
         super.setEventState(state);
         super.setEventStateDate(when);
+        PersonDebtLedger.invalidate(getParty());
     }
 
     public boolean isOtherPartiesPaymentsSupported() {
@@ -859,6 +862,7 @@ public abstract class Event extends Event_Base {
             getExemptionsSet().iterator().next().delete(false);
         }
 
+        PersonDebtLedger.invalidate(getParty());
         super.setParty(null);
         super.setResponsibleForCancel(null);
         setRootDomainObject(null);
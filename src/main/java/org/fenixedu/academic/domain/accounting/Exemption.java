@@ -38,6 +38,20 @@ public abstract class Exemption extends Exemption_Base {
                     throw new DomainException("error.accounting.Exemption.event.does.not.support.exemption");
                 }
             }
+
+            @Override
+            public void afterAdd(Exemption exemption, Event event) {
+                if (event != null) {
+                    PersonDebtLedger.invalidate(event.getParty());
+                }
+            }
+
+            @Override
+            public void afterRemove(Exemption exemption, Event event) {
+                if (event != null) {
+                    PersonDebtLedger.invalidate(event.getParty());
+                }
+            }
         });
 
     }
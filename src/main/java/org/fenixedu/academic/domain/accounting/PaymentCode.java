@@ -27,6 +27,7 @@ import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.accounting.util.PaymentCodeGenerator;
 import org.fenixedu.academic.domain.accounting.util.PaymentCodeGeneratorFactory;
 import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.academic.util.Money;
 import org.fenixedu.bennu.core.domain.Bennu;
@@ -59,6 +60,13 @@ public abstract class PaymentCode extends PaymentCode_Base {
         }
     };
 
+    /*
+     * Codes are set once, when the payment code is created, so the index also answers transactions older than it.
+     */
+    private static final DomainIndex<String, PaymentCode> CODE_INDEX = new DomainIndex<String, PaymentCode>("PaymentCode.code",
+            () -> Bennu.getInstance().getPaymentCodesSet(), paymentCode -> paymentCode.getRootDomainObject() != null ? paymentCode
+                    .getCode() : null, true);
+
     protected PaymentCode() {
         super();
         super.setRootDomainObject(Bennu.getInstance());
@@ -74,6 +82,7 @@ public abstract class PaymentCode extends PaymentCode_Base {
         checkParameters(paymentCodeType, startDate, endDate, minAmount, maxAmount, person);
 
         super.setCode(getPaymentCodeGenerator(paymentCodeType).generateNewCodeFor(paymentCodeType, person));
+        CODE_INDEX.add(this);
 
         super.setType(paymentCodeType);
         super.setStartDate(startDate);
@@ -261,12 +270,7 @@ public abstract class PaymentCode extends PaymentCode_Base {
         if (StringUtils.isEmpty(code)) {
             return null;
         }
-        for (final PaymentCode paymentCode : Bennu.getInstance().getPaymentCodesSet()) {
-            if (paymentCode.getCode().equals(code)) {
-                return paymentCode;
-            }
-        }
-        return null;
+        return CODE_INDEX.getAny(code);
     }
 
     public static boolean canGenerateNewCode(Class<? extends PaymentCode> paymentCodeClass, PaymentCodeType paymentCodeType,
@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.accounting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.fenixedu.academic.domain.organizationalStructure.Party;
+import org.fenixedu.academic.domain.util.TransactionalCache;
+import org.joda.time.LocalDate;
+
+/**
+ * Debt state of the events of a party, as of a given day: which events are open and which of those are in debt (see
+ * {@link Event#isInDebt()}). Enrolment and document request checks ask the ledger instead of going through every event of
+ * the person and running the posting rules of each one.
+ *
+ * Only open events can be in debt, so closed and cancelled events are left out. Ledgers are compiled once per party and
+ * day, as being in debt depends on the current date, along with the events version of the party. Every transaction that
+ * changes the state, transactions or exemptions of an event of the party advances that version (see
+ * {@link #invalidate(Party)}), and a ledger is only used by transactions that see the version it was compiled with, so a
+ * payment made on any application server is seen at once. Ledgers are also discarded when posting rules change (see
+ * {@link #invalidateAll()}), and expire two minutes after being compiled, which bounds the staleness caused by posting rules
+ * changed by other servers or by payment plans falling due.
+ */
+public class PersonDebtLedger {
+
+    private static final TransactionalCache<Party, PersonDebtLedger> ledgers = TransactionalCache.versioned(
+            "debt ledgers", 50000, PersonDebtLedger::getEventsVersion, 2, TimeUnit.MINUTES);
+
+    private final List<Event> openEvents;
+
+    private final List<Event> eventsInDebt;
+
+    private PersonDebtLedger(final Party party) {
+        final List<Event> open = new ArrayList<Event>();
+        final List<Event> inDebt = new ArrayList<Event>();
+        for (final Event event : party.getEventsSet()) {
+            if (event.isOpen()) {
+                open.add(event);
+                if (event.isInDebt()) {
+                    inDebt.add(event);
+                }
+            }
+        }
+        this.openEvents = Collections.unmodifiableList(open);
+        this.eventsInDebt = Collections.unmodifiableList(inDebt);
+    }
+
+    /**
+     * Returns the ledger of the party for the current day, compiling it only if it is not cached.
+     */
+    public static PersonDebtLedger of(final Party party) {
+        return ledgers.get(party, new LocalDate().toString(), () -> new PersonDebtLedger(party));
+    }
+
+    public List<Event> getOpenEvents() {
+        return openEvents;
+    }
+
+    public List<Event> getEventsInDebt() {
+        return eventsInDebt;
+    }
+
+    public boolean isInDebt() {
+        return !eventsInDebt.isEmpty();
+    }
+
+    /**
+     * Must be called, in the transaction that makes the change, whenever the events of the party, or their state, transactions
+     * or exemptions, change. It advances the events version of the party, so its ledger is not used by any transaction that
+     * sees the change, on any server.
+     */
+    public static void invalidate(final Party party) {
+        if (party != null) {
+            party.setEventsVersion(getEventsVersion(party) + 1);
+            ledgers.invalidate(party);
+        }
+    }
+
+    /**
+     * Must be called whenever something that may change the debts of many parties changes, such as posting rules.
+     */
+    public static void invalidateAll() {
+        ledgers.invalidateAll();
+    }
+
+    private static int getEventsVersion(final Party party) {
+        final Integer version = party.getEventsVersion();
+        return version != null ? version : 0;
+    }
+
+}
@@ -95,6 +95,16 @@ public abstract class PostingRule extends PostingRule_Base {
                         }
                     }
 
+                    @Override
+                    public void afterAdd(ServiceAgreementTemplate serviceAgreementTemplate, PostingRule postingRule) {
+                        PersonDebtLedger.invalidateAll();
+                    }
+
+                    @Override
+                    public void afterRemove(ServiceAgreementTemplate serviceAgreementTemplate, PostingRule postingRule) {
+                        PersonDebtLedger.invalidateAll();
+                    }
+
                 });
     }
 
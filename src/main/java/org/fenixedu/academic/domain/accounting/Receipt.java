@@ -36,6 +36,7 @@ import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.administrativeOffice.AdministrativeOffice;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.organizationalStructure.Unit;
+import org.fenixedu.academic.domain.util.DocumentSequence;
 import org.fenixedu.academic.dto.accounting.CreditNoteEntryDTO;
 import org.fenixedu.academic.predicate.AcademicPredicates;
 import org.fenixedu.academic.util.Bundle;
@@ -228,8 +229,10 @@ public class Receipt extends Receipt_Base {
     }
 
     private Integer generateReceiptNumber(int year) {
-        final List<Receipt> receipts = getReceiptsFor(year);
-        return receipts.isEmpty() ? 1 : Collections.max(receipts, Receipt.COMPARATOR_BY_NUMBER).getReceiptNumber() + 1;
+        return DocumentSequence.next(Receipt.class.getSimpleName(), year, () -> {
+            final List<Receipt> receipts = getReceiptsFor(year);
+            return receipts.isEmpty() ? 0 : Collections.max(receipts, Receipt.COMPARATOR_BY_NUMBER).getReceiptNumber();
+        });
     }
 
     public static List<Receipt> getReceiptsFor(int year) {
@@ -27,6 +27,7 @@ import org.fenixedu.academic.domain.accounting.paymentCodes.AccountingEventPayme
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.organizationalStructure.ResidenceManagementUnit;
 import org.fenixedu.academic.domain.organizationalStructure.Unit;
+import org.fenixedu.academic.domain.residence.OpenResidenceEvents;
 import org.fenixedu.academic.domain.residence.ResidenceMonth;
 import org.fenixedu.academic.dto.accounting.EntryDTO;
 import org.fenixedu.academic.dto.accounting.SibsTransactionDetailDTO;
@@ -57,6 +58,12 @@ public class ResidenceEvent extends ResidenceEvent_Base {
         setRoom(room);
     }
 
+    @Override
+    protected void changeState(EventState state, DateTime when) {
+        super.changeState(state, when);
+        OpenResidenceEvents.add(this);
+    }
+
     @Override
     public LabelFormatter getDescription() {
         return getDescriptionForEntryType(EntryType.RESIDENCE_FEE);
@@ -18,18 +18,30 @@
  */
 package org.fenixedu.academic.domain.accounting.report.events;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -53,9 +65,6 @@ import org.fenixedu.academic.domain.phd.debts.PhdEvent;
 import org.fenixedu.academic.predicate.AccessControl;
 import org.fenixedu.academic.util.ConnectionManager;
 import org.fenixedu.bennu.core.domain.Bennu;
-import org.fenixedu.commons.spreadsheet.SheetData;
-import org.fenixedu.commons.spreadsheet.SpreadsheetBuilder;
-import org.fenixedu.commons.spreadsheet.WorkbookExportFormat;
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.slf4j.Logger;
@@ -123,62 +132,68 @@ public class EventReportQueueJob extends EventReportQueueJob_Base {
 
     @Override
     public QueueJobResult execute() throws Exception {
-        ByteArrayOutputStream byteArrayOSForDebts = new ByteArrayOutputStream();
-        ByteArrayOutputStream byteArrayOSForExemptions = new ByteArrayOutputStream();
-        ByteArrayOutputStream byteArrayOSForTransactions = new ByteArrayOutputStream();
-        StringBuilder errors = new StringBuilder();
+        final ReportSheetWriter debtsWriter = new ReportSheetWriter(EVENT_HEADERS);
+        final ReportSheetWriter exemptionsWriter = new ReportSheetWriter(EXEMPTION_HEADERS);
+        final ReportSheetWriter transactionsWriter = new ReportSheetWriter(TRANSACTION_HEADERS);
+        final StringBuilder errors = new StringBuilder();
 
-        SheetData[] reports = buildReport(errors);
-
-        SpreadsheetBuilder spreadsheetBuilderForDebts = new SpreadsheetBuilder();
-        SpreadsheetBuilder spreadsheetBuilderForExemptions = new SpreadsheetBuilder();
-        SpreadsheetBuilder spreadsheetBuilderForTransactions = new SpreadsheetBuilder();
-
-        spreadsheetBuilderForDebts.addSheet("dividas", reports[0]);
-        spreadsheetBuilderForExemptions.addSheet("isencoes", reports[1]);
-        spreadsheetBuilderForTransactions.addSheet("transaccoes", reports[2]);
-
-        spreadsheetBuilderForDebts.build(WorkbookExportFormat.TSV, byteArrayOSForDebts);
-        spreadsheetBuilderForExemptions.build(WorkbookExportFormat.TSV, byteArrayOSForExemptions);
-        spreadsheetBuilderForTransactions.build(WorkbookExportFormat.TSV, byteArrayOSForTransactions);
-
-        byteArrayOSForDebts.close();
-        byteArrayOSForExemptions.close();
-        byteArrayOSForTransactions.close();
+        final EventReportResult queueJobResult = new EventReportResult();
+        try {
+            buildReport(debtsWriter, exemptionsWriter, transactionsWriter, errors);
+
+            queueJobResult.setContentType("text/tsv");
+            queueJobResult.setContentFile(debtsWriter.finish());
+            queueJobResult.exemptions = exemptionsWriter.finish();
+            queueJobResult.transactions = transactionsWriter.finish();
+            if (!errors.toString().isEmpty()) {
+                StringBuilder headers = buildHeaders();
+                headers.append(errors);
+                queueJobResult.errors = File.createTempFile("eventReport", ".tsv");
+                Files.write(queueJobResult.errors.toPath(), headers.toString().getBytes(StandardCharsets.UTF_8));
+            }
 
-        final QueueJobResult queueJobResult = new QueueJobResult();
-        queueJobResult.setContentType("text/tsv");
-        queueJobResult.setContent(byteArrayOSForDebts.toByteArray());
+            logger.info("Job " + getFilename() + " completed");
 
-        EventReportQueueJobFile fileForDebts = new EventReportQueueJobFile(byteArrayOSForDebts.toByteArray(), "dividas.tsv");
-        EventReportQueueJobFile fileForExemptions =
-                new EventReportQueueJobFile(byteArrayOSForExemptions.toByteArray(), "isencoes.tsv");
-        EventReportQueueJobFile fileForTransactions =
-                new EventReportQueueJobFile(byteArrayOSForTransactions.toByteArray(), "transaccoes.tsv");
-        if (!errors.toString().isEmpty()) {
-            StringBuilder headers = buildHeaders();
-            headers.append(errors);
-            EventReportQueueJobFile fileForErrors =
-                    new EventReportQueueJobFile(headers.toString().getBytes(StandardCharsets.UTF_8), "erros.tsv");
-            this.setErrorsFile(fileForErrors);
+            return queueJobResult;
+        } catch (final Exception e) {
+            queueJobResult.discard();
+            throw e;
+        } finally {
+            debtsWriter.discard();
+            exemptionsWriter.discard();
+            transactionsWriter.discard();
         }
-
-        this.setDebts(fileForDebts);
-        this.setExemptions(fileForExemptions);
-        this.setTransactions(fileForTransactions);
-
-        logger.info("Job " + getFilename() + " completed");
-
-        return queueJobResult;
     }
 
-    private SheetData[] buildReport(StringBuilder errors) {
-
-        final SheetData<EventBean> eventsSheet = allEvents(errors);
-        final SheetData<ExemptionBean> exemptionsSheet = allExemptions(errors);
-        final SheetData<AccountingTransactionBean> transactionsSheet = allTransactions(errors);
+    @Override
+    public void storeResult(final QueueJobResult result) throws IOException {
+        final EventReportResult report = (EventReportResult) result;
+
+        this.setDebts(new EventReportQueueJobFile(report.getContentFile(), "dividas.tsv"));
+        this.setExemptions(new EventReportQueueJobFile(report.exemptions, "isencoes.tsv"));
+        this.setTransactions(new EventReportQueueJobFile(report.transactions, "transaccoes.tsv"));
+        if (report.errors != null) {
+            this.setErrorsFile(new EventReportQueueJobFile(report.errors, "erros.tsv"));
+        }
+    }
 
-        return new SheetData[] { eventsSheet, exemptionsSheet, transactionsSheet };
+    /*
+     * Only holds the temporary files of the reports, which are streamed into the stored files and then deleted.
+     */
+    private static class EventReportResult extends QueueJobResult {
+        private File exemptions;
+        private File transactions;
+        private File errors;
+
+        @Override
+        public void discard() throws IOException {
+            super.discard();
+            for (final File file : new File[] { exemptions, transactions, errors }) {
+                if (file != null) {
+                    Files.deleteIfExists(file.toPath());
+                }
+            }
+        }
     }
 
     private List<String> getAllEventsExternalIds() {
@@ -199,100 +214,166 @@ public class EventReportQueueJob extends EventReportQueueJob_Base {
 
     private static final Integer BLOCK = 5000;
 
-    /* ALL EVENTS */
-    private SheetData<EventBean> allEvents(final StringBuilder errors) {
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
-        List<String> allEventsExternalIds = getAllEventsExternalIds();
-        logger.info(String.format("%s events to process", allEventsExternalIds.size()));
+    /*
+     * Blocks are read concurrently, each one in its own read-only transaction,
+     * but written in submission order. At most 2 * WORKERS blocks are kept in
+     * memory at any time.
+     */
+    private void buildReport(final ReportSheetWriter debtsWriter, final ReportSheetWriter exemptionsWriter,
+            final ReportSheetWriter transactionsWriter, final StringBuilder errors) throws Exception {
 
-        Integer blockRead = 0;
+        final List<String> allEventsExternalIds = getAllEventsExternalIds();
+        logger.info(String.format("%s events to process", allEventsExternalIds.size()));
 
-        final List<EventBean> result = Collections.synchronizedList(new ArrayList<EventBean>());
+        final ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        final Deque<Future<BlockResult>> pending = new ArrayDeque<Future<BlockResult>>();
 
-        while (blockRead < allEventsExternalIds.size()) {
-            Integer inc = BLOCK;
+        try {
+            int blockRead = 0;
+            int eventsWritten = 0;
+
+            while (blockRead < allEventsExternalIds.size()) {
+                final int blockEnd = Math.min(blockRead + BLOCK, allEventsExternalIds.size());
+                pending.add(executor.submit(new BlockReader(allEventsExternalIds.subList(blockRead, blockEnd))));
+                blockRead = blockEnd;
+
+                if (pending.size() >= 2 * WORKERS) {
+                    eventsWritten += write(pending.poll().get(), debtsWriter, exemptionsWriter, transactionsWriter, errors);
+                    logger.info(String.format("Submitted %s events, written %s events", blockRead, eventsWritten));
+                    reportProgress(blockRead, allEventsExternalIds.size());
+                }
+            }
 
-            if (blockRead + inc >= allEventsExternalIds.size()) {
-                inc = allEventsExternalIds.size() - blockRead;
+            while (!pending.isEmpty()) {
+                eventsWritten += write(pending.poll().get(), debtsWriter, exemptionsWriter, transactionsWriter, errors);
             }
 
-            final List<String> block = allEventsExternalIds.subList(blockRead, blockRead + inc);
-            blockRead += inc;
-
-            Thread thread = new Thread() {
-
-                @Override
-                @Atomic(mode = TxMode.READ)
-                public void run() {
-                    for (String oid : block) {
-                        Event event = null;
-                        try {
-                            event = FenixFramework.getDomainObject(oid);
-                            if (!isAccountingEventForReport(event)) {
-                                continue;
-                            }
-                            result.add(writeEvent(event));
-                        } catch (Throwable e) {
-                            errors.append(getErrorLine(event, e));
-                        }
-                    }
-                }
-            };
+            logger.info(String.format("Catch %s events ", eventsWritten));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            thread.start();
+    private int write(final BlockResult block, final ReportSheetWriter debtsWriter, final ReportSheetWriter exemptionsWriter,
+            final ReportSheetWriter transactionsWriter, final StringBuilder errors) throws IOException {
 
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-            }
+        for (final List<String> line : block.events) {
+            debtsWriter.write(line);
+        }
+        for (final List<String> line : block.exemptions) {
+            exemptionsWriter.write(line);
+        }
+        for (final List<String> line : block.transactions) {
+            transactionsWriter.write(line);
+        }
+        debtsWriter.extendHeaders(block.installmentHeaders);
+        errors.append(block.errors);
+
+        return block.events.size();
+    }
+
+    private static class BlockResult {
+        private final List<List<String>> events = new ArrayList<List<String>>();
+        private final List<List<String>> exemptions = new ArrayList<List<String>>();
+        private final List<List<String>> transactions = new ArrayList<List<String>>();
+        private List<String> installmentHeaders = new ArrayList<String>();
+        private final StringBuilder errors = new StringBuilder();
+    }
+
+    private class BlockReader implements Callable<BlockResult> {
+
+        private final List<String> block;
 
-            logger.info(String.format("Read %s events", blockRead));
+        private BlockReader(final List<String> block) {
+            this.block = block;
         }
 
-        logger.info(String.format("Catch %s events ", result.size()));
+        @Override
+        @Atomic(mode = TxMode.READ)
+        public BlockResult call() {
+            final BlockResult result = new BlockResult();
+
+            for (String oid : block) {
+                Event event = null;
+                try {
+                    event = FenixFramework.getDomainObject(oid);
+                    if (!isAccountingEventForReport(event)) {
+                        continue;
+                    }
+                } catch (Throwable e) {
+                    result.errors.append(getErrorLine(event, e));
+                    continue;
+                }
 
-        return new SheetData<EventBean>(result) {
+                try {
+                    final EventBean bean = writeEvent(event);
+                    result.events.add(toLine(bean));
+                    if (bean.installments != null && 3 * bean.installments.size() > result.installmentHeaders.size()) {
+                        result.installmentHeaders = toInstallmentHeaders(bean.installments);
+                    }
+                } catch (Throwable e) {
+                    result.errors.append(getErrorLine(event, e));
+                }
 
-            @Override
-            protected void makeLine(EventBean bean) {
-                addCell("Identificador", bean.externalId);
-                addCell("Aluno", bean.studentNumber);
-                addCell("Nome", bean.studentName);
-                addCell("Email", bean.email);
-                addCell("Data inscrição", bean.registrationStartDate);
-                addCell("Ano lectivo", bean.executionYear);
-                addCell("Tipo de matricula", bean.studiesType);
-                addCell("Nome do Curso", bean.degreeName);
-                addCell("Tipo de curso", bean.degreeType);
-                addCell("Programa doutoral", bean.phdProgramName);
-                addCell("ECTS inscritos", bean.enrolledECTS);
-                addCell("Regime", bean.regime);
-                addCell("Modelo de inscrição", bean.enrolmentModel);
-                addCell("Residência - Ano", bean.residenceYear);
-                addCell("Residência - Mês", bean.residenceMonth);
-                addCell("Tipo de divida", bean.description);
-                addCell("Data de criação", bean.whenOccured);
-                addCell("Valor Total", bean.totalAmount);
-                addCell("Valor Pago", bean.payedAmount);
-                addCell("Valor em divida", bean.amountToPay);
-                addCell("Valor Reembolsável", bean.reimbursableAmount);
-                addCell("Desconto", bean.totalDiscount);
-                addCell("Dívida Associada", bean.relatedEvent);
-                addCell("Id. Fiscal Entidade", bean.debtorFiscalId);
-                addCell("Nome Entidade", bean.debtorName);
-
-                List<InstallmentWrapper> list = bean.installments;
-
-                if (list != null) {
-                    for (InstallmentWrapper installment : list) {
-                        addCell(installment.getExpirationDateLabel(), installment.getExpirationDate());
-                        addCell(installment.getAmountToPayLabel(), installment.getAmountToPay());
-                        addCell(installment.getRemainingAmountLabel(), installment.getRemainingAmount());
+                try {
+                    for (final ExemptionBean bean : writeExemptionInformation(event)) {
+                        result.exemptions.add(toLine(bean));
                     }
+                } catch (Throwable e) {
+                    result.errors.append(getErrorLine(event, e));
                 }
+
+                try {
+                    for (final AccountingTransactionBean bean : writeTransactionInformation(event)) {
+                        result.transactions.add(toLine(bean));
+                    }
+                } catch (Throwable e) {
+                    result.errors.append(getErrorLine(event, e));
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /* ALL EVENTS */
+
+    private static final String[] EVENT_HEADERS = { "Identificador", "Aluno", "Nome", "Email", "Data inscrição",
+            "Ano lectivo", "Tipo de matricula", "Nome do Curso", "Tipo de curso", "Programa doutoral", "ECTS inscritos",
+            "Regime", "Modelo de inscrição", "Residência - Ano", "Residência - Mês", "Tipo de divida", "Data de criação",
+            "Valor Total", "Valor Pago", "Valor em divida", "Valor Reembolsável", "Desconto", "Dívida Associada",
+            "Id. Fiscal Entidade", "Nome Entidade" };
+
+    private List<String> toLine(final EventBean bean) {
+        final List<String> line =
+                new ArrayList<String>(Arrays.asList(bean.externalId, bean.studentNumber, bean.studentName, bean.email,
+                        bean.registrationStartDate, bean.executionYear, bean.studiesType, bean.degreeName, bean.degreeType,
+                        bean.phdProgramName, bean.enrolledECTS, bean.regime, bean.enrolmentModel, bean.residenceYear,
+                        bean.residenceMonth, bean.description, bean.whenOccured, bean.totalAmount, bean.payedAmount,
+                        bean.amountToPay, bean.reimbursableAmount, bean.totalDiscount, bean.relatedEvent,
+                        bean.debtorFiscalId, bean.debtorName));
+
+        if (bean.installments != null) {
+            for (final InstallmentWrapper installment : bean.installments) {
+                line.add(installment.getExpirationDate());
+                line.add(installment.getAmountToPay());
+                line.add(installment.getRemainingAmount());
             }
+        }
 
-        };
+        return line;
+    }
+
+    private List<String> toInstallmentHeaders(final List<InstallmentWrapper> installments) {
+        final List<String> headers = new ArrayList<String>();
+        for (final InstallmentWrapper installment : installments) {
+            headers.add(installment.getExpirationDateLabel());
+            headers.add(installment.getAmountToPayLabel());
+            headers.add(installment.getRemainingAmountLabel());
+        }
+        return headers;
     }
 
     private boolean isAccountingEventForReport(final Event event) {
@@ -434,64 +515,13 @@ public class EventReportQueueJob extends EventReportQueueJob_Base {
     }
 
     /* ALL EXEMPTIONS */
-    private SheetData<ExemptionBean> allExemptions(final StringBuilder errors) {
-        List<String> allEventsExternalIds = getAllEventsExternalIds();
-        logger.info(String.format("%s events (exemptions) to process", allEventsExternalIds.size()));
-
-        Integer blockRead = 0;
 
-        final List<ExemptionBean> result = Collections.synchronizedList(new ArrayList<ExemptionBean>());
+    private static final String[] EXEMPTION_HEADERS = { "Identificador", "Tipo da Isenção", "Valor da Isenção",
+            "Percentagem da Isenção", "Motivo da Isenção" };
 
-        while (blockRead < allEventsExternalIds.size()) {
-            Integer inc = BLOCK;
-
-            if (blockRead + inc >= allEventsExternalIds.size()) {
-                inc = allEventsExternalIds.size() - blockRead;
-            }
-
-            final List<String> block = allEventsExternalIds.subList(blockRead, blockRead + inc);
-            blockRead += inc;
-
-            Thread thread = new Thread() {
-
-                @Override
-                @Atomic(mode = TxMode.READ)
-                public void run() {
-                    for (String oid : block) {
-                        Event event = FenixFramework.getDomainObject(oid);
-                        try {
-                            if (!isAccountingEventForReport(event)) {
-                                continue;
-                            }
-                            result.addAll(writeExemptionInformation(event));
-                        } catch (Throwable e) {
-                            errors.append(getErrorLine(event, e));
-                        }
-                    }
-                }
-            };
-
-            thread.start();
-
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-            }
-
-            logger.info(String.format("Read %s events", blockRead));
-        }
-
-        return new SheetData<ExemptionBean>(result) {
-
-            @Override
-            protected void makeLine(ExemptionBean bean) {
-                addCell("Identificador", bean.eventExternalId);
-                addCell("Tipo da Isenção", bean.exemptionTypeDescription);
-                addCell("Valor da Isenção", bean.exemptionValue);
-                addCell("Percentagem da Isenção", bean.percentage);
-                addCell("Motivo da Isenção", bean.justification);
-            }
-        };
+    private List<String> toLine(final ExemptionBean bean) {
+        return Arrays.asList(bean.eventExternalId, bean.exemptionTypeDescription, bean.exemptionValue, bean.percentage,
+                bean.justification);
     }
 
     private StringBuilder buildHeaders() {
@@ -569,77 +599,16 @@ public class EventReportQueueJob extends EventReportQueueJob_Base {
 
     /* ALL TRANSACTIONS */
 
-    private SheetData<AccountingTransactionBean> allTransactions(final StringBuilder errors) {
-
-        List<String> allEventsExternalIds = getAllEventsExternalIds();
-        logger.info(String.format("%s events (transactions) to process", allEventsExternalIds.size()));
-
-        Integer blockRead = 0;
-
-        final List<AccountingTransactionBean> result = Collections.synchronizedList(new ArrayList<AccountingTransactionBean>());
-
-        while (blockRead < allEventsExternalIds.size()) {
-            Integer inc = BLOCK;
-
-            if (blockRead + inc >= allEventsExternalIds.size()) {
-                inc = allEventsExternalIds.size() - blockRead;
-            }
-
-            final List<String> block = allEventsExternalIds.subList(blockRead, blockRead + inc);
-            blockRead += inc;
-
-            Thread thread = new Thread() {
-
-                @Override
-                @Atomic(mode = TxMode.READ)
-                public void run() {
-                    for (String oid : block) {
-                        Event event = FenixFramework.getDomainObject(oid);
-                        try {
-                            if (!isAccountingEventForReport(event)) {
-                                continue;
-                            }
-                            result.addAll(writeTransactionInformation(event));
-                        } catch (Throwable e) {
-                            errors.append(getErrorLine(event, e));
-                        }
-                    }
-                }
-            };
-
-            thread.start();
-
-            try {
-                thread.join();
-            } catch (InterruptedException e) {
-            }
-
-            logger.info(String.format("Read %s events", blockRead));
-        }
-
-        return new SheetData<AccountingTransactionBean>(result) {
-
-            @Override
-            protected void makeLine(AccountingTransactionBean bean) {
-
-                addCell("Identificador", bean.eventExternalId);
-                addCell("Data do pagamento", bean.whenRegistered);
-                addCell("Data de entrada do pagamento", bean.whenProcessed);
-                addCell("Nome da entidade devedora", bean.debtPartyName);
-                addCell("Contribuinte da entidade devedora", bean.debtSocialSecurityNumber);
-                addCell("Nome da entidade credora", bean.credPartyName);
-                addCell("Contribuinte da entidade credora", bean.credSocialSecurityNumber);
-                addCell("Montante inicial", bean.originalAmount);
-                addCell("Montante ajustado", bean.amountWithAdjustment);
-                addCell("Modo de pagamento", bean.paymentMode);
-                addCell("Data do ajuste", bean.whenAdjustmentRegistered);
-                addCell("Data de entrada do ajuste", bean.whenAdjustmentProcessed);
-                addCell("Montante do ajuste", bean.adjustmentAmount);
-                addCell("Justificação", bean.comments);
+    private static final String[] TRANSACTION_HEADERS = { "Identificador", "Data do pagamento",
+            "Data de entrada do pagamento", "Nome da entidade devedora", "Contribuinte da entidade devedora",
+            "Nome da entidade credora", "Contribuinte da entidade credora", "Montante inicial", "Montante ajustado",
+            "Modo de pagamento", "Data do ajuste", "Data de entrada do ajuste", "Montante do ajuste", "Justificação" };
 
-            }
-
-        };
+    private List<String> toLine(final AccountingTransactionBean bean) {
+        return Arrays.asList(bean.eventExternalId, bean.whenRegistered, bean.whenProcessed, bean.debtPartyName,
+                bean.debtSocialSecurityNumber, bean.credPartyName, bean.credSocialSecurityNumber, bean.originalAmount,
+                bean.amountWithAdjustment, bean.paymentMode, bean.whenAdjustmentRegistered, bean.whenAdjustmentProcessed,
+                bean.adjustmentAmount, bean.comments);
     }
 
     private List<AccountingTransactionBean> writeTransactionInformation(Event event) {
@@ -877,4 +846,76 @@ public class EventReportQueueJob extends EventReportQueueJob_Base {
         return getErrorsFile() != null;
     }
 
+    /*
+     * Writes the lines of a sheet to a temporary file as soon as they are
+     * produced. Installment columns vary between events, so the header line is
+     * only written when the sheet is finished.
+     */
+    private static class ReportSheetWriter {
+
+        private final int fixedHeaders;
+        private final List<String> headers;
+        private final File body;
+        private final Writer writer;
+
+        private ReportSheetWriter(final String[] headers) throws IOException {
+            this.fixedHeaders = headers.length;
+            this.headers = new ArrayList<String>(Arrays.asList(headers));
+            this.body = File.createTempFile("eventReport", ".tsv");
+            this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(body), StandardCharsets.UTF_8));
+        }
+
+        private void extendHeaders(final List<String> extraHeaders) {
+            if (fixedHeaders + extraHeaders.size() > headers.size()) {
+                headers.subList(fixedHeaders, headers.size()).clear();
+                headers.addAll(extraHeaders);
+            }
+        }
+
+        private void write(final List<String> line) throws IOException {
+            writeLine(writer, line);
+        }
+
+        /*
+         * Returns a new temporary file with the headers followed by the lines, which only then are known to be complete.
+         */
+        private File finish() throws IOException {
+            writer.close();
+
+            final File result = File.createTempFile("eventReport", ".tsv");
+            try (final OutputStream stream = new FileOutputStream(result)) {
+                final Writer headerWriter = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+                writeLine(headerWriter, headers);
+                headerWriter.flush();
+                Files.copy(body.toPath(), stream);
+            } catch (final IOException e) {
+                Files.deleteIfExists(result.toPath());
+                throw e;
+            }
+            return result;
+        }
+
+        private void discard() {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close " + body.getAbsolutePath(), e);
+            }
+            body.delete();
+        }
+
+        private static void writeLine(final Writer writer, final List<String> line) throws IOException {
+            for (int i = 0; i < line.size(); i++) {
+                if (i > 0) {
+                    writer.write(FIELD_SEPARATOR);
+                }
+                final String value = line.get(i);
+                if (value != null) {
+                    writer.write(value.replace(FIELD_SEPARATOR, " ").replace(LINE_BREAK, " ").replace("\r", ""));
+                }
+            }
+            writer.write(LINE_BREAK);
+        }
+    }
+
 }
@@ -18,6 +18,11 @@
  */
 package org.fenixedu.academic.domain.accounting.report.events;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.fenixedu.academic.domain.accessControl.AcademicAuthorizationGroup;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicOperationType;
 import org.fenixedu.bennu.core.domain.User;
@@ -30,6 +35,13 @@ public class EventReportQueueJobFile extends EventReportQueueJobFile_Base {
         init(filename, filename, contents);
     }
 
+    public EventReportQueueJobFile(File contents, String filename) throws IOException {
+        super();
+        try (final InputStream stream = new FileInputStream(contents)) {
+            init(filename, filename, stream);
+        }
+    }
+
     @Override
     public boolean isAccessible(User user) {
         return AcademicAuthorizationGroup.get(AcademicOperationType.MANAGE_EVENT_REPORTS).isMember(user);
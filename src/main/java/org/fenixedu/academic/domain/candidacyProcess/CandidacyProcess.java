@@ -19,6 +19,7 @@
 package org.fenixedu.academic.domain.candidacyProcess;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -27,6 +28,8 @@ import org.apache.commons.collections.Predicate;
 import org.apache.commons.lang.StringUtils;
 import org.fenixedu.academic.domain.Attends;
 import org.fenixedu.academic.domain.ExecutionInterval;
+import org.fenixedu.academic.domain.period.CandidacyPeriod;
+import org.fenixedu.academic.domain.period.CandidacyProcessCandidacyPeriod;
 import org.fenixedu.academic.domain.person.IDDocumentType;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.bennu.core.domain.Bennu;
@@ -96,9 +99,12 @@ abstract public class CandidacyProcess extends CandidacyProcess_Base {
     }
 
     public static <T extends CandidacyProcess> T getCandidacyProcessByDate(Class<T> clazz, final DateTime date) {
-        for (T process : getAllInstancesOf(clazz)) {
-            if (process.getCandidacyPeriod() != null && process.getCandidacyPeriod().isOpen(date)) {
-                return process;
+        for (final CandidacyPeriod period : Bennu.getInstance().getCandidacyPeriodsSet()) {
+            if (period instanceof CandidacyProcessCandidacyPeriod && period.isOpen(date)) {
+                final T process = Iterables.getFirst(getInstancesOf(clazz, (CandidacyProcessCandidacyPeriod) period), null);
+                if (process != null) {
+                    return process;
+                }
             }
         }
 
@@ -107,10 +113,12 @@ abstract public class CandidacyProcess extends CandidacyProcess_Base {
 
     public static <T extends CandidacyProcess> T getCandidacyProcessByExecutionInterval(Class<T> clazz,
             final ExecutionInterval executionInterval) {
-        for (T process : getAllInstancesOf(clazz)) {
-            if (process.getCandidacyPeriod() != null
-                    && executionInterval.equals(process.getCandidacyPeriod().getExecutionInterval())) {
-                return process;
+        for (final CandidacyPeriod period : executionInterval.getCandidacyPeriodsSet()) {
+            if (period instanceof CandidacyProcessCandidacyPeriod) {
+                final T process = Iterables.getFirst(getInstancesOf(clazz, (CandidacyProcessCandidacyPeriod) period), null);
+                if (process != null) {
+                    return process;
+                }
             }
         }
 
@@ -214,7 +222,26 @@ abstract public class CandidacyProcess extends CandidacyProcess_Base {
         return presentationName;
     }
 
-    private static <T extends CandidacyProcess> Set<T> getAllInstancesOf(final Class<? extends T> type) {
-        return Sets.<T> newHashSet(Iterables.filter(Bennu.getInstance().getProcessesSet(), type));
+    /**
+     * Returns the candidacy processes of the given type. Every candidacy process is attached to its candidacy period when it
+     * is created and periods with processes cannot be deleted, so the processes are reached through the (few) candidacy
+     * periods instead of filtering every case handling process of the installation.
+     */
+    public static <T extends CandidacyProcess> Set<T> getAllInstancesOf(final Class<? extends T> type) {
+        final Set<T> result = new HashSet<T>();
+        for (final CandidacyPeriod period : Bennu.getInstance().getCandidacyPeriodsSet()) {
+            if (period instanceof CandidacyProcessCandidacyPeriod) {
+                result.addAll(getInstancesOf(type, (CandidacyProcessCandidacyPeriod) period));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the candidacy processes of the given type that belong to the given candidacy period.
+     */
+    public static <T extends CandidacyProcess> Set<T> getInstancesOf(final Class<? extends T> type,
+            final CandidacyProcessCandidacyPeriod period) {
+        return Sets.<T> newHashSet(Iterables.filter(period.getCandidacyProcessesSet(), type));
     }
 }
@@ -22,7 +22,6 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
@@ -38,18 +37,15 @@ import org.fenixedu.academic.domain.period.CandidacyPeriod;
 import org.fenixedu.academic.domain.person.IDDocumentType;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.fenixedu.academic.dto.person.ChoosePersonBean;
 import org.fenixedu.academic.dto.person.PersonBean;
 import org.fenixedu.academic.util.Bundle;
-import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeFieldType;
 import org.joda.time.LocalDate;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
-
 abstract public class IndividualCandidacyProcess extends IndividualCandidacyProcess_Base {
 
     static final public Comparator<IndividualCandidacyProcess> COMPARATOR_BY_CANDIDACY_PERSON =
@@ -61,6 +57,21 @@ abstract public class IndividualCandidacyProcess extends IndividualCandidacyProc
                 }
             };
 
+    /*
+     * Access hashes and process codes are set once, when the process is created, so the indexes also answer transactions older
+     * than them. Processes created by other servers are found by scanning until the indexes are rebuilt in the background, but
+     * existing processes are always answered from the index.
+     */
+    private static final DomainIndex<String, IndividualCandidacyProcess> ACCESS_HASH_INDEX =
+            new DomainIndex<String, IndividualCandidacyProcess>("IndividualCandidacyProcess.accessHash",
+                    IndividualCandidacyProcess::readAllInstances,
+                    process -> process.getRootDomainObject() != null ? process.getAccessHash() : null, true);
+
+    private static final DomainIndex<String, IndividualCandidacyProcess> PROCESS_CODE_INDEX =
+            new DomainIndex<String, IndividualCandidacyProcess>("IndividualCandidacyProcess.processCode",
+                    IndividualCandidacyProcess::readAllInstances,
+                    process -> process.getRootDomainObject() != null ? process.getProcessCode() : null, true);
+
     protected IndividualCandidacyProcess() {
         super();
         setAccessHash(RandomStringUtils.random(16, true, true));
@@ -290,29 +301,13 @@ abstract public class IndividualCandidacyProcess extends IndividualCandidacyProc
             return null;
         }
 
-        Set<IndividualCandidacyProcess> candidacies = getAllInstancesOf(individualCandidacyProcessClass);
-
-        for (IndividualCandidacyProcess individualCandidacyProcess : candidacies) {
-            if (email.equals(individualCandidacyProcess.getPersonalDetails().getEmail())
-                    && accessHash.equals(individualCandidacyProcess.getAccessHash())) {
-                return individualCandidacyProcess;
-            }
-        }
-
-        return null;
+        return ACCESS_HASH_INDEX.getAny(accessHash, process -> individualCandidacyProcessClass.isInstance(process)
+                && email.equals(process.getPersonalDetails().getEmail()));
     }
 
     public static <T extends IndividualCandidacyProcess> T findIndividualCandidacyProcessByCode(
             Class<T> individualCandidacyProcessClass, final String processCode) {
-        Set<IndividualCandidacyProcess> candidacies = getAllInstancesOf(individualCandidacyProcessClass);
-
-        for (IndividualCandidacyProcess process : candidacies) {
-            if (processCode.equals(process.getProcessCode())) {
-                return (T) process;
-            }
-        }
-
-        return null;
+        return (T) PROCESS_CODE_INDEX.getAny(processCode, individualCandidacyProcessClass::isInstance);
     }
 
     public IndividualCandidacyDocumentFile getPhoto() {
@@ -432,8 +427,24 @@ abstract public class IndividualCandidacyProcess extends IndividualCandidacyProc
 
     }
 
-    private static Set<IndividualCandidacyProcess> getAllInstancesOf(final Class<? extends IndividualCandidacyProcess> type) {
-        return Sets.<IndividualCandidacyProcess> newHashSet(Iterables.filter(Bennu.getInstance().getProcessesSet(), type));
+    @Override
+    public void setAccessHash(String accessHash) {
+        super.setAccessHash(accessHash);
+        ACCESS_HASH_INDEX.add(this);
+    }
+
+    @Override
+    public void setProcessCode(String processCode) {
+        super.setProcessCode(processCode);
+        PROCESS_CODE_INDEX.add(this);
+    }
+
+    private static List<IndividualCandidacyProcess> readAllInstances() {
+        final List<IndividualCandidacyProcess> result = new ArrayList<IndividualCandidacyProcess>();
+        for (final CandidacyProcess process : CandidacyProcess.getAllInstancesOf(CandidacyProcess.class)) {
+            result.addAll(process.getChildProcessesSet());
+        }
+        return result;
     }
 
 }
@@ -54,14 +54,12 @@ import org.fenixedu.academic.domain.candidacyProcess.erasmus.reports.ErasmusCand
 import org.fenixedu.academic.domain.candidacyProcess.secondCycle.SecondCycleIndividualCandidacyProcess;
 import org.fenixedu.academic.domain.caseHandling.Activity;
 import org.fenixedu.academic.domain.caseHandling.PreConditionNotValidException;
-import org.fenixedu.academic.domain.caseHandling.Process;
 import org.fenixedu.academic.domain.caseHandling.StartActivity;
 import org.fenixedu.academic.domain.degree.DegreeType;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.period.MobilityApplicationPeriod;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.util.Bundle;
-import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.core.domain.User;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
 import org.joda.time.DateTime;
@@ -173,22 +171,19 @@ public class MobilityApplicationProcess extends MobilityApplicationProcess_Base
     private MobilityApplicationProcess getLastSeasonProcess(ErasmusApplyForSemesterType forSemester) {
         MobilityApplicationProcess lastProcess = null;
         Boolean lookForSameSeasonType = (forSemester != null);
-        for (Process proc : Bennu.getInstance().getProcessesSet()) {
-            if (proc instanceof MobilityApplicationProcess) {
-                MobilityApplicationProcess mobAppProc = ((MobilityApplicationProcess) proc);
-                if (mobAppProc == this) {
-                    continue;
-                }
-                if (lookForSameSeasonType && mobAppProc.getForSemester() != forSemester) {
-                    continue;
-                }
-                if (lastProcess == null) {
-                    lastProcess = mobAppProc;
-                    continue;
-                }
-                if (mobAppProc.getCandidacyStart().isAfter(lastProcess.getCandidacyEnd())) {
-                    lastProcess = mobAppProc;
-                }
+        for (MobilityApplicationProcess mobAppProc : getAllInstancesOf(MobilityApplicationProcess.class)) {
+            if (mobAppProc == this) {
+                continue;
+            }
+            if (lookForSameSeasonType && mobAppProc.getForSemester() != forSemester) {
+                continue;
+            }
+            if (lastProcess == null) {
+                lastProcess = mobAppProc;
+                continue;
+            }
+            if (mobAppProc.getCandidacyStart().isAfter(lastProcess.getCandidacyEnd())) {
+                lastProcess = mobAppProc;
             }
         }
         return lastProcess;
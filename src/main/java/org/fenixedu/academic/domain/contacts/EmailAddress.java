@@ -19,6 +19,8 @@
 package org.fenixedu.academic.domain.contacts;
 
 import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
@@ -26,12 +28,19 @@ import org.apache.commons.validator.routines.EmailValidator;
 import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.organizationalStructure.Party;
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.joda.time.DateTime;
 
 import pt.ist.fenixframework.Atomic;
 
 public class EmailAddress extends EmailAddress_Base {
 
+    private static final DomainIndex<String, EmailAddress> VALUE_INDEX = new DomainIndex<String, EmailAddress>(
+            "EmailAddress.value",
+            () -> ContactRoot.getInstance().getPartyContactsSet().stream().filter(PartyContact::isEmailAddress)
+                    .map(contact -> (EmailAddress) contact).collect(Collectors.toList()),
+            e -> e.getContactRoot() != null ? normalize(e.getValue()) : null);
+
     public static Comparator<EmailAddress> COMPARATOR_BY_EMAIL = new Comparator<EmailAddress>() {
         @Override
         public int compare(EmailAddress contact, EmailAddress otherContact) {
@@ -103,6 +112,7 @@ public class EmailAddress extends EmailAddress_Base {
     @Override
     public void setValue(String value) {
         super.setValue(value);
+        VALUE_INDEX.add(this);
         updateProfileEmail();
     }
 
@@ -158,26 +168,24 @@ public class EmailAddress extends EmailAddress_Base {
         }
     }
 
+    /**
+     * Returns one of the email addresses with the given value, ignoring case. Like {@link #findAllActiveAndValid(String)}, it
+     * is answered from the index only when no other application server registered addresses since this one last updated it;
+     * otherwise every party contact is scanned.
+     */
     static public EmailAddress find(final String emailAddressString) {
-        for (final PartyContact contact : ContactRoot.getInstance().getPartyContactsSet()) {
-            if (contact.isEmailAddress()) {
-                final EmailAddress emailAddress = (EmailAddress) contact;
-                if (emailAddress.hasValue(emailAddressString)) {
-                    return emailAddress;
-                }
-            }
-        }
-        return null;
+        return VALUE_INDEX.getAny(normalize(emailAddressString));
     }
 
     public static Stream<EmailAddress> findAllActiveAndValid(final String emailAddressString) {
-        return ContactRoot.getInstance().getPartyContactsSet().stream()
-                .filter(partyContact -> partyContact.isEmailAddress())
-                .map(partyContact -> (EmailAddress) partyContact)
-                .filter(emailAddress -> emailAddress.hasValue(emailAddressString))
+        return VALUE_INDEX.get(normalize(emailAddressString)).stream()
                 .filter(emailAddress -> emailAddress.isActiveAndValid());
     }
 
+    private static String normalize(final String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
     @Override
     public String getPresentationValue() {
         return getValue();
@@ -57,8 +57,9 @@ public class CreditsLimitExecutor extends CurricularRuleExecutor {
                 final CurriculumModule curriculumModule = moduleEnroledWrapper.getCurriculumModule();
 
                 final Double ectsCredits =
-                        curriculumModule.getAprovedEctsCredits()
-                                + curriculumModule.getEnroledEctsCredits(enrolmentContext.getExecutionPeriod())
+                        enrolmentContext.getFacts().getAprovedEctsCredits(curriculumModule)
+                                + enrolmentContext.getFacts().getEnroledEctsCredits(curriculumModule,
+                                        enrolmentContext.getExecutionPeriod())
                                 + calculateEctsCreditsFromToEnrolCurricularCourses(enrolmentContext, curriculumModule);
 
                 if (rule.creditsExceedMaximum(ectsCredits)) {
@@ -146,7 +147,8 @@ public class CreditsLimitExecutor extends CurricularRuleExecutor {
                 final ExecutionSemester executionSemester = enrolmentContext.getExecutionPeriod();
 
                 Double ectsCredits =
-                        curriculumModule.getAprovedEctsCredits() + curriculumModule.getEnroledEctsCredits(executionSemester)
+                        enrolmentContext.getFacts().getAprovedEctsCredits(curriculumModule)
+                                + enrolmentContext.getFacts().getEnroledEctsCredits(curriculumModule, executionSemester)
                                 + calculateEctsCreditsFromToEnrolCurricularCourses(enrolmentContext, curriculumModule);
 
                 if (rule.creditsExceedMaximum(ectsCredits)) {
@@ -159,7 +161,8 @@ public class CreditsLimitExecutor extends CurricularRuleExecutor {
 
                 ectsCredits =
                         Double.valueOf(ectsCredits.doubleValue()
-                                + curriculumModule.getEnroledEctsCredits(executionSemester.getPreviousExecutionPeriod())
+                                + enrolmentContext.getFacts()
+                                        .getEnroledEctsCredits(curriculumModule, executionSemester.getPreviousExecutionPeriod())
                                         .doubleValue());
 
                 // TODO: remove duplicated ects from anual CurricularCourses
@@ -116,7 +116,7 @@ abstract public class CurricularRuleExecutor {
             return enrolmentContext.getStudentCurricularPlan().findEnrolmentFor((CurricularCourse) degreeModule,
                     enrolmentContext.getExecutionPeriod());
         } else {
-            return enrolmentContext.getStudentCurricularPlan().findCurriculumGroupFor((CourseGroup) degreeModule);
+            return enrolmentContext.getFacts().findCurriculumGroupFor((CourseGroup) degreeModule);
         }
     }
 
@@ -126,12 +126,12 @@ abstract public class CurricularRuleExecutor {
     }
 
     protected boolean isApproved(final EnrolmentContext enrolmentContext, final CurricularCourse curricularCourse) {
-        return enrolmentContext.getStudentCurricularPlan().isApproved(curricularCourse);
+        return enrolmentContext.getFacts().isApproved(curricularCourse);
     }
 
     protected boolean isApproved(final EnrolmentContext enrolmentContext, final CurricularCourse curricularCourse,
             final ExecutionSemester executionSemester) {
-        return enrolmentContext.getStudentCurricularPlan().isApproved(curricularCourse, executionSemester);
+        return enrolmentContext.getFacts().isApproved(curricularCourse, executionSemester);
     }
 
     protected boolean isEnroled(final EnrolmentContext enrolmentContext, final DegreeModule degreeModule) {
@@ -141,7 +141,7 @@ abstract public class CurricularRuleExecutor {
 
     private boolean isEnroled(final EnrolmentContext enrolmentContext, final CurricularCourse curricularCourse) {
         final ExecutionSemester executionSemester = enrolmentContext.getExecutionPeriod();
-        return enrolmentContext.getStudentCurricularPlan().isEnroledInExecutionPeriod(curricularCourse, executionSemester);
+        return enrolmentContext.getFacts().isEnroledInExecutionPeriod(curricularCourse, executionSemester);
     }
 
     private boolean isEnroled(final EnrolmentContext enrolmentContext, final CourseGroup courseGroup) {
@@ -150,7 +150,7 @@ abstract public class CurricularRuleExecutor {
 
     protected boolean isEnroled(final EnrolmentContext enrolmentContext, final CurricularCourse curricularCourse,
             final ExecutionSemester executionSemester) {
-        return enrolmentContext.getStudentCurricularPlan().isEnroledInExecutionPeriod(curricularCourse, executionSemester);
+        return enrolmentContext.getFacts().isEnroledInExecutionPeriod(curricularCourse, executionSemester);
     }
 
     protected boolean hasEnrolmentWithEnroledState(final EnrolmentContext enrolmentContext,
@@ -166,8 +166,7 @@ abstract public class CurricularRuleExecutor {
 
     protected boolean isApproved(final EnrolmentContext enrolmentContext, final CurricularCourse curricularCourse,
             final CourseGroup parentCourseGroup) {
-        final CurriculumGroup curriculumGroup =
-                enrolmentContext.getStudentCurricularPlan().findCurriculumGroupFor(parentCourseGroup);
+        final CurriculumGroup curriculumGroup = enrolmentContext.getFacts().findCurriculumGroupFor(parentCourseGroup);
         return curriculumGroup != null ? curriculumGroup.isApproved(curricularCourse) : false;
     }
 
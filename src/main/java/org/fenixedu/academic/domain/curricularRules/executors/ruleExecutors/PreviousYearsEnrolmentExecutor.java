@@ -44,6 +44,7 @@ import org.fenixedu.academic.domain.degreeStructure.CourseGroup;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
 import org.fenixedu.academic.domain.degreeStructure.DegreeModule;
 import org.fenixedu.academic.domain.enrolment.EnrolmentContext;
+import org.fenixedu.academic.domain.enrolment.EnrolmentFacts;
 import org.fenixedu.academic.domain.enrolment.IDegreeModuleToEvaluate;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.studentCurriculum.CurriculumGroup;
@@ -251,7 +252,8 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
         }
 
         final int childDegreeModulesCount =
-                courseGroup.getActiveChildContextsWithMax(enrolmentContext.getExecutionPeriod()).size();
+                enrolmentContext.getFacts().getActiveChildContextsWithMax(courseGroup, enrolmentContext.getExecutionPeriod())
+                        .size();
 
         collectCurricularCoursesToEnrol(result, courseGroup, collectContext, enrolmentContext, sourceDegreeModuleToEvaluate,
                 withTemporaryEnrolments);
@@ -304,7 +306,7 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
 
     private boolean isConcluded(final CourseGroup courseGroup, final EnrolmentContext enrolmentContext,
             final IDegreeModuleToEvaluate sourceDegreeModuleToEvaluate, final boolean withTemporaryEnrolments) {
-        final CurriculumGroup curriculumGroup = enrolmentContext.getStudentCurricularPlan().findCurriculumGroupFor(courseGroup);
+        final CurriculumGroup curriculumGroup = enrolmentContext.getFacts().findCurriculumGroupFor(courseGroup);
 
         if (curriculumGroup == null) {
             return false;
@@ -413,7 +415,7 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
             final CollectContext collectContext, final EnrolmentContext enrolmentContext,
             final IDegreeModuleToEvaluate sourceDegreeModuleToEvaluate, final boolean withTemporaryEnrolments) {
 
-        final CurriculumGroup curriculumGroup = enrolmentContext.getStudentCurricularPlan().findCurriculumGroupFor(courseGroup);
+        final CurriculumGroup curriculumGroup = enrolmentContext.getFacts().findCurriculumGroupFor(courseGroup);
         collectContext.ectsCredits = curriculumGroup != null ? curriculumGroup.getChildCreditsDismissalEcts() : 0;
 
         final double missingEctsToConcludeGroup;
@@ -574,11 +576,14 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
 
     private double calculateTotalEctsInGroup(final EnrolmentContext enrolmentContext, final CurriculumGroup curriculumGroup,
             final boolean withTemporaryEnrolments) {
-        double result = curriculumGroup.getCreditsConcluded(enrolmentContext.getExecutionPeriod().getExecutionYear());
-        result += curriculumGroup.getEnroledEctsCredits(enrolmentContext.getExecutionPeriod());
+        final EnrolmentFacts facts = enrolmentContext.getFacts();
+        double result = facts.getCreditsConcluded(curriculumGroup, enrolmentContext.getExecutionPeriod().getExecutionYear());
+        result += facts.getEnroledEctsCredits(curriculumGroup, enrolmentContext.getExecutionPeriod());
 
         if (withTemporaryEnrolments) {
-            result += curriculumGroup.getEnroledEctsCredits(enrolmentContext.getExecutionPeriod().getPreviousExecutionPeriod());
+            result +=
+                    facts.getEnroledEctsCredits(curriculumGroup, enrolmentContext.getExecutionPeriod()
+                            .getPreviousExecutionPeriod());
         }
 
         return result;
@@ -622,18 +627,19 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
         final int minModules = getMinModules(courseGroup, executionSemester);
         final int maxModules = getMaxModules(courseGroup, executionSemester);
         final int childDegreeModulesCount =
-                courseGroup.getActiveChildContextsWithMax(enrolmentContext.getExecutionPeriod()).size();
+                enrolmentContext.getFacts().getActiveChildContextsWithMax(courseGroup, enrolmentContext.getExecutionPeriod())
+                        .size();
 
         if (minModules == maxModules) {
             if (maxModules == childDegreeModulesCount) {
                 // N-N == Nchilds
-                result.addAll(courseGroup.getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(enrolmentContext
-                        .getExecutionPeriod()));
+                result.addAll(enrolmentContext.getFacts().getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(
+                        courseGroup, enrolmentContext.getExecutionPeriod()));
             } else {
                 // N-N <> Nchilds
                 if (getSelectedChildDegreeModules(courseGroup, enrolmentContext).size() < minModules) {
-                    result.addAll(courseGroup.getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(enrolmentContext
-                            .getExecutionPeriod()));
+                    result.addAll(enrolmentContext.getFacts().getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(
+                            courseGroup, enrolmentContext.getExecutionPeriod()));
                 } else {
                     result.addAll(getSelectedChildCurricularCoursesContexts(courseGroup, enrolmentContext));
                 }
@@ -641,8 +647,8 @@ public class PreviousYearsEnrolmentExecutor extends CurricularRuleExecutor {
         } else {
             // N-M
             if (getSelectedChildDegreeModules(courseGroup, enrolmentContext).size() < minModules) {
-                result.addAll(courseGroup.getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(enrolmentContext
-                        .getExecutionPeriod()));
+                result.addAll(enrolmentContext.getFacts().getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(
+                        courseGroup, enrolmentContext.getExecutionPeriod()));
             } else {
                 result.addAll(getSelectedChildCurricularCoursesContexts(courseGroup, enrolmentContext));
             }
@@ -115,6 +115,14 @@ public class CompetenceCourseInformation extends CompetenceCourseInformation_Bas
         setCompetenceCourseGroupUnit(unit);
     }
 
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        if (getCompetenceCourse() != null) {
+            getCompetenceCourse().reindexSearchTexts();
+        }
+    }
+
     public ScientificAreaUnit getScientificAreaUnit() {
         return getCompetenceCourseGroupUnit().getScientificAreaUnit();
     }
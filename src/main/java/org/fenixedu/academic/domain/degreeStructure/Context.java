@@ -136,6 +136,7 @@ public class Context extends Context_Base implements Comparable<Context> {
         super.setCurricularPeriod(curricularPeriod);
         super.setBeginExecutionPeriod(begin);
         super.setEndExecutionPeriod(end);
+        CourseGroupStructure.invalidate(courseGroup);
     }
 
     private void checkIfCanAddDegreeModuleToCourseGroup(final CourseGroup courseGroup, final DegreeModule degreeModule,
@@ -244,7 +245,9 @@ public class Context extends Context_Base implements Comparable<Context> {
     @Override
     public void setParentCourseGroup(CourseGroup courseGroup) {
         check(this, ContextPredicates.curricularPlanMemberWritePredicate);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
         super.setParentCourseGroup(courseGroup);
+        CourseGroupStructure.invalidate(courseGroup);
     }
 
     @Override
@@ -257,6 +260,7 @@ public class Context extends Context_Base implements Comparable<Context> {
     public void setChildDegreeModule(DegreeModule degreeModule) {
         check(this, ContextPredicates.curricularPlanMemberWritePredicate);
         super.setChildDegreeModule(degreeModule);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
     }
 
     public boolean isValid(final ExecutionSemester executionSemester) {
@@ -356,7 +360,13 @@ public class Context extends Context_Base implements Comparable<Context> {
 
     @Deprecated
     public void setOrder(Integer order) {
-        super.setChildOrder(order);
+        setChildOrder(order);
+    }
+
+    @Override
+    public void setChildOrder(Integer childOrder) {
+        super.setChildOrder(childOrder);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
     }
 
     public boolean containsCurricularYear(final Integer curricularYear) {
@@ -399,10 +409,18 @@ public class Context extends Context_Base implements Comparable<Context> {
             throw new DomainException("curricular.rule.begin.execution.period.cannot.be.null");
         }
         super.setBeginExecutionPeriod(beginExecutionPeriod);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
     }
 
     public void removeBeginExecutionPeriod() {
         super.setBeginExecutionPeriod(null);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
+    }
+
+    @Override
+    public void setEndExecutionPeriod(ExecutionSemester endExecutionPeriod) {
+        super.setEndExecutionPeriod(endExecutionPeriod);
+        CourseGroupStructure.invalidate(getParentCourseGroup());
     }
 
     public Integer getCurricularYear() {
@@ -208,13 +208,20 @@ public class CourseGroup extends CourseGroup_Base {
     public List<Context> getValidChildContexts(final Class<? extends DegreeModule> clazz,
             final ExecutionSemester executionSemester) {
         final List<Context> result = new ArrayList<Context>();
-        for (Context context : this.getChildContextsSet()) {
-            if (hasClass(clazz, context.getChildDegreeModule())
-                    && ((executionSemester == null || context.isValid(executionSemester)))) {
+        if (executionSemester == null) {
+            for (final Context context : this.getChildContextsSet()) {
+                if (hasClass(clazz, context.getChildDegreeModule())) {
+                    result.add(context);
+                }
+            }
+            return result;
+        }
+        // validity is checked on the open contexts, as the regime of curricular courses may change outside the plan
+        for (final Context context : CourseGroupStructure.of(this, executionSemester).getOpenChildContexts()) {
+            if (hasClass(clazz, context.getChildDegreeModule()) && context.isValid(executionSemester)) {
                 result.add(context);
             }
         }
-
         return result;
     }
 
@@ -231,6 +238,9 @@ public class CourseGroup extends CourseGroup_Base {
     }
 
     public List<Context> getSortedOpenChildContextsWithCourseGroups(final ExecutionSemester executionSemester) {
+        if (executionSemester != null) {
+            return new ArrayList<Context>(CourseGroupStructure.of(this, executionSemester).getSortedOpenCourseGroupContexts());
+        }
         final List<Context> result = this.getOpenChildContexts(CourseGroup.class, executionSemester);
         Collections.sort(result);
         return result;
@@ -238,9 +248,11 @@ public class CourseGroup extends CourseGroup_Base {
 
     public List<Context> getOpenChildContexts(final Class<? extends DegreeModule> clazz, final ExecutionSemester executionSemester) {
         final List<Context> result = new ArrayList<Context>();
-        for (final Context context : getChildContextsSet()) {
-            if (hasClass(clazz, context.getChildDegreeModule())
-                    && ((executionSemester == null || context.isOpen(executionSemester)))) {
+        final Collection<Context> contexts =
+                executionSemester == null ? getChildContextsSet() : CourseGroupStructure.of(this, executionSemester)
+                        .getOpenChildContexts();
+        for (final Context context : contexts) {
+            if (hasClass(clazz, context.getChildDegreeModule())) {
                 result.add(context);
             }
         }
@@ -315,12 +327,21 @@ public class CourseGroup extends CourseGroup_Base {
     public void setName(String name) {
         check(this, CourseGroupPredicates.curricularPlanMemberWritePredicate);
         super.setName(name);
+        invalidateParentStructures();
     }
 
     @Override
     public void setNameEn(String nameEn) {
         check(this, CourseGroupPredicates.curricularPlanMemberWritePredicate);
         super.setNameEn(nameEn);
+        invalidateParentStructures();
+    }
+
+    /* the sorted child contexts of the parents depend on the name of this course group */
+    private void invalidateParentStructures() {
+        for (final Context context : getParentContextsSet()) {
+            CourseGroupStructure.invalidate(context.getParentCourseGroup());
+        }
     }
 
     public void checkDuplicateChildNames(final String name, final String nameEn) {
@@ -536,13 +557,7 @@ public class CourseGroup extends CourseGroup_Base {
     }
 
     public Set<DegreeModule> getOpenChildDegreeModulesByExecutionPeriod(final ExecutionSemester executionSemester) {
-        final Set<DegreeModule> result = new HashSet<DegreeModule>();
-        for (final Context context : getChildContextsSet()) {
-            if (context.isOpen(executionSemester)) {
-                result.add(context.getChildDegreeModule());
-            }
-        }
-        return result;
+        return new HashSet<DegreeModule>(CourseGroupStructure.of(this, executionSemester).getOpenChildDegreeModules());
     }
 
     @Override
@@ -567,7 +582,8 @@ public class CourseGroup extends CourseGroup_Base {
             return creditsLimitRules.iterator().next().getMaximumCredits();
         }
 
-        final Collection<DegreeModule> modulesByExecutionPeriod = getOpenChildDegreeModulesByExecutionPeriod(executionSemester);
+        final Collection<DegreeModule> modulesByExecutionPeriod =
+                CourseGroupStructure.of(this, executionSemester).getOpenChildDegreeModules();
         final DegreeModulesSelectionLimit modulesSelectionLimit = getDegreeModulesSelectionLimitRule(executionSemester);
         if (modulesSelectionLimit != null) {
             return countMaxEctsCredits(modulesByExecutionPeriod, executionSemester, modulesSelectionLimit.getMaximumLimit());
@@ -600,7 +616,8 @@ public class CourseGroup extends CourseGroup_Base {
             return creditsLimitRules.iterator().next().getMinimumCredits();
         }
 
-        final Collection<DegreeModule> modulesByExecutionPeriod = getOpenChildDegreeModulesByExecutionPeriod(executionSemester);
+        final Collection<DegreeModule> modulesByExecutionPeriod =
+                CourseGroupStructure.of(this, executionSemester).getOpenChildDegreeModules();
         final DegreeModulesSelectionLimit modulesSelectionLimit = getDegreeModulesSelectionLimitRule(executionSemester);
         if (modulesSelectionLimit != null) {
             return countMinEctsCredits(modulesByExecutionPeriod, executionSemester, modulesSelectionLimit.getMinimumLimit());
@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.degreeStructure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.fenixedu.academic.domain.ExecutionSemester;
+import org.fenixedu.academic.domain.util.TransactionalCache;
+
+/**
+ * Immutable view of the children of a {@link CourseGroup} that are open in a given {@link ExecutionSemester}, compiled once
+ * and shared by every thread, so that enrolment rules and curriculum pages walking the degree structure do not filter and
+ * sort the contexts of each course group over and over.
+ *
+ * Views only depend on the contexts of the course group (their execution periods, order and children) and on the names of
+ * its child course groups, and are discarded when a transaction changing any of these commits (see
+ * {@link #invalidate(CourseGroup)} and {@link TransactionalCache}). Changes made by other application servers are seen once
+ * the views expire, five minutes after being compiled.
+ */
+public class CourseGroupStructure {
+
+    private static final TransactionalCache<CourseGroup, CourseGroupStructure> structures = TransactionalCache.ofSize(
+            "course group structures", 100000, 5, TimeUnit.MINUTES);
+
+    private final List<Context> openChildContexts;
+
+    private final List<Context> sortedOpenCourseGroupContexts;
+
+    private final Set<DegreeModule> openChildDegreeModules;
+
+    private CourseGroupStructure(final CourseGroup courseGroup, final ExecutionSemester executionSemester) {
+        final List<Context> open = new ArrayList<Context>();
+        final List<Context> courseGroups = new ArrayList<Context>();
+        final Set<DegreeModule> modules = new LinkedHashSet<DegreeModule>();
+        for (final Context context : courseGroup.getChildContextsSet()) {
+            if (context.isOpen(executionSemester)) {
+                open.add(context);
+                modules.add(context.getChildDegreeModule());
+                if (!context.getChildDegreeModule().isLeaf()) {
+                    courseGroups.add(context);
+                }
+            }
+        }
+        Collections.sort(courseGroups);
+
+        this.openChildContexts = Collections.unmodifiableList(open);
+        this.sortedOpenCourseGroupContexts = Collections.unmodifiableList(courseGroups);
+        this.openChildDegreeModules = Collections.unmodifiableSet(modules);
+    }
+
+    /**
+     * Returns the view of the course group in the given semester, compiling it only if it is not cached.
+     */
+    public static CourseGroupStructure of(final CourseGroup courseGroup, final ExecutionSemester executionSemester) {
+        return structures.get(courseGroup, executionSemester.getExternalId(), () -> new CourseGroupStructure(courseGroup,
+                executionSemester));
+    }
+
+    /**
+     * Child contexts open in the semester, whatever their child degree module.
+     */
+    public List<Context> getOpenChildContexts() {
+        return openChildContexts;
+    }
+
+    /**
+     * Child contexts open in the semester whose child is a course group, in their natural order.
+     */
+    public List<Context> getSortedOpenCourseGroupContexts() {
+        return sortedOpenCourseGroupContexts;
+    }
+
+    public Set<DegreeModule> getOpenChildDegreeModules() {
+        return openChildDegreeModules;
+    }
+
+    public int getOpenChildDegreeModulesCount() {
+        return openChildDegreeModules.size();
+    }
+
+    /**
+     * Must be called whenever the child contexts of the course group, or the names of its child course groups, change. Its
+     * views are discarded once the running transaction commits, and are not used by it in the meantime.
+     */
+    public static void invalidate(final CourseGroup courseGroup) {
+        structures.invalidate(courseGroup);
+    }
+
+}
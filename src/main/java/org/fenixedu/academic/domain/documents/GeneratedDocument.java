@@ -18,6 +18,8 @@
  */
 package org.fenixedu.academic.domain.documents;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Comparator;
 
 import org.fenixedu.academic.domain.Person;
@@ -52,6 +54,14 @@ public abstract class GeneratedDocument extends GeneratedDocument_Base {
         init(filename, filename, content);
     }
 
+    protected void init(GeneratedDocumentType type, Party addressee, Person operator, String filename, InputStream content)
+            throws IOException {
+        setType(type);
+        setAddressee(addressee);
+        setOperator(operator);
+        init(filename, filename, content);
+    }
+
     @Override
     public void delete() {
         setAddressee(null);
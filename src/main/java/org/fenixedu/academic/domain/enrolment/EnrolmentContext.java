@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.Person;
@@ -53,6 +54,8 @@ public class EnrolmentContext {
     //private Person responsiblePerson;
     private final User userView;
 
+    private EnrolmentFacts facts = null;
+
     public EnrolmentContext(final StudentCurricularPlan studentCurricularPlan, final ExecutionSemester executionSemester,
             final Set<IDegreeModuleToEvaluate> degreeModulesToEnrol, final List<CurriculumModule> curriculumModulesToRemove,
             final CurricularRuleLevel curricularRuleLevel) {
@@ -76,6 +79,29 @@ public class EnrolmentContext {
         this.curricularRuleLevel = curricularRuleLevel;
     }
 
+    /**
+     * The facts about the curriculum shared by the rule executors. They are only kept while {@link #evaluate(Supplier)} runs,
+     * since the curriculum changes before and after the rules are evaluated.
+     */
+    public EnrolmentFacts getFacts() {
+        return facts != null ? facts : new EnrolmentFacts(studentCurricularPlan);
+    }
+
+    /**
+     * Runs an evaluation of curricular rules, sharing the same {@link EnrolmentFacts} among all of them.
+     */
+    public <T> T evaluate(final Supplier<T> evaluation) {
+        if (facts != null) {
+            return evaluation.get();
+        }
+        facts = new EnrolmentFacts(studentCurricularPlan);
+        try {
+            return evaluation.get();
+        } finally {
+            facts = null;
+        }
+    }
+
     public Set<IDegreeModuleToEvaluate> getDegreeModulesToEvaluate() {
         return degreeModulesToEvaluate;
     }
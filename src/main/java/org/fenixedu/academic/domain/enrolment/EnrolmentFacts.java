@@ -0,0 +1,126 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.enrolment;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.fenixedu.academic.domain.CurricularCourse;
+import org.fenixedu.academic.domain.ExecutionSemester;
+import org.fenixedu.academic.domain.ExecutionYear;
+import org.fenixedu.academic.domain.StudentCurricularPlan;
+import org.fenixedu.academic.domain.degreeStructure.Context;
+import org.fenixedu.academic.domain.degreeStructure.CourseGroup;
+import org.fenixedu.academic.domain.studentCurriculum.CurriculumGroup;
+import org.fenixedu.academic.domain.studentCurriculum.CurriculumModule;
+
+/**
+ * Facts about the curriculum of a student that several curricular rule executors derive while evaluating the same
+ * {@link EnrolmentContext}: approvals, enrolments, approved and enrolled credits per group and the child contexts of
+ * course groups per semester.
+ *
+ * Facts are computed on first use and then kept, so an instance must not outlive the evaluation it was created for, during
+ * which the curriculum does not change (see {@link EnrolmentContext#evaluate(java.util.function.Supplier)}).
+ */
+public class EnrolmentFacts {
+
+    private final StudentCurricularPlan studentCurricularPlan;
+
+    private final Map<CurricularCourse, Boolean> approved = new HashMap<CurricularCourse, Boolean>();
+
+    private final Map<ExecutionSemester, Map<CurricularCourse, Boolean>> approvedIn =
+            new HashMap<ExecutionSemester, Map<CurricularCourse, Boolean>>();
+
+    private final Map<ExecutionSemester, Map<CurricularCourse, Boolean>> enroledIn =
+            new HashMap<ExecutionSemester, Map<CurricularCourse, Boolean>>();
+
+    private final Map<CourseGroup, CurriculumGroup> curriculumGroups = new HashMap<CourseGroup, CurriculumGroup>();
+
+    private final Map<CurriculumModule, Double> approvedEcts = new HashMap<CurriculumModule, Double>();
+
+    private final Map<ExecutionSemester, Map<CurriculumModule, Double>> enroledEcts =
+            new HashMap<ExecutionSemester, Map<CurriculumModule, Double>>();
+
+    private final Map<ExecutionYear, Map<CurriculumGroup, Double>> creditsConcluded =
+            new HashMap<ExecutionYear, Map<CurriculumGroup, Double>>();
+
+    private final Map<ExecutionSemester, Map<CourseGroup, Set<Context>>> childContexts =
+            new HashMap<ExecutionSemester, Map<CourseGroup, Set<Context>>>();
+
+    private final Map<ExecutionSemester, Map<CourseGroup, Set<Context>>> childCurricularCourseContexts =
+            new HashMap<ExecutionSemester, Map<CourseGroup, Set<Context>>>();
+
+    EnrolmentFacts(final StudentCurricularPlan studentCurricularPlan) {
+        this.studentCurricularPlan = studentCurricularPlan;
+    }
+
+    public boolean isApproved(final CurricularCourse curricularCourse) {
+        return approved.computeIfAbsent(curricularCourse, studentCurricularPlan::isApproved);
+    }
+
+    public boolean isApproved(final CurricularCourse curricularCourse, final ExecutionSemester executionSemester) {
+        return factsFor(approvedIn, executionSemester).computeIfAbsent(curricularCourse,
+                key -> studentCurricularPlan.isApproved(key, executionSemester));
+    }
+
+    public boolean isEnroledInExecutionPeriod(final CurricularCourse curricularCourse, final ExecutionSemester executionSemester) {
+        return factsFor(enroledIn, executionSemester).computeIfAbsent(curricularCourse,
+                key -> studentCurricularPlan.isEnroledInExecutionPeriod(key, executionSemester));
+    }
+
+    public CurriculumGroup findCurriculumGroupFor(final CourseGroup courseGroup) {
+        if (!curriculumGroups.containsKey(courseGroup)) {
+            curriculumGroups.put(courseGroup, studentCurricularPlan.findCurriculumGroupFor(courseGroup));
+        }
+        return curriculumGroups.get(courseGroup);
+    }
+
+    public Double getAprovedEctsCredits(final CurriculumModule curriculumModule) {
+        return approvedEcts.computeIfAbsent(curriculumModule, CurriculumModule::getAprovedEctsCredits);
+    }
+
+    public Double getEnroledEctsCredits(final CurriculumModule curriculumModule, final ExecutionSemester executionSemester) {
+        return factsFor(enroledEcts, executionSemester).computeIfAbsent(curriculumModule,
+                key -> key.getEnroledEctsCredits(executionSemester));
+    }
+
+    public Double getCreditsConcluded(final CurriculumGroup curriculumGroup, final ExecutionYear executionYear) {
+        return factsFor(creditsConcluded, executionYear).computeIfAbsent(curriculumGroup,
+                key -> key.getCreditsConcluded(executionYear));
+    }
+
+    public Set<Context> getActiveChildContextsWithMax(final CourseGroup courseGroup, final ExecutionSemester executionSemester) {
+        return factsFor(childContexts, executionSemester).computeIfAbsent(courseGroup,
+                key -> Collections.unmodifiableSet(key.getActiveChildContextsWithMax(executionSemester)));
+    }
+
+    public Set<Context> getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(final CourseGroup courseGroup,
+            final ExecutionSemester executionSemester) {
+        return factsFor(childCurricularCourseContexts, executionSemester).computeIfAbsent(courseGroup,
+                key -> Collections.unmodifiableSet(key.getActiveChildContextsWithMaxCurricularPeriodForCurricularCourses(
+                        executionSemester)));
+    }
+
+    private static <P, K, V> Map<K, V> factsFor(final Map<P, Map<K, V>> facts, final P period) {
+        return facts.computeIfAbsent(period, key -> new HashMap<K, V>());
+    }
+
+}
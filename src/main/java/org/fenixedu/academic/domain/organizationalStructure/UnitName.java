@@ -18,17 +18,27 @@
  */
 package org.fenixedu.academic.domain.organizationalStructure;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.collections.Predicate;
 import org.apache.commons.lang.StringUtils;
+import org.fenixedu.academic.domain.util.TextIndex;
 import org.fenixedu.bennu.core.domain.Bennu;
 
+import com.google.common.collect.Iterables;
+
 public class UnitName extends UnitName_Base implements Comparable<UnitName> {
 
+    /* ranked like compareTo, so that searches can stop as soon as the limited set is full */
+    private static final TextIndex<UnitName> NAME_INDEX = new TextIndex<UnitName>("unit name",
+            () -> Bennu.getInstance().getUnitNameSet(), UnitName::getIndexedTexts, UnitName::getName, true);
+
     public static class UnitNameLimitedOrderedSet extends TreeSet<UnitName> {
 
         protected final int maxElements;
@@ -51,6 +61,14 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
             return false;
         }
 
+        /**
+         * Whether the set holds its maximum number of elements, in which case adding names that come after the last one has
+         * no effect.
+         */
+        public boolean isFull() {
+            return size() >= maxElements;
+        }
+
         public boolean containsExactSameName(final UnitName unitName) {
             for (UnitName forUnitName : this) {
                 if (forUnitName.getUnit().getName().equals(unitName.getUnit().getName())) {
@@ -138,6 +156,13 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
         setIsExternalUnit(Boolean.valueOf(!unit.isInternal()));
     }
 
+    private static Collection<String> getIndexedTexts(final UnitName unitName) {
+        if (unitName.getUnit() == null || unitName.getName() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(unitName.getName());
+    }
+
     @Override
     public int compareTo(UnitName unitName) {
         final int stringCompare = getName().compareTo(unitName.getName());
@@ -148,6 +173,7 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
     public void setName(String name) {
         super.setName(UnitNamePart.normalize(name));
         UnitNamePart.reindex(this);
+        NAME_INDEX.add(this);
     }
 
     private static boolean containsAll(final String normalizedUnitName, final String[] nameParts) {
@@ -164,7 +190,14 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
         if (nameParts.length > 0) {
             final UnitNamePart unitNamePart = UnitNamePart.find(nameParts[0]);
             if (unitNamePart != null && nameParts.length == 1) {
-                unitNameLimitedOrderedSet.addAll(unitNamePart.getUnitNameSet());
+                addInOrder(unitNameLimitedOrderedSet, NAME_INDEX.withWords(unitNamePart.getNamePart()));
+                return;
+            }
+            final Iterable<UnitName> candidates = NAME_INDEX.containing(nameParts);
+            if (candidates != null) {
+                // when the first part is a whole word, only the names having that word are wanted
+                addInOrder(unitNameLimitedOrderedSet, unitNamePart == null ? candidates : Iterables.filter(candidates,
+                        unitName -> unitName.getUnitNamePartSet().contains(unitNamePart)));
             } else {
                 final Set<UnitName> unitNames =
                         unitNamePart == null ? Bennu.getInstance().getUnitNameSet() : unitNamePart.getUnitNameSet();
@@ -247,15 +280,23 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
         if (nameParts.length > 0) {
             final UnitNamePart unitNamePart = UnitNamePart.find(nameParts[0]);
             if (unitNamePart != null && nameParts.length == 1) {
-                unitNameLimitedOrderedSet.addAll(unitNamePart.getUnitNameSet());
+                addInOrder(unitNameLimitedOrderedSet, NAME_INDEX.withWords(unitNamePart.getNamePart()));
             } else {
-                final Set<UnitName> unitNames =
-                        unitNamePart == null ? Bennu.getInstance().getUnitNameSet() : unitNamePart.getUnitNameSet();
-                for (final UnitName unitName : unitNames) {
-                    final String normalizedUnitName = unitName.getName();
-                    if (containsAllExactWords(normalizedUnitName, nameParts)) {
-                        if (!existsTheSameCode(unitName, unitNameLimitedOrderedSet)) {
-                            unitNameLimitedOrderedSet.add(unitName);
+                // only the parts longer than 3 characters must be whole words, as in containsAllExactWords
+                final List<String> words = new ArrayList<String>();
+                if (unitNamePart != null) {
+                    words.add(unitNamePart.getNamePart());
+                }
+                for (final String namePart : nameParts) {
+                    if (namePart.length() > 3) {
+                        words.add(namePart);
+                    }
+                }
+                for (final UnitName unitName : NAME_INDEX.withWords(words.toArray(new String[words.size()]))) {
+                    if (!existsTheSameCode(unitName, unitNameLimitedOrderedSet)) {
+                        unitNameLimitedOrderedSet.add(unitName);
+                        if (unitNameLimitedOrderedSet.isFull()) {
+                            return;
                         }
                     }
                 }
@@ -263,6 +304,17 @@ public class UnitName extends UnitName_Base implements Comparable<UnitName> {
         }
     }
 
+    /* names must be given in the order of compareTo, so that nothing else could be added once the set is full */
+    private static void addInOrder(final UnitNameLimitedOrderedSet unitNameLimitedOrderedSet,
+            final Iterable<UnitName> unitNames) {
+        for (final UnitName unitName : unitNames) {
+            unitNameLimitedOrderedSet.add(unitName);
+            if (unitNameLimitedOrderedSet.isFull()) {
+                return;
+            }
+        }
+    }
+
     private static boolean existsTheSameCode(UnitName unitName, UnitNameLimitedOrderedSet unitNameLimitedOrderedSet) {
         for (UnitName unitNameTemp : unitNameLimitedOrderedSet) {
             if (StringUtils.isEmpty(unitName.getUnit().getCode()) || !StringUtils.isNumeric(unitName.getUnit().getCode())) {
@@ -20,12 +20,17 @@ package org.fenixedu.academic.domain.person;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Locale;
 
 import org.fenixedu.academic.domain.Person;
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.fenixedu.bennu.core.domain.Bennu;
 
 public class IdDocument extends IdDocument_Base {
 
+    private static final DomainIndex<String, IdDocument> VALUE_INDEX = new DomainIndex<String, IdDocument>("IdDocument.value",
+            () -> Bennu.getInstance().getIdDocumentsSet(), d -> d.getRootDomainObject() != null ? normalize(d.getValue()) : null);
+
     public IdDocument(final Person person, final String value, final IdDocumentTypeObject idDocumentType) {
         super();
         setRootDomainObject(Bennu.getInstance());
@@ -38,15 +43,23 @@ public class IdDocument extends IdDocument_Base {
         this(person, value, IdDocumentTypeObject.readByIDDocumentType(documentType));
     }
 
+    /**
+     * Returns every document with the given value, ignoring case. The lookup is answered from the index only when no other
+     * application server registered documents since this one last updated it; otherwise every document is scanned. Either
+     * way, a transaction checking for duplicates conflicts with any concurrent transaction registering a document.
+     */
     public static Collection<IdDocument> find(final String idDocumentValue) {
-        final Collection<IdDocument> idDocuments = new ArrayList<IdDocument>();
-        for (final IdDocument idDocument : Bennu.getInstance().getIdDocumentsSet()) {
-            if (idDocument.getValue().equalsIgnoreCase(idDocumentValue)) {
-                idDocuments.add(idDocument);
-            }
-        }
-
-        return idDocuments;
+        return new ArrayList<IdDocument>(VALUE_INDEX.get(normalize(idDocumentValue)));
+    }
+
+    private static String normalize(final String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    @Override
+    public void setValue(final String value) {
+        super.setValue(value);
+        VALUE_INDEX.add(this);
     }
 
     public void setIdDocumentType(IDDocumentType documentType) {
@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.person;
+
+import java.text.Collator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.fenixedu.academic.domain.Person;
+import org.fenixedu.academic.domain.util.TextIndex;
+import org.fenixedu.bennu.core.domain.Bennu;
+import org.fenixedu.commons.StringNormalizer;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Index of the normalized words of the names of every {@link Person}, used to search people by name without normalizing
+ * every name in the installation. Persons are ranked by the collation of their names and by id, so searches return them
+ * already sorted.
+ *
+ * Persons renamed through {@link Person#changeName(String, String, String)} and the other name setters of {@link Person}
+ * are registered with the index: the server that renamed them places them by their new name at once, and the others as soon
+ * as their index is rebuilt, which starts within seconds (see {@link TextIndex}). Names are kept by the user profile of
+ * bennu, which may also change them without going through {@link Person}, so the index is also rebuilt every five minutes:
+ * a person renamed that way may be missed, or returned out of order, for at most that long.
+ */
+public class PersonNameIndex {
+
+    private static final TextIndex<Person> index = new TextIndex<Person>("person name", () -> Bennu.getInstance()
+            .getPartysSet().stream().filter(Person.class::isInstance).map(Person.class::cast).collect(Collectors.toList()),
+            PersonNameIndex::texts, person -> Collator.getInstance().getCollationKey(person.getName()), false, 5,
+            TimeUnit.MINUTES);
+
+    private PersonNameIndex() {
+    }
+
+    /**
+     * Returns the persons whose name contains every one of the given normalized words, sorted by name and id.
+     */
+    public static List<Person> find(final String[] nameWords) {
+        if (nameWords == null || String.join("", nameWords).isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Lists.newArrayList(index.withWords(nameWords));
+    }
+
+    /**
+     * Must be called whenever a person is created or renamed.
+     */
+    public static void add(final Person person) {
+        index.add(person);
+    }
+
+    private static Collection<String> texts(final Person person) {
+        if (person.getProfile() == null || person.getName() == null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(StringNormalizer.normalize(person.getName()).trim());
+    }
+
+}
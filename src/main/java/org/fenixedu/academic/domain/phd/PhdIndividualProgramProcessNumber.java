@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.academic.domain.util.DocumentSequence;
 import org.fenixedu.bennu.core.domain.Bennu;
 
 public class PhdIndividualProgramProcessNumber extends PhdIndividualProgramProcessNumber_Base implements
@@ -112,8 +113,10 @@ public class PhdIndividualProgramProcessNumber extends PhdIndividualProgramProce
     }
 
     static public PhdIndividualProgramProcessNumber generateNextForYear(final Integer year, final Integer phdStudentNumber) {
-        final PhdIndividualProgramProcessNumber maxByYear = readMaxByYear(year);
-        final Integer number = maxByYear != null ? maxByYear.getNumber() + 1 : 1;
+        final Integer number = DocumentSequence.next(PhdIndividualProgramProcessNumber.class.getSimpleName(), year, () -> {
+            final PhdIndividualProgramProcessNumber maxByYear = readMaxByYear(year);
+            return maxByYear != null ? maxByYear.getNumber() : 0;
+        });
 
         return new PhdIndividualProgramProcessNumber(number, year, phdStudentNumber);
     }
@@ -32,6 +32,7 @@ import org.fenixedu.academic.util.MultiLanguageString;
 import org.fenixedu.bennu.core.domain.User;
 import org.fenixedu.bennu.core.groups.Group;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
+import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 
 import com.google.common.collect.FluentIterable;
@@ -108,6 +109,12 @@ public class PhdCustomAlert extends PhdCustomAlert_Base {
         return getFireDate() != null;
     }
 
+    @Override
+    protected DateTime getNextCheckAfter(final DateTime when) {
+        final DateTime dueDate = getWhenToFire().toDateTimeAtStartOfDay();
+        return dueDate.isAfter(when) ? dueDate : super.getNextCheckAfter(when);
+    }
+
     @Override
     public boolean isCustomAlert() {
         return true;
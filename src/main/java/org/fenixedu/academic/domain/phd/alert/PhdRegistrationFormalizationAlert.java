@@ -33,6 +33,7 @@ import org.fenixedu.academic.util.MultiLanguageString;
 import org.fenixedu.bennu.core.domain.User;
 import org.fenixedu.bennu.core.groups.Group;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
+import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 
 import com.google.common.collect.FluentIterable;
@@ -78,6 +79,14 @@ public class PhdRegistrationFormalizationAlert extends PhdRegistrationFormalizat
         return getProcess().getCandidacyProcess().getWhenRatified() != null && !new LocalDate().isBefore(getWhenToFire());
     }
 
+    /*
+     * The ratification date this alert depends on may be set or changed at any time, so it is checked on every run.
+     */
+    @Override
+    protected DateTime getNextCheckAfter(final DateTime when) {
+        return when;
+    }
+
     @Override
     public boolean isSystemAlert() {
         return true;
@@ -0,0 +1,194 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.photograph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang.StringUtils;
+import org.fenixedu.academic.FenixEduAcademicConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Bounded cache of resized pictures, keyed by the picture identifier and the rendition parameters.
+ *
+ * Renditions are immutable: a new photograph always gets a new identifier, so entries never need to be invalidated and are
+ * only evicted when the cache exceeds its size. When a spill directory is configured, renditions are also written there and
+ * read back after being evicted from memory or after a restart. The directory is also bounded: when it exceeds its size, the
+ * least recently used renditions are deleted.
+ *
+ * Sizes requested by clients must go through {@link #renditionSize(int)}, so that only a few renditions of each picture are
+ * ever kept.
+ */
+public class PictureRenditionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PictureRenditionCache.class);
+
+    private static final Cache<String, byte[]> renditions = CacheBuilder.newBuilder()
+            .maximumWeight(FenixEduAcademicConfiguration.getConfiguration().getPictureRenditionCacheSizeMb() * 1024L * 1024L)
+            .weigher(new Weigher<String, byte[]>() {
+                @Override
+                public int weigh(String key, byte[] value) {
+                    return key.length() + value.length;
+                }
+            }).build();
+
+    /* sizes of the renditions served to clients, in pixels */
+    private static final int[] RENDITION_SIZES = { 16, 24, 32, 48, 64, 100, 128, 200, 256, 512 };
+
+    private static final File spillDirectory = initSpillDirectory();
+
+    private static final long spillLimit =
+            FenixEduAcademicConfiguration.getConfiguration().getPictureRenditionCacheDirectorySizeMb() * 1024L * 1024L;
+
+    private static final AtomicLong spilledBytes = new AtomicLong(spillDirectory != null ? sizeOf(spillDirectory) : 0L);
+
+    private PictureRenditionCache() {
+    }
+
+    /**
+     * Returns the smallest rendition size not below the requested one, or the largest rendition size if there is none.
+     */
+    public static int renditionSize(final int requested) {
+        for (final int size : RENDITION_SIZES) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return RENDITION_SIZES[RENDITION_SIZES.length - 1];
+    }
+
+    public static String key(String pictureId, int xRatio, int yRatio, int width, int height, PictureMode pictureMode) {
+        return pictureId + "-" + xRatio + "x" + yRatio + "-" + width + "x" + height + "-" + pictureMode.name();
+    }
+
+    public static byte[] get(final String key, final Supplier<byte[]> renderer) {
+        try {
+            return renditions.get(key, () -> load(key, renderer));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static byte[] load(final String key, final Supplier<byte[]> renderer) {
+        if (spillDirectory != null) {
+            final File file = new File(spillDirectory, key);
+            if (file.exists()) {
+                try {
+                    final byte[] result = Files.readAllBytes(file.toPath());
+                    file.setLastModified(System.currentTimeMillis());
+                    return result;
+                } catch (IOException e) {
+                    logger.warn("Unable to read cached picture " + file.getAbsolutePath(), e);
+                }
+            }
+        }
+
+        final byte[] rendition = renderer.get();
+        if (rendition == null) {
+            throw new IllegalStateException("No rendition for " + key);
+        }
+
+        if (spillDirectory != null) {
+            spill(key, rendition);
+        }
+        return rendition;
+    }
+
+    private static void spill(final String key, final byte[] rendition) {
+        try {
+            final Path temp = Files.createTempFile(spillDirectory.toPath(), key, ".tmp");
+            Files.write(temp, rendition);
+            Files.move(temp, new File(spillDirectory, key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Unable to write cached picture " + key, e);
+            return;
+        }
+
+        if (spilledBytes.addAndGet(rendition.length) > spillLimit) {
+            trimSpillDirectory();
+        }
+    }
+
+    /*
+     * Deletes the least recently used renditions until the directory is down to three quarters of its limit.
+     */
+    private static synchronized void trimSpillDirectory() {
+        final File[] files = spillDirectory.listFiles(file -> file.isFile() && !file.getName().endsWith(".tmp"));
+        if (files == null || spilledBytes.get() <= spillLimit) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long total = 0L;
+        for (final File file : files) {
+            total += file.length();
+        }
+        for (final File file : files) {
+            if (total <= spillLimit / 4 * 3) {
+                break;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+        spilledBytes.set(total);
+        logger.info("Trimmed picture cache directory to {} bytes", total);
+    }
+
+    private static long sizeOf(final File directory) {
+        final File[] files = directory.listFiles();
+        long result = 0L;
+        if (files != null) {
+            for (final File file : files) {
+                result += file.length();
+            }
+        }
+        return result;
+    }
+
+    private static File initSpillDirectory() {
+        final String path = FenixEduAcademicConfiguration.getConfiguration().getPictureRenditionCacheDirectory();
+        if (StringUtils.isBlank(path)) {
+            return null;
+        }
+        final File directory = new File(path);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Unable to create picture cache directory {}, renditions will only be kept in memory", path);
+            return null;
+        }
+        return directory;
+    }
+
+}
@@ -39,8 +39,7 @@ import org.fenixedu.academic.domain.degreeStructure.Context;
 import org.fenixedu.academic.domain.degreeStructure.Context.DegreeModuleScopeContext;
 import org.fenixedu.academic.domain.organizationalStructure.CompetenceCourseGroupUnit;
 import org.fenixedu.academic.domain.organizationalStructure.DepartmentUnit;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 
 public class CourseLoadAndResponsiblesReportFile extends CourseLoadAndResponsiblesReportFile_Base {
     public CourseLoadAndResponsiblesReportFile() {
@@ -63,7 +62,7 @@ public class CourseLoadAndResponsiblesReportFile extends CourseLoadAndResponsibl
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         spreadsheet.setHeader("Tipo Curso");
         spreadsheet.setHeader("Nome Curso");
         spreadsheet.setHeader("Sigla Curso");
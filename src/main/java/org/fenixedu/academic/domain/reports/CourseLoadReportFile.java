@@ -23,8 +23,7 @@ import org.fenixedu.academic.domain.CourseLoad;
 import org.fenixedu.academic.domain.ExecutionCourse;
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.Shift;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 
 public class CourseLoadReportFile extends CourseLoadReportFile_Base {
 
@@ -48,7 +47,7 @@ public class CourseLoadReportFile extends CourseLoadReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) {
+    public void renderReport(ReportSheet spreadsheet) {
 
         spreadsheet.setHeader("Semestre");
         spreadsheet.setHeader("Código disciplina execução");
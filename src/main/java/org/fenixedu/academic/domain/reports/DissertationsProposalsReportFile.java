@@ -21,7 +21,6 @@ package org.fenixedu.academic.domain.reports;
 import java.io.IOException;
 
 import org.fenixedu.academic.domain.ExecutionYear;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
 
 public class DissertationsProposalsReportFile extends DissertationsProposalsReportFile_Base {
 
@@ -40,11 +39,11 @@ public class DissertationsProposalsReportFile extends DissertationsProposalsRepo
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws IOException {
+    public void renderReport(ReportSheet spreadsheet) throws IOException {
         listProposals(spreadsheet, getExecutionYear());
     }
 
-    private void listProposals(Spreadsheet spreadsheet, final ExecutionYear executionYear) throws IOException {
+    private void listProposals(ReportSheet spreadsheet, final ExecutionYear executionYear) throws IOException {
         spreadsheet.setName("Propostas " + executionYear.getNextYearsYearString().replace("/", ""));
         spreadsheet.setHeader("Cursos");
         spreadsheet.setHeader("Siglas dos Cursos");
@@ -25,12 +25,11 @@ import org.fenixedu.academic.domain.Enrolment;
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.degree.DegreeType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.thesis.Thesis;
 import org.fenixedu.academic.domain.thesis.ThesisEvaluationParticipant;
 import org.fenixedu.academic.domain.thesis.ThesisParticipationType;
 import org.fenixedu.academic.ui.struts.action.coordinator.thesis.ThesisPresentationState;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class DissertationsWithExternalAffiliationsReportFile extends DissertationsWithExternalAffiliationsReportFile_Base {
 
@@ -49,11 +48,11 @@ public class DissertationsWithExternalAffiliationsReportFile extends Dissertatio
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws IOException {
+    public void renderReport(ReportSheet spreadsheet) throws IOException {
         list(spreadsheet, getExecutionYear());
     }
 
-    private void list(Spreadsheet spreadsheet, final ExecutionYear executionYear) throws IOException {
+    private void list(ReportSheet spreadsheet, final ExecutionYear executionYear) throws IOException {
         spreadsheet.setName("Dissertacoes " + executionYear.getYear().replace("/", ""));
         spreadsheet.setHeader("Numero aluno");
         spreadsheet.setHeader("Nome aluno");
@@ -35,8 +35,7 @@ import org.fenixedu.academic.domain.degreeStructure.BibliographicReferences;
 import org.fenixedu.academic.domain.degreeStructure.BibliographicReferences.BibliographicReference;
 import org.fenixedu.academic.domain.degreeStructure.Context;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 
 public class EctsLabelCurricularCourseReportFile extends EctsLabelCurricularCourseReportFile_Base {
 
@@ -55,7 +54,7 @@ public class EctsLabelCurricularCourseReportFile extends EctsLabelCurricularCour
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
 
         createEctsLabelCurricularCoursesHeader(spreadsheet);
 
@@ -78,7 +77,7 @@ public class EctsLabelCurricularCourseReportFile extends EctsLabelCurricularCour
         }
     }
 
-    private void createEctsLabelCurricularCoursesHeader(final Spreadsheet spreadsheet) {
+    private void createEctsLabelCurricularCoursesHeader(final ReportSheet spreadsheet) {
         spreadsheet.setHeader("Tipo Curso");
         spreadsheet.setHeader("Nome Curso");
         spreadsheet.setHeader("Sigla Curso");
@@ -104,7 +103,7 @@ public class EctsLabelCurricularCourseReportFile extends EctsLabelCurricularCour
         spreadsheet.setHeader("Estimativa total de trabalho");
     }
 
-    private void addEctsLabelContextRow(final Spreadsheet spreadsheet, final Context context, final ExecutionYear executionYear) {
+    private void addEctsLabelContextRow(final ReportSheet spreadsheet, final Context context, final ExecutionYear executionYear) {
 
         final Row row = spreadsheet.addRow();
         final ExecutionSemester executionSemester = getExecutionSemester(context, executionYear);
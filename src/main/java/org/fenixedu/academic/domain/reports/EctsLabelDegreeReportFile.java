@@ -26,9 +26,8 @@ import org.fenixedu.academic.domain.DegreeCurricularPlan;
 import org.fenixedu.academic.domain.DegreeInfo;
 import org.fenixedu.academic.domain.ExecutionDegree;
 import org.fenixedu.academic.domain.ExecutionYear;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.util.MultiLanguageString;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class EctsLabelDegreeReportFile extends EctsLabelDegreeReportFile_Base {
 
@@ -47,7 +46,7 @@ public class EctsLabelDegreeReportFile extends EctsLabelDegreeReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
 
         createEctsLabelDegreesHeader(spreadsheet);
 
@@ -62,7 +61,7 @@ public class EctsLabelDegreeReportFile extends EctsLabelDegreeReportFile_Base {
         }
     }
 
-    private void createEctsLabelDegreesHeader(final Spreadsheet spreadsheet) {
+    private void createEctsLabelDegreesHeader(final ReportSheet spreadsheet) {
         spreadsheet.setHeaders(new String[] {
 
         "Nome",
@@ -113,7 +112,7 @@ public class EctsLabelDegreeReportFile extends EctsLabelDegreeReportFile_Base {
         return builder.toString();
     }
 
-    private void addEctsLabelDegreeRow(final Spreadsheet spreadsheet, final DegreeCurricularPlan degreeCurricularPlan,
+    private void addEctsLabelDegreeRow(final ReportSheet spreadsheet, final DegreeCurricularPlan degreeCurricularPlan,
             final ExecutionYear executionYear) {
 
         final Row row = spreadsheet.addRow();
@@ -32,11 +32,10 @@ import org.fenixedu.academic.domain.ExecutionCourse;
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.StudentCurricularPlan;
 import org.fenixedu.academic.domain.curriculum.EnrollmentState;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
 import org.fenixedu.academic.domain.studentCurriculum.CurriculumModule;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class EtiReportFile extends EtiReportFile_Base {
 
@@ -55,7 +54,7 @@ public class EtiReportFile extends EtiReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         Set<EvaluationSeason> seasons = EvaluationConfiguration.getInstance().getEvaluationSeasonSet();
 
         spreadsheet.setHeader("número aluno");
@@ -112,7 +111,7 @@ public class EtiReportFile extends EtiReportFile_Base {
         }
     }
 
-    private void addEtiRow(final Spreadsheet spreadsheet, final Degree degree, final CurricularCourse curricularCourse,
+    private void addEtiRow(final ReportSheet spreadsheet, final Degree degree, final CurricularCourse curricularCourse,
             final Enrolment enrolment, final ExecutionSemester executionSemester,
             final ExecutionSemester executionSemesterForPreviousEnrolmentCount, Set<EvaluationSeason> seasons) {
         final StudentCurricularPlan studentCurricularPlan = enrolment.getStudentCurricularPlan();
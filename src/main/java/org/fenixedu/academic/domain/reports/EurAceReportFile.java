@@ -24,8 +24,7 @@ import org.fenixedu.academic.domain.DegreeCurricularPlan;
 import org.fenixedu.academic.domain.ExecutionCourse;
 import org.fenixedu.academic.domain.Professorship;
 import org.fenixedu.academic.domain.Teacher;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 
 public class EurAceReportFile extends EurAceReportFile_Base {
 
@@ -44,7 +43,7 @@ public class EurAceReportFile extends EurAceReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         setDegreeHeaders(spreadsheet);
         spreadsheet.setHeader("Nome disciplina");
         spreadsheet.setHeader("Id do docente");
@@ -25,11 +25,10 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Predicate;
 import org.fenixedu.academic.domain.Degree;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationState;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationStateType;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class FlunkedReportFile extends FlunkedReportFile_Base {
 
@@ -48,7 +47,7 @@ public class FlunkedReportFile extends FlunkedReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) {
+    public void renderReport(ReportSheet spreadsheet) {
         spreadsheet.setHeader("número aluno");
         spreadsheet.setHeader("ciclo estudos");
         setDegreeHeaders(spreadsheet);
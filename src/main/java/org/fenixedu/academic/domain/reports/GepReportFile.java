@@ -18,8 +18,12 @@
  */
 package org.fenixedu.academic.domain.reports;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -38,12 +42,11 @@ import org.fenixedu.academic.domain.QueueJobResult;
 import org.fenixedu.academic.domain.Shift;
 import org.fenixedu.academic.domain.WrittenEvaluation;
 import org.fenixedu.academic.domain.degree.DegreeType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.curriculum.ConclusionProcess;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationStateType;
 import org.fenixedu.academic.util.HtmlToTextConverterUtil;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -134,13 +137,13 @@ public abstract class GepReportFile extends GepReportFile_Base {
         return result.toString();
     }
 
-    protected void setDegreeHeaders(final Spreadsheet spreadsheet) {
+    protected void setDegreeHeaders(final ReportSheet spreadsheet) {
         spreadsheet.setHeader("tipo curso");
         spreadsheet.setHeader("nome curso");
         spreadsheet.setHeader("sigla curso");
     }
 
-    protected void setDegreeHeaders(final Spreadsheet spreadsheet, final String suffix) {
+    protected void setDegreeHeaders(final ReportSheet spreadsheet, final String suffix) {
         spreadsheet.setHeader("tipo curso " + suffix);
         spreadsheet.setHeader("nome curso " + suffix);
         spreadsheet.setHeader("sigla curso " + suffix);
@@ -194,29 +197,31 @@ public abstract class GepReportFile extends GepReportFile_Base {
         return "";
     }
 
-    public abstract void renderReport(Spreadsheet spreadsheet) throws Exception;
+    public abstract void renderReport(ReportSheet spreadsheet) throws Exception;
 
+    /*
+     * The report is written straight to a temporary file, which is only read when it is stored.
+     */
     @Override
     public QueueJobResult execute() throws Exception {
-        final Spreadsheet spreadsheet = new Spreadsheet(getReportName());
+        final File file = File.createTempFile("gep-report-", "." + getType());
+        try {
+            try (final OutputStream stream = new BufferedOutputStream(new FileOutputStream(file));
+                    final ReportSheet spreadsheet = ReportSheet.create(getType(), getReportName(), stream)) {
+                this.renderReport(spreadsheet);
+            }
 
-        this.renderReport(spreadsheet);
+            final QueueJobResult queueJobResult = new QueueJobResult();
+            queueJobResult.setContentType("application/txt");
+            queueJobResult.setContentFile(file);
 
-        ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
+            logger.info("Job " + getFilename() + " completed");
 
-        if ("csv".compareTo(getType()) == 0) {
-            spreadsheet.exportToCSV(byteArrayOS, "\t");
-        } else {
-            spreadsheet.exportToXLSSheet(byteArrayOS);
+            return queueJobResult;
+        } catch (final Throwable t) {
+            Files.deleteIfExists(file.toPath());
+            throw t;
         }
-
-        final QueueJobResult queueJobResult = new QueueJobResult();
-        queueJobResult.setContentType("application/txt");
-        queueJobResult.setContent(byteArrayOS.toByteArray());
-
-        logger.info("Job " + getFilename() + " completed");
-
-        return queueJobResult;
     }
 
     public String getUpperCaseType() {
@@ -26,10 +26,9 @@ import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.SchoolLevelType;
 import org.fenixedu.academic.domain.contacts.PhysicalAddress;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.curriculum.ConclusionProcess;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.joda.time.LocalDate;
 
 public class GraduationReportFile extends GraduationReportFile_Base {
@@ -49,7 +48,7 @@ public class GraduationReportFile extends GraduationReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) {
+    public void renderReport(ReportSheet spreadsheet) {
         spreadsheet.setHeader("número aluno");
         spreadsheet.setHeader("nome");
         setDegreeHeaders(spreadsheet);
@@ -84,7 +83,7 @@ public class GraduationReportFile extends GraduationReportFile_Base {
         }
     }
 
-    private void reportGraduate(final Spreadsheet sheet, final ConclusionProcess conclusionProcess) {
+    private void reportGraduate(final ReportSheet sheet, final ConclusionProcess conclusionProcess) {
         final Row row = sheet.addRow();
 
         final Registration registration = conclusionProcess.getRegistration();
@@ -35,6 +35,7 @@ import org.fenixedu.academic.domain.candidacyProcess.mobility.MobilityAgreement;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
 import org.fenixedu.academic.domain.mobility.outbound.OutboundMobilityCandidacySubmission;
 import org.fenixedu.academic.domain.raides.DegreeDesignation;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.StudentStatute;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationState;
@@ -45,14 +46,12 @@ import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.domain.studentCurriculum.ExtraCurriculumGroup;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.joda.time.DateTime;
 import org.joda.time.YearMonthDay;
 
 public class RaidesCommonReportFieldsWrapper {
 
-    public static void createHeaders(final Spreadsheet spreadsheet) {
+    public static void createHeaders(final ReportSheet spreadsheet) {
         spreadsheet.setHeader("ciclo");
         spreadsheet.setHeader("concluído (ano anterior)?");
         spreadsheet.setHeader("média do ciclo");
@@ -138,7 +137,7 @@ public class RaidesCommonReportFieldsWrapper {
         spreadsheet.setHeader("Tem situação de propinas no lectivo dos dados?");
     }
 
-    public static Row reportRaidesFields(final Spreadsheet sheet, final Registration registration,
+    public static Row reportRaidesFields(final ReportSheet sheet, final Registration registration,
             List<Registration> registrationPath, ExecutionYear executionYear, final CycleType cycleType, final boolean concluded,
             final YearMonthDay conclusionDate, BigDecimal average, boolean graduation) {
 
@@ -33,7 +33,6 @@ import org.fenixedu.academic.domain.student.registrationStates.RegistrationState
 import org.fenixedu.academic.domain.studentCurriculum.CurriculumModule.ConclusionValue;
 import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.dto.student.RegistrationConclusionBean;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
 import org.joda.time.YearMonthDay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +56,7 @@ public class RaidesGraduationReportFile extends RaidesGraduationReportFile_Base
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         ExecutionYear executionYear = getExecutionYear();
         createHeaders(spreadsheet);
 
@@ -133,11 +132,11 @@ public class RaidesGraduationReportFile extends RaidesGraduationReportFile_Base
         }
     }
 
-    private void createHeaders(final Spreadsheet spreadsheet) {
+    private void createHeaders(final ReportSheet spreadsheet) {
         RaidesCommonReportFieldsWrapper.createHeaders(spreadsheet);
     }
 
-    private void reportRaidesGraduate(final Spreadsheet sheet, final Registration registration,
+    private void reportRaidesGraduate(final ReportSheet sheet, final Registration registration,
             List<Registration> registrationPath, ExecutionYear executionYear, final CycleType cycleType, final boolean concluded,
             final YearMonthDay conclusionDate, BigDecimal average) {
         RaidesCommonReportFieldsWrapper.reportRaidesFields(sheet, registration, registrationPath, executionYear, cycleType,
@@ -37,6 +37,7 @@ import org.fenixedu.academic.domain.phd.PhdIndividualProgramProcess;
 import org.fenixedu.academic.domain.phd.PhdParticipant;
 import org.fenixedu.academic.domain.phd.PhdProgram;
 import org.fenixedu.academic.domain.phd.PhdProgramProcessState;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.StudentStatute;
 import org.fenixedu.academic.domain.studentCurriculum.Credits;
@@ -44,8 +45,6 @@ import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
@@ -77,7 +76,7 @@ public class RaidesPhdReportFile extends RaidesPhdReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
 
         ExecutionYear executionYear = getExecutionYear();
         int civilYear = executionYear.getBeginCivilYear();
@@ -140,7 +139,7 @@ public class RaidesPhdReportFile extends RaidesPhdReportFile_Base {
         return result.toString();
     }
 
-    private void fillSpreadsheet(Spreadsheet spreadsheet) {
+    private void fillSpreadsheet(ReportSheet spreadsheet) {
         spreadsheet.setHeader("Matriculado de acordo com o plano de estudos?");
         spreadsheet.setHeader("ciclo");
         spreadsheet.setHeader("concluído (ano anterior)?");
@@ -220,7 +219,7 @@ public class RaidesPhdReportFile extends RaidesPhdReportFile_Base {
         spreadsheet.setHeader("Data de Apresentação Pública da CAT");
     }
 
-    private void reportRaidesGraduate(Spreadsheet spreadsheet, PhdIndividualProgramProcess process, ExecutionYear executionYear) {
+    private void reportRaidesGraduate(ReportSheet spreadsheet, PhdIndividualProgramProcess process, ExecutionYear executionYear) {
         final Row row = spreadsheet.addRow();
         final Person graduate = process.getPerson();
         final PersonalInformationBean personalInformationBean = process.getPersonalInformationBean(executionYear);
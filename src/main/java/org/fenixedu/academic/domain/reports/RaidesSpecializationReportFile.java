@@ -27,13 +27,12 @@ import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.StudentCurricularPlan;
 import org.fenixedu.academic.domain.degree.DegreeType;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.dto.student.RegistrationConclusionBean;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.joda.time.YearMonthDay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,7 +64,7 @@ public class RaidesSpecializationReportFile extends RaidesSpecializationReportFi
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
 
         ExecutionYear executionYear = getExecutionYear();
         createHeaders(spreadsheet);
@@ -122,12 +121,12 @@ public class RaidesSpecializationReportFile extends RaidesSpecializationReportFi
         }
     }
 
-    private void createHeaders(Spreadsheet spreadsheet) {
+    private void createHeaders(ReportSheet spreadsheet) {
         RaidesCommonReportFieldsWrapper.createHeaders(spreadsheet);
         spreadsheet.setHeader("Total ECTS necessários para a conclusão");
     }
 
-    private void reportRaides(final Spreadsheet sheet, final Registration registration, List<Registration> registrationPath,
+    private void reportRaides(final ReportSheet sheet, final Registration registration, List<Registration> registrationPath,
             ExecutionYear executionYear, final CycleType cycleType, final boolean concluded, final YearMonthDay conclusionDate) {
 
         final Row row =
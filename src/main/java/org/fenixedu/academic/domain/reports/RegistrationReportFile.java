@@ -22,10 +22,9 @@ import java.util.Collections;
 
 import org.fenixedu.academic.domain.Degree;
 import org.fenixedu.academic.domain.candidacy.IngressionType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class RegistrationReportFile extends RegistrationReportFile_Base {
 
@@ -44,7 +43,7 @@ public class RegistrationReportFile extends RegistrationReportFile_Base {
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         spreadsheet.setHeader("número aluno");
         setDegreeHeaders(spreadsheet);
         spreadsheet.setHeader("código regime de ingresso na matrícula");
@@ -0,0 +1,225 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.reports;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFFont;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.util.WorkbookUtil;
+
+/**
+ * Sheet of a {@link GepReportFile}, written to a stream as rows are added. A row is written as soon as the next one is added
+ * or the sheet is closed, so reports over every registration only keep the row being filled in memory. Headers must all be set
+ * before the first row is added.
+ *
+ * CSV sheets are written line by line. The binary XLS format cannot be written incrementally, so XLS sheets keep the workbook
+ * (but not a second copy of the rows) in memory until they are closed.
+ */
+public abstract class ReportSheet implements Closeable {
+
+    private String name;
+
+    private final List<String> headers = new ArrayList<String>();
+
+    private Row current = null;
+
+    private boolean started = false;
+
+    protected ReportSheet(final String name) {
+        this.name = name;
+    }
+
+    public static ReportSheet create(final String type, final String name, final OutputStream stream) {
+        return "csv".equals(type) ? new CsvReportSheet(name, stream, "\t") : new XlsReportSheet(name, stream);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public void setHeader(final String header) {
+        if (started) {
+            throw new IllegalStateException("Headers must be set before adding rows to sheet " + name);
+        }
+        headers.add(header);
+    }
+
+    public void setHeaders(final String[] headers) {
+        for (final String header : headers) {
+            setHeader(header);
+        }
+    }
+
+    public Row addRow() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        current = new Row();
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        finish();
+    }
+
+    private void flush() throws IOException {
+        if (!started) {
+            started = true;
+            writeHeaders(headers);
+        }
+        if (current != null) {
+            writeRow(current.cells);
+            current = null;
+        }
+    }
+
+    protected abstract void writeHeaders(List<String> headers) throws IOException;
+
+    protected abstract void writeRow(List<Object> cells) throws IOException;
+
+    protected abstract void finish() throws IOException;
+
+    public static class Row {
+
+        private final List<Object> cells = new ArrayList<Object>();
+
+        private Row() {
+        }
+
+        public void setCell(final Object cell) {
+            cells.add(cell);
+        }
+
+    }
+
+    private static class CsvReportSheet extends ReportSheet {
+
+        private final Writer writer;
+
+        private final String separator;
+
+        private CsvReportSheet(final String name, final OutputStream stream, final String separator) {
+            super(name);
+            this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            this.separator = separator;
+        }
+
+        @Override
+        protected void writeHeaders(final List<String> headers) throws IOException {
+            writeLine(headers);
+        }
+
+        @Override
+        protected void writeRow(final List<Object> cells) throws IOException {
+            writeLine(cells);
+        }
+
+        private void writeLine(final List<?> cells) throws IOException {
+            for (int i = 0; i < cells.size(); i++) {
+                if (i > 0) {
+                    writer.write(separator);
+                }
+                final Object cell = cells.get(i);
+                writer.write(cell == null ? "" : cell.toString());
+            }
+            writer.write("\n");
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            writer.flush();
+        }
+
+    }
+
+    private static class XlsReportSheet extends ReportSheet {
+
+        private final OutputStream stream;
+
+        private final HSSFWorkbook workbook = new HSSFWorkbook();
+
+        private HSSFSheet sheet = null;
+
+        private XlsReportSheet(final String name, final OutputStream stream) {
+            super(name);
+            this.stream = stream;
+        }
+
+        @Override
+        protected void writeHeaders(final List<String> headers) {
+            sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(getName()));
+
+            final HSSFFont font = workbook.createFont();
+            font.setBoldweight(HSSFFont.BOLDWEIGHT_BOLD);
+            final CellStyle style = workbook.createCellStyle();
+            style.setFont(font);
+
+            final HSSFRow row = sheet.createRow(0);
+            for (int i = 0; i < headers.size(); i++) {
+                final HSSFCell cell = row.createCell(i);
+                cell.setCellValue(headers.get(i));
+                cell.setCellStyle(style);
+            }
+        }
+
+        @Override
+        protected void writeRow(final List<Object> cells) {
+            final HSSFRow row = sheet.createRow(sheet.getLastRowNum() + 1);
+            for (int i = 0; i < cells.size(); i++) {
+                final Object value = cells.get(i);
+                final HSSFCell cell = row.createCell(i);
+                if (value instanceof Number) {
+                    cell.setCellValue(((Number) value).doubleValue());
+                } else {
+                    cell.setCellValue(value == null ? "" : value.toString());
+                }
+            }
+        }
+
+        @Override
+        protected void finish() throws IOException {
+            workbook.write(stream);
+            stream.flush();
+        }
+
+    }
+
+}
@@ -27,11 +27,10 @@ import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.StudentCurricularPlan;
 import org.fenixedu.academic.domain.degreeStructure.CycleType;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationState;
 import org.fenixedu.academic.dto.student.StudentStatuteBean;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 
 public class StatusAndApprovalReportFile extends StatusAndApprovalReportFile_Base {
 
@@ -130,7 +129,7 @@ public class StatusAndApprovalReportFile extends StatusAndApprovalReportFile_Bas
     }
 
     @Override
-    public void renderReport(Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(ReportSheet spreadsheet) throws Exception {
         spreadsheet.setHeader("número aluno");
         spreadsheet.setHeader("ano lectivo");
         spreadsheet.setHeader("semestre");
@@ -27,8 +27,7 @@ import org.fenixedu.academic.domain.Shift;
 import org.fenixedu.academic.domain.ShiftType;
 import org.fenixedu.academic.domain.Summary;
 import org.fenixedu.academic.domain.Teacher;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.spaces.domain.Space;
 import org.joda.time.DateTime;
 
@@ -49,7 +48,7 @@ public class SummaryOccupancyReportFile extends SummaryOccupancyReportFile_Base
     }
 
     @Override
-    public void renderReport(final Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(final ReportSheet spreadsheet) throws Exception {
         spreadsheet.setHeader("Ano Lectivo");
         spreadsheet.setHeader("Semestre");
         spreadsheet.setHeader("Código Execução Disciplina");
@@ -23,9 +23,8 @@ import org.fenixedu.academic.domain.Exam;
 import org.fenixedu.academic.domain.ExecutionCourse;
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.WrittenEvaluation;
+import org.fenixedu.academic.domain.reports.ReportSheet.Row;
 import org.fenixedu.academic.domain.space.WrittenEvaluationSpaceOccupation;
-import org.fenixedu.commons.spreadsheet.Spreadsheet;
-import org.fenixedu.commons.spreadsheet.Spreadsheet.Row;
 import org.fenixedu.spaces.domain.Space;
 
 public class WrittenEvaluationReportFile extends WrittenEvaluationReportFile_Base {
@@ -45,7 +44,7 @@ public class WrittenEvaluationReportFile extends WrittenEvaluationReportFile_Bas
     }
 
     @Override
-    public void renderReport(final Spreadsheet spreadsheet) throws Exception {
+    public void renderReport(final ReportSheet spreadsheet) throws Exception {
         spreadsheet.setHeader("Ano Lectivo");
         spreadsheet.setHeader("Semestre");
         spreadsheet.setHeader("Código Execução Disciplina");
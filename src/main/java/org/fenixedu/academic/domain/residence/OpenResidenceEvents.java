@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.residence;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.fenixedu.academic.domain.accounting.ResidenceEvent;
+import org.fenixedu.academic.domain.util.DomainIndex;
+import org.fenixedu.bennu.core.domain.Bennu;
+
+/**
+ * Index of the open {@link ResidenceEvent}s by {@link ResidenceMonth}, used to list the residents that did not pay a month
+ * without going through every event of every month.
+ *
+ * Events leave the index as soon as they are payed or cancelled. Lookups made while the index is behind events opened or
+ * closed by other application servers go through every event, as described in {@link DomainIndex}.
+ */
+public class OpenResidenceEvents {
+
+    private static final DomainIndex<ResidenceMonth, ResidenceEvent> index = new DomainIndex<ResidenceMonth, ResidenceEvent>(
+            "OpenResidenceEvents", () -> Bennu.getInstance().getResidenceMonths0Set().stream()
+                    .flatMap(month -> month.getEventsSet().stream()).collect(Collectors.toList()), OpenResidenceEvents::monthOf);
+
+    private OpenResidenceEvents() {
+    }
+
+    /**
+     * Must be called whenever the state of a residence event changes.
+     */
+    public static void add(final ResidenceEvent event) {
+        index.add(event);
+    }
+
+    /**
+     * Returns the events of the given month that are still open, as seen by the current transaction.
+     */
+    public static Set<ResidenceEvent> of(final ResidenceMonth month) {
+        return index.get(month);
+    }
+
+    private static ResidenceMonth monthOf(final ResidenceEvent event) {
+        if (event.getRootDomainObject() == null || !event.isOpen()) {
+            return null;
+        }
+        return event.getResidenceMonth();
+    }
+
+}
@@ -22,6 +22,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.fenixedu.academic.domain.Person;
+import org.fenixedu.academic.domain.accounting.Event;
 import org.fenixedu.academic.domain.accounting.ResidenceEvent;
 import org.fenixedu.academic.domain.organizationalStructure.ResidenceManagementUnit;
 import org.fenixedu.academic.util.Month;
@@ -47,14 +48,35 @@ public class ResidenceMonth extends ResidenceMonth_Base {
     }
 
     public boolean isEventPresent(Person person) {
-        for (ResidenceEvent event : getEventsSet()) {
-            if (event.getPerson() == person && (event.isOpen() || event.isPayed())) {
+        for (ResidenceEvent event : getEvents(person)) {
+            if (event.isOpen() || event.isPayed()) {
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * The events of this month charged to the given person, found through the (few) events of the person instead of every
+     * event of the month.
+     */
+    public Set<ResidenceEvent> getEvents(Person person) {
+        Set<ResidenceEvent> result = new HashSet<ResidenceEvent>();
+        for (Event event : person.getEventsSet()) {
+            if (event instanceof ResidenceEvent && ((ResidenceEvent) event).getResidenceMonth() == this) {
+                result.add((ResidenceEvent) event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The events of this month that are not payed yet.
+     */
+    public Set<ResidenceEvent> getEventsInDebt() {
+        return OpenResidenceEvents.of(this);
+    }
+
     public DateTime getPaymentStartDate() {
         LocalDate date = new LocalDate(getYear().getYear(), getMonth().getNumberOfMonth(), 1);
         return date.toDateTimeAtStartOfDay();
@@ -18,19 +18,27 @@
  */
 package org.fenixedu.academic.domain.serviceRequests;
 
+import org.fenixedu.academic.domain.util.DocumentSequence;
 import org.fenixedu.bennu.core.domain.Bennu;
 
 public class InstitutionRegistryCodeGenerator extends InstitutionRegistryCodeGenerator_Base {
 
+    /* codes are only required to be unique, so they are taken in blocks to keep concurrent requests from conflicting */
+    private static final int CODE_BLOCK_SIZE = 10;
+
     public InstitutionRegistryCodeGenerator() {
         super();
         setRootDomainObject(Bennu.getInstance());
         setNumber(0);
     }
 
+    /**
+     * Returns a new code. The number slot keeps the last code issued before codes were taken from a {@link DocumentSequence},
+     * and is only read when the sequence of this generator is created.
+     */
     public String getCode(AcademicServiceRequest request) {
-        setNumber(getNumber() + 1);
-        return getNumber().toString();
+        final String sequence = RegistryCode.class.getSimpleName() + ":" + getExternalId();
+        return String.valueOf(DocumentSequence.nextInBlocks(sequence, null, CODE_BLOCK_SIZE, () -> getNumber()));
     }
 
     public RegistryCode createRegistryFor(AcademicServiceRequest request) {
@@ -124,19 +124,11 @@ public abstract class EventSpaceOccupation extends EventSpaceOccupation_Base {
         if (occupation.isLessonInstanceSpaceOccupation() || occupation.isWrittenEvaluationSpaceOccupation()
                 || intersects(occupation.getBeginDate(), occupation.getEndDate())) {
 
-            List<Interval> thisOccupationIntervals =
-                    getEventSpaceOccupationIntervals(occupation.getBeginDate(), occupation.getEndDate());
-            List<Interval> passedOccupationIntervals =
-                    occupation.getEventSpaceOccupationIntervals((YearMonthDay) null, (YearMonthDay) null);
-
-            for (Interval interval : thisOccupationIntervals) {
-                for (Interval passedInterval : passedOccupationIntervals) {
-                    if (interval.getStart().isBefore(passedInterval.getEnd())
-                            && interval.getEnd().isAfter(passedInterval.getStart())) {
-                        return true;
-                    }
-                }
-            }
+            final OccupationIntervals passedOccupationIntervals =
+                    new OccupationIntervals(occupation.getEventSpaceOccupationIntervals((YearMonthDay) null, (YearMonthDay) null));
+
+            return passedOccupationIntervals.overlapsAny(getEventSpaceOccupationIntervals(occupation.getBeginDate(),
+                    occupation.getEndDate()));
         }
         return false;
     }
@@ -157,24 +149,24 @@ public abstract class EventSpaceOccupation extends EventSpaceOccupation_Base {
         endTime.setSecondOfMinute(0);
 
         if (intersects(startDate, endDate)) {
-
-            List<Interval> thisOccupationIntervals = getEventSpaceOccupationIntervals(startDate, endDate);
-            List<Interval> passedOccupationIntervals =
-                    generateEventSpaceOccupationIntervals(startDate, endDate, startTime, endTime, frequency, dayOfWeek,
-                            dailyFrequencyMarkSaturday, dailyFrequencyMarkSunday, null, null);
-
-            for (Interval interval : thisOccupationIntervals) {
-                for (Interval passedInterval : passedOccupationIntervals) {
-                    if (interval.getStart().isBefore(passedInterval.getEnd())
-                            && interval.getEnd().isAfter(passedInterval.getStart())) {
-                        return true;
-                    }
-                }
-            }
+            return alreadyWasOccupiedIn(startDate, endDate, new OccupationIntervals(generateEventSpaceOccupationIntervals(
+                    startDate, endDate, startTime, endTime, frequency, dayOfWeek, dailyFrequencyMarkSaturday,
+                    dailyFrequencyMarkSunday, null, null)));
         }
         return false;
     }
 
+    /**
+     * Same as
+     * {@link #alreadyWasOccupiedIn(YearMonthDay, YearMonthDay, HourMinuteSecond, HourMinuteSecond, DiaSemana, FrequencyType, Boolean, Boolean)}
+     * , for intervals generated beforehand, so that they can be checked against many occupations.
+     */
+    public boolean alreadyWasOccupiedIn(final YearMonthDay startDate, final YearMonthDay endDate,
+            final OccupationIntervals intervals) {
+        return !intervals.isEmpty() && intersects(startDate, endDate)
+                && intervals.overlapsAny(getEventSpaceOccupationIntervals(startDate, endDate));
+    }
+
     @Override
     public Boolean overlaps(List<Interval> intervals) {
         return overlaps(intervals.toArray(new Interval[0]));
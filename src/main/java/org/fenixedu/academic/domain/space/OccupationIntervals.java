@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.space;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import org.joda.time.Interval;
+
+/**
+ * Immutable set of intervals, sorted by start, that answers whether a given interval overlaps any of them with a binary
+ * search. Intervals overlap when each one starts strictly before the other ends, as in
+ * {@link EventSpaceOccupation#alreadyWasOccupiedBy(EventSpaceOccupation)}.
+ *
+ * Meant to be built once for the occupation being requested and then checked against every occupation of one or more
+ * spaces.
+ */
+public class OccupationIntervals {
+
+    private final long[] starts;
+
+    /* maxEnds[i] is the greatest end of the intervals from 0 to i */
+    private final long[] maxEnds;
+
+    public OccupationIntervals(final Collection<Interval> intervals) {
+        final Interval[] sorted = intervals.toArray(new Interval[intervals.size()]);
+        Arrays.sort(sorted, Comparator.comparingLong(Interval::getStartMillis));
+
+        this.starts = new long[sorted.length];
+        this.maxEnds = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            starts[i] = sorted[i].getStartMillis();
+            maxEnds[i] = i == 0 ? sorted[i].getEndMillis() : Math.max(maxEnds[i - 1], sorted[i].getEndMillis());
+        }
+    }
+
+    public boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    public boolean overlaps(final Interval interval) {
+        final int count = countStartingBefore(interval.getEndMillis());
+        return count > 0 && maxEnds[count - 1] > interval.getStartMillis();
+    }
+
+    public boolean overlapsAny(final Collection<Interval> intervals) {
+        if (isEmpty()) {
+            return false;
+        }
+        for (final Interval interval : intervals) {
+            if (overlaps(interval)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* number of intervals whose start is strictly before the given instant */
+    private int countStartingBefore(final long instant) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (starts[middle] < instant) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -98,8 +98,15 @@ public class SpaceUtils {
 
     public static List<InfoRoom> allocatableSpace(YearMonthDay startDate, YearMonthDay endDate, HourMinuteSecond startTimeHMS,
             HourMinuteSecond endTimeHMS, DiaSemana dayOfWeek, Integer normalCapacity, FrequencyType frequency, boolean withLabs) {
+        startTimeHMS.setSecondOfMinute(0);
+        endTimeHMS.setSecondOfMinute(0);
+        final List<Interval> intervals =
+                EventSpaceOccupation.generateEventSpaceOccupationIntervals(startDate, endDate, startTimeHMS, endTimeHMS,
+                        frequency, dayOfWeek, true, true, null, null);
+        final OccupationIntervals occupationIntervals = new OccupationIntervals(intervals);
+
         return allocatableSpace(normalCapacity, withLabs)
-                .filter(space -> isFree(space, startDate, endDate, startTimeHMS, endTimeHMS, dayOfWeek, frequency, true, true))
+                .filter(space -> isFree(space, startDate, endDate, intervals, occupationIntervals, Collections.emptySet()))
                 .map(space -> InfoRoom.newInfoFromDomain(space)).collect(Collectors.toList());
     }
 
@@ -180,30 +187,36 @@ public class SpaceUtils {
     public static boolean isFree(Space space, YearMonthDay startDate, YearMonthDay endDate, HourMinuteSecond startTime,
             HourMinuteSecond endTime, DiaSemana dayOfWeek, FrequencyType frequency, Boolean dailyFrequencyMarkSaturday,
             Boolean dailyFrequencyMarkSunday, Set<Class<? extends EventSpaceOccupation>> eventSpaceOccupationClassesToSkip) {
-        List<Interval> intervals = null;
 
         if (eventSpaceOccupationClassesToSkip == null) {
             eventSpaceOccupationClassesToSkip = Collections.emptySet();
         }
 
+        startTime.setSecondOfMinute(0);
+        endTime.setSecondOfMinute(0);
+        final List<Interval> intervals =
+                EventSpaceOccupation.generateEventSpaceOccupationIntervals(startDate, endDate, startTime, endTime, frequency,
+                        dayOfWeek, dailyFrequencyMarkSaturday, dailyFrequencyMarkSunday, null, null);
+
+        return isFree(space, startDate, endDate, intervals, new OccupationIntervals(intervals),
+                eventSpaceOccupationClassesToSkip);
+    }
+
+    private static boolean isFree(Space space, YearMonthDay startDate, YearMonthDay endDate, List<Interval> intervals,
+            OccupationIntervals occupationIntervals, Set<Class<? extends EventSpaceOccupation>> eventSpaceOccupationClassesToSkip) {
+
         for (Occupation spaceOccupation : getResourceAllocationsForCheck(space)) {
             if (spaceOccupation instanceof EventSpaceOccupation) {
                 if (eventSpaceOccupationClassesToSkip.contains(spaceOccupation.getClass())) {
                     continue;
                 }
                 EventSpaceOccupation occupation = (EventSpaceOccupation) spaceOccupation;
-                if (occupation.alreadyWasOccupiedIn(startDate, endDate, startTime, endTime, dayOfWeek, frequency,
-                        dailyFrequencyMarkSaturday, dailyFrequencyMarkSunday)) {
+                if (occupation.alreadyWasOccupiedIn(startDate, endDate, occupationIntervals)) {
                     return false;
                 }
             }
 
             if (spaceOccupation.getClass().equals(Occupation.class)) {
-                if (intervals == null) {
-                    intervals =
-                            EventSpaceOccupation.generateEventSpaceOccupationIntervals(startDate, endDate, startTime, endTime,
-                                    frequency, dayOfWeek, dailyFrequencyMarkSaturday, dailyFrequencyMarkSunday, null, null);
-                }
                 if (spaceOccupation.overlaps(intervals)) {
                     return false;
                 }
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Formatter;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -72,6 +73,9 @@ import org.fenixedu.academic.domain.WrittenEvaluationEnrolment;
 import org.fenixedu.academic.domain.WrittenTest;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicAccessRule;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicOperationType;
+import org.fenixedu.academic.domain.accounting.Event;
+import org.fenixedu.academic.domain.accounting.EventType;
+import org.fenixedu.academic.domain.accounting.PersonDebtLedger;
 import org.fenixedu.academic.domain.accounting.events.AdministrativeOfficeFeeAndInsuranceEvent;
 import org.fenixedu.academic.domain.accounting.events.EnrolmentOutOfPeriodEvent;
 import org.fenixedu.academic.domain.accounting.events.gratuity.GratuityEvent;
@@ -100,6 +104,7 @@ import org.fenixedu.academic.domain.serviceRequests.documentRequests.PastDiploma
 import org.fenixedu.academic.domain.serviceRequests.documentRequests.RegistryDiplomaRequest;
 import org.fenixedu.academic.domain.student.curriculum.ConclusionProcess;
 import org.fenixedu.academic.domain.student.curriculum.Curriculum;
+import org.fenixedu.academic.domain.student.curriculum.CurriculumSnapshot;
 import org.fenixedu.academic.domain.student.curriculum.ICurriculum;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationState;
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationStateType;
@@ -424,17 +429,17 @@ public class Registration extends Registration_Base {
     }
 
     final public List<WrittenEvaluation> getWrittenEvaluations(final ExecutionSemester executionSemester) {
-        final List<WrittenEvaluation> result = new ArrayList<WrittenEvaluation>();
+        final Set<WrittenEvaluation> result = new LinkedHashSet<WrittenEvaluation>();
         for (final Attends attend : this.getAssociatedAttendsSet()) {
             if (attend.isFor(executionSemester)) {
                 for (final Evaluation evaluation : attend.getExecutionCourse().getAssociatedEvaluationsSet()) {
-                    if (evaluation instanceof WrittenEvaluation && !result.contains(evaluation)) {
+                    if (evaluation instanceof WrittenEvaluation) {
                         result.add((WrittenEvaluation) evaluation);
                     }
                 }
             }
         }
-        return result;
+        return new ArrayList<WrittenEvaluation>(result);
     }
 
     final public List<Exam> getEnroledExams(final ExecutionSemester executionSemester) {
@@ -580,6 +585,18 @@ public class Registration extends Registration_Base {
         }
     }
 
+    /*
+     * Snapshot of the current curriculum, available when the curriculum of the
+     * registration is the one of its last plan
+     */
+    private CurriculumSnapshot getCurriculumSnapshot(final ExecutionYear executionYear) {
+        if (getStudentCurricularPlansSet().isEmpty() || !getDegreeType().isBolonhaType()) {
+            return null;
+        }
+        final StudentCurricularPlan studentCurricularPlan = getLastStudentCurricularPlan();
+        return studentCurricularPlan != null ? studentCurricularPlan.getCurriculumSnapshot(executionYear) : null;
+    }
+
     public int getNumberOfCurriculumEntries() {
         return getCurriculum().getCurriculumEntries().size();
     }
@@ -590,11 +607,13 @@ public class Registration extends Registration_Base {
     }
 
     final public Grade calculateRawGrade() {
-        return getCurriculum().getRawGrade();
+        final CurriculumSnapshot snapshot = getCurriculumSnapshot((ExecutionYear) null);
+        return snapshot != null ? snapshot.getRawGrade() : getCurriculum().getRawGrade();
     }
 
     final public BigDecimal getEctsCredits(final ExecutionYear executionYear, final CycleType cycleType) {
-        return getCurriculum(executionYear, cycleType).getSumEctsCredits();
+        final CurriculumSnapshot snapshot = cycleType == null ? getCurriculumSnapshot(executionYear) : null;
+        return snapshot != null ? snapshot.getSumEctsCredits() : getCurriculum(executionYear, cycleType).getSumEctsCredits();
     }
 
     final public Grade getFinalGrade() {
@@ -1108,8 +1127,8 @@ public class Registration extends Registration_Base {
     @Deprecated
     final public static Registration readStudentByNumberAndDegreeType(Integer number, DegreeType degreeType) {
         Registration nonActiveRegistration = null;
-        for (Registration registration : Bennu.getInstance().getRegistrationsSet()) {
-            if (registration.getNumber().intValue() == number.intValue() && registration.getDegreeType().equals(degreeType)) {
+        for (Registration registration : readByNumber(number)) {
+            if (registration.getDegreeType().equals(degreeType)) {
                 if (registration.isActive()) {
                     return registration;
                 }
@@ -1121,9 +1140,8 @@ public class Registration extends Registration_Base {
 
     final public static Registration readByNumberAndDegreeCurricularPlan(Integer number, DegreeCurricularPlan degreeCurricularPlan) {
         Registration nonActiveRegistration = null;
-        for (Registration registration : Bennu.getInstance().getRegistrationsSet()) {
-            if (registration.getNumber().intValue() == number.intValue()
-                    && registration.getDegreeCurricularPlans().contains(degreeCurricularPlan)) {
+        for (Registration registration : readByNumber(number)) {
+            if (registration.getDegreeCurricularPlans().contains(degreeCurricularPlan)) {
                 if (registration.isActive()) {
                     return registration;
                 }
@@ -1134,9 +1152,8 @@ public class Registration extends Registration_Base {
     }
 
     final public static Registration readRegisteredRegistrationByNumberAndDegreeType(Integer number, DegreeType degreeType) {
-        for (Registration registration : Bennu.getInstance().getRegistrationsSet()) {
-            if (registration.getNumber().intValue() == number.intValue() && registration.getDegreeType().equals(degreeType)
-                    && registration.isInRegisteredState()) {
+        for (Registration registration : readByNumber(number)) {
+            if (registration.getDegreeType().equals(degreeType) && registration.isInRegisteredState()) {
                 return registration;
             }
         }
@@ -1147,12 +1164,9 @@ public class Registration extends Registration_Base {
             DegreeType... degreeTypes) {
         List<Registration> result = new ArrayList<Registration>();
         final List<DegreeType> degreeTypesList = Arrays.asList(degreeTypes);
-        for (RegistrationNumber registrationNumber : Bennu.getInstance().getRegistrationNumbersSet()) {
-            if (registrationNumber.getNumber().intValue() == number.intValue()) {
-                final Registration registration = registrationNumber.getRegistration();
-                if (degreeTypesList.contains(registration.getDegreeType())) {
-                    result.add(registration);
-                }
+        for (final Registration registration : readByNumber(number)) {
+            if (degreeTypesList.contains(registration.getDegreeType())) {
+                result.add(registration);
             }
         }
         return result;
@@ -1160,19 +1174,16 @@ public class Registration extends Registration_Base {
 
     final public static List<Registration> readByNumber(Integer number) {
         final List<Registration> registrations = new ArrayList<Registration>();
-        for (RegistrationNumber registrationNumber : Bennu.getInstance().getRegistrationNumbersSet()) {
-            if (registrationNumber.getNumber().intValue() == number.intValue()) {
-                registrations.add(registrationNumber.getRegistration());
-            }
+        for (RegistrationNumber registrationNumber : RegistrationNumber.readByNumber(number)) {
+            registrations.add(registrationNumber.getRegistration());
         }
         return registrations;
     }
 
     final public static List<Registration> readByNumberAndDegreeType(Integer number, DegreeType degreeType) {
         final List<Registration> registrations = new ArrayList<Registration>();
-        for (RegistrationNumber registrationNumber : Bennu.getInstance().getRegistrationNumbersSet()) {
-            if (registrationNumber.getNumber().intValue() == number.intValue()
-                    && registrationNumber.getRegistration().getDegreeType() == degreeType) {
+        for (RegistrationNumber registrationNumber : RegistrationNumber.readByNumber(number)) {
+            if (registrationNumber.getRegistration().getDegreeType() == degreeType) {
                 registrations.add(registrationNumber.getRegistration());
             }
         }
@@ -1182,9 +1193,8 @@ public class Registration extends Registration_Base {
     final public static List<Registration> readByNumberAndDegreeTypeAndAgreement(Integer number, DegreeType degreeType,
             boolean normalAgreement) {
         final List<Registration> registrations = new ArrayList<Registration>();
-        for (RegistrationNumber registrationNumber : Bennu.getInstance().getRegistrationNumbersSet()) {
-            if (registrationNumber.getNumber().intValue() == number.intValue()
-                    && registrationNumber.getRegistration().getDegreeType() == degreeType
+        for (RegistrationNumber registrationNumber : RegistrationNumber.readByNumber(number)) {
+            if (registrationNumber.getRegistration().getDegreeType() == degreeType
                     && (registrationNumber.getRegistration().getRegistrationProtocol() == RegistrationProtocol.getDefault()) == normalAgreement) {
                 registrations.add(registrationNumber.getRegistration());
             }
@@ -1193,15 +1203,9 @@ public class Registration extends Registration_Base {
     }
 
     final public static List<Registration> readAllStudentsBetweenNumbers(Integer fromNumber, Integer toNumber) {
-        int fromNumberInt = fromNumber.intValue();
-        int toNumberInt = toNumber.intValue();
-
         final List<Registration> students = new ArrayList<Registration>();
-        for (final Registration registration : Bennu.getInstance().getRegistrationsSet()) {
-            int studentNumberInt = registration.getNumber().intValue();
-            if (studentNumberInt >= fromNumberInt && studentNumberInt <= toNumberInt) {
-                students.add(registration);
-            }
+        for (final RegistrationNumber registrationNumber : RegistrationNumber.readBetweenNumbers(fromNumber, toNumber)) {
+            students.add(registrationNumber.getRegistration());
         }
         return students;
     }
@@ -2085,7 +2089,8 @@ public class Registration extends Registration_Base {
     }
 
     final public int getCurricularYear(ExecutionYear executionYear) {
-        return getCurriculum(executionYear).getCurricularYear();
+        final CurriculumSnapshot snapshot = getCurriculumSnapshot(executionYear);
+        return snapshot != null ? snapshot.getCurricularYear() : getCurriculum(executionYear).getCurricularYear();
     }
 
     final public int getCurricularYear(final DateTime when, final ExecutionYear executionYear) {
@@ -2512,8 +2517,8 @@ public class Registration extends Registration_Base {
     }
 
     private boolean hasAnyNotPayedInsuranceEvents() {
-        for (final InsuranceEvent event : getPerson().getNotCancelledInsuranceEvents()) {
-            if (event.isInDebt()) {
+        for (final Event event : PersonDebtLedger.of(getPerson()).getEventsInDebt()) {
+            if (event.getEventType() == EventType.INSURANCE) {
                 return true;
             }
         }
@@ -2522,9 +2527,9 @@ public class Registration extends Registration_Base {
     }
 
     private boolean hasAnyNotPayedAdministrativeOfficeFeeAndInsuranceEvents(final AdministrativeOffice office) {
-        for (final AdministrativeOfficeFeeAndInsuranceEvent event : getPerson()
-                .getNotCancelledAdministrativeOfficeFeeAndInsuranceEvents(office)) {
-            if (event.isInDebt()) {
+        for (final Event event : PersonDebtLedger.of(getPerson()).getEventsInDebt()) {
+            if (event.getEventType() == EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE
+                    && ((AdministrativeOfficeFeeAndInsuranceEvent) event).getAdministrativeOffice() == office) {
                 return true;
             }
         }
@@ -2542,8 +2547,9 @@ public class Registration extends Registration_Base {
     }
 
     private boolean hasAnyNotPayedInsuranceEventUntil(final ExecutionYear executionYear) {
-        for (final InsuranceEvent event : getPerson().getNotCancelledInsuranceEventsUntil(executionYear)) {
-            if (event.isInDebt()) {
+        for (final Event event : PersonDebtLedger.of(getPerson()).getEventsInDebt()) {
+            if (event.getEventType() == EventType.INSURANCE
+                    && ((InsuranceEvent) event).getExecutionYear().isBeforeOrEquals(executionYear)) {
                 return true;
             }
         }
@@ -2553,10 +2559,13 @@ public class Registration extends Registration_Base {
 
     private boolean hasAnyNotPayedAdministrativeOfficeFeeAndInsuranceEventUntil(final AdministrativeOffice office,
             final ExecutionYear executionYear) {
-        for (final AdministrativeOfficeFeeAndInsuranceEvent event : getPerson()
-                .getNotCancelledAdministrativeOfficeFeeAndInsuranceEventsUntil(office, executionYear)) {
-            if (event.isInDebt()) {
-                return true;
+        for (final Event event : PersonDebtLedger.of(getPerson()).getEventsInDebt()) {
+            if (event.getEventType() == EventType.ADMINISTRATIVE_OFFICE_FEE_INSURANCE) {
+                final AdministrativeOfficeFeeAndInsuranceEvent specificEvent = (AdministrativeOfficeFeeAndInsuranceEvent) event;
+                if (specificEvent.getAdministrativeOffice() == office
+                        && specificEvent.getExecutionYear().isBeforeOrEquals(executionYear)) {
+                    return true;
+                }
             }
         }
 
@@ -18,10 +18,19 @@
  */
 package org.fenixedu.academic.domain.student;
 
+import java.util.List;
+import java.util.Set;
+
+import org.fenixedu.academic.domain.util.SortedDomainIndex;
 import org.fenixedu.bennu.core.domain.Bennu;
 
 public class RegistrationNumber extends RegistrationNumber_Base {
 
+    private static final SortedDomainIndex<Integer, RegistrationNumber> NUMBER_INDEX =
+            new SortedDomainIndex<Integer, RegistrationNumber>("RegistrationNumber.number",
+                    () -> Bennu.getInstance().getRegistrationNumbersSet(),
+                    registrationNumber -> registrationNumber.getRootDomainObject() != null ? registrationNumber.getNumber() : null);
+
     public RegistrationNumber(final Registration registration) {
         super();
         setRootDomainObject(Bennu.getInstance());
@@ -29,10 +38,24 @@ public class RegistrationNumber extends RegistrationNumber_Base {
         setNumber(registration.getNumber());
     }
 
+    @Override
+    public void setNumber(final Integer number) {
+        super.setNumber(number);
+        NUMBER_INDEX.add(this);
+    }
+
     public void delete() {
         setRegistration(null);
         setRootDomainObject(null);
         deleteDomainObject();
     }
 
+    static public Set<RegistrationNumber> readByNumber(final Integer number) {
+        return NUMBER_INDEX.get(number);
+    }
+
+    static public List<RegistrationNumber> readBetweenNumbers(final Integer fromNumber, final Integer toNumber) {
+        return NUMBER_INDEX.getRange(fromNumber, toNumber);
+    }
+
 }
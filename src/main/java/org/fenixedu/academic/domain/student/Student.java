@@ -44,6 +44,7 @@ import org.fenixedu.academic.domain.ExecutionYear;
 import org.fenixedu.academic.domain.Person;
 import org.fenixedu.academic.domain.StudentCurricularPlan;
 import org.fenixedu.academic.domain.accounting.Event;
+import org.fenixedu.academic.domain.accounting.PersonDebtLedger;
 import org.fenixedu.academic.domain.accounting.events.AccountingEventsManager;
 import org.fenixedu.academic.domain.accounting.events.AdministrativeOfficeFeeAndInsuranceEvent;
 import org.fenixedu.academic.domain.administrativeOffice.AdministrativeOffice;
@@ -61,6 +62,7 @@ import org.fenixedu.academic.domain.student.registrationStates.RegistrationState
 import org.fenixedu.academic.domain.student.registrationStates.RegistrationStateType;
 import org.fenixedu.academic.domain.studentCurriculum.CycleCurriculumGroup;
 import org.fenixedu.academic.domain.studentCurriculum.ExternalEnrolment;
+import org.fenixedu.academic.domain.util.DocumentSequence;
 import org.fenixedu.academic.dto.student.StudentStatuteBean;
 import org.fenixedu.academic.predicate.StudentPredicates;
 import org.fenixedu.academic.util.InvocationResult;
@@ -74,6 +76,8 @@ import pt.ist.fenixframework.Atomic;
 
 public class Student extends Student_Base {
 
+    private static final String STUDENT_NUMBER_SEQUENCE = "StudentNumber";
+
     public final static Comparator<Student> NAME_COMPARATOR = new Comparator<Student>() {
 
         @Override
@@ -111,7 +115,7 @@ public class Student extends Student_Base {
             throw new DomainException("error.custom.student.creation.student.number.already.set");
         }
 
-        if (number >= Student.generateStudentNumber()) {
+        if (number >= peekStudentNumber()) {
             throw new DomainException("error.custom.student.creation.student.number.higher.than.generated");
         }
 
@@ -126,8 +130,8 @@ public class Student extends Student_Base {
     }
 
     public static Student readStudentByNumber(final Integer number) {
-        return Bennu.getInstance().getStudentNumbersSet().stream().filter(sn -> sn.getNumber().equals(number))
-                .map(StudentNumber::getStudent).findAny().orElse(null);
+        final StudentNumber studentNumber = StudentNumber.readByNumber(number);
+        return studentNumber != null ? studentNumber.getStudent() : null;
     }
 
     public String getName() {
@@ -281,14 +285,31 @@ public class Student extends Student_Base {
         return false;
     }
 
+    /**
+     * Takes the next student number in the running transaction, so that concurrent transactions creating students conflict
+     * instead of handing out the same number. Numbers already taken by students created with a custom number are skipped.
+     */
     public static Integer generateStudentNumber() {
-        int nextNumber = 0;
+        int result = DocumentSequence.next(STUDENT_NUMBER_SEQUENCE, null, Student::readMaxStudentNumber);
+        while (StudentNumber.readByNumber(result) != null) {
+            result = DocumentSequence.next(STUDENT_NUMBER_SEQUENCE, null, Student::readMaxStudentNumber);
+        }
+        return Integer.valueOf(result);
+    }
+
+    /*
+     * The number that would be generated next, without taking it.
+     */
+    private static int peekStudentNumber() {
+        return DocumentSequence.peek(STUDENT_NUMBER_SEQUENCE, null, Student::readMaxStudentNumber);
+    }
+
+    private static int readMaxStudentNumber() {
+        int result = 0;
         for (final StudentNumber studentNumber : Bennu.getInstance().getStudentNumbersSet()) {
-            if (studentNumber.getNumber().intValue() > nextNumber) {
-                nextNumber = studentNumber.getNumber().intValue();
-            }
+            result = Math.max(result, studentNumber.getNumber().intValue());
         }
-        return Integer.valueOf(nextNumber + 1);
+        return result;
     }
 
     public ResidenceCandidacies getResidenceCandidacyForCurrentExecutionYear() {
@@ -818,10 +839,9 @@ public class Student extends Student_Base {
      * @param executionYear
      */
     private boolean isAnyAdministrativeOfficeFeeAndInsuranceInDebtUntil(final ExecutionYear executionYear) {
-        for (final Event event : getPerson().getEventsSet()) {
+        for (final Event event : PersonDebtLedger.of(getPerson()).getOpenEvents()) {
             if (event instanceof AdministrativeOfficeFeeAndInsuranceEvent
-                    && ((AdministrativeOfficeFeeAndInsuranceEvent) event).getExecutionYear().isBefore(executionYear)
-                    && event.isOpen()) {
+                    && ((AdministrativeOfficeFeeAndInsuranceEvent) event).getExecutionYear().isBefore(executionYear)) {
                 return true;
             }
         }
@@ -19,10 +19,15 @@
 package org.fenixedu.academic.domain.student;
 
 import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.academic.domain.util.DomainIndex;
 import org.fenixedu.bennu.core.domain.Bennu;
 
 public class StudentNumber extends StudentNumber_Base {
 
+    private static final DomainIndex<Integer, StudentNumber> NUMBER_INDEX =
+            new DomainIndex<Integer, StudentNumber>("StudentNumber.number", () -> Bennu.getInstance().getStudentNumbersSet(),
+                    studentNumber -> studentNumber.getRootDomainObject() != null ? studentNumber.getNumber() : null);
+
     public StudentNumber(final Student student) {
         super();
         String[] args = {};
@@ -34,10 +39,20 @@ public class StudentNumber extends StudentNumber_Base {
         setNumber(student.getNumber());
     }
 
+    @Override
+    public void setNumber(final Integer number) {
+        super.setNumber(number);
+        NUMBER_INDEX.add(this);
+    }
+
     public void delete() {
         setRootDomainObject(null);
         setStudent(null);
         super.deleteDomainObject();
     }
 
+    static public StudentNumber readByNumber(final Integer number) {
+        return NUMBER_INDEX.getAny(number);
+    }
+
 }
@@ -0,0 +1,86 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.student.curriculum;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.fenixedu.academic.domain.ExecutionYear;
+import org.fenixedu.academic.domain.Grade;
+import org.fenixedu.academic.domain.StudentCurricularPlan;
+import org.fenixedu.academic.domain.util.TransactionalCache;
+import org.joda.time.DateTime;
+
+/**
+ * Results of the current {@link Curriculum} of a {@link StudentCurricularPlan} for a given {@link ExecutionYear}, computed
+ * once and shared by every request until the curriculum of the plan changes.
+ *
+ * Snapshots are discarded when a transaction that changed the curriculum lines, enrolment states or grades of the plan
+ * commits (see {@link #invalidate(StudentCurricularPlan)} and {@link TransactionalCache}). While such a transaction runs it
+ * never reads snapshots of the plans it changed, so it always sees its own changes. A snapshot being computed while such a
+ * transaction commits is not kept. Changes made by other application servers, and approvals dated in the future, are seen
+ * once the snapshots expire, five minutes after being computed.
+ */
+public class CurriculumSnapshot {
+
+    private static final TransactionalCache<StudentCurricularPlan, CurriculumSnapshot> snapshots = TransactionalCache
+            .ofSize("curriculum snapshots", 50000, 5, TimeUnit.MINUTES);
+
+    private final Integer curricularYear;
+
+    private final BigDecimal sumEctsCredits;
+
+    private final Grade rawGrade;
+
+    private CurriculumSnapshot(final StudentCurricularPlan studentCurricularPlan, final ExecutionYear executionYear) {
+        final Curriculum curriculum = studentCurricularPlan.getCurriculum(new DateTime(), executionYear);
+        this.curricularYear = curriculum.getCurricularYear();
+        this.sumEctsCredits = curriculum.getSumEctsCredits();
+        this.rawGrade = curriculum.getRawGrade();
+    }
+
+    public Integer getCurricularYear() {
+        return curricularYear;
+    }
+
+    public BigDecimal getSumEctsCredits() {
+        return sumEctsCredits;
+    }
+
+    public Grade getRawGrade() {
+        return rawGrade;
+    }
+
+    /**
+     * Returns the snapshot of the current curriculum of the plan, computing it if needed.
+     */
+    public static CurriculumSnapshot of(final StudentCurricularPlan studentCurricularPlan, final ExecutionYear executionYear) {
+        final String key = executionYear != null ? executionYear.getExternalId() : "";
+        return snapshots.get(studentCurricularPlan, key, () -> new CurriculumSnapshot(studentCurricularPlan, executionYear));
+    }
+
+    /**
+     * Must be called whenever the curriculum of the plan changes. The snapshots of the plan are discarded once the running
+     * transaction commits, and are not used by it in the meantime.
+     */
+    public static void invalidate(final StudentCurricularPlan studentCurricularPlan) {
+        snapshots.invalidate(studentCurricularPlan);
+    }
+
+}
@@ -44,6 +44,7 @@ import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
 import org.fenixedu.academic.domain.student.curriculum.Curriculum;
+import org.fenixedu.academic.domain.student.curriculum.CurriculumSnapshot;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.academic.util.MultiLanguageString;
 import org.fenixedu.academic.util.predicates.ResultCollection;
@@ -93,6 +94,27 @@ abstract public class CurriculumModule extends CurriculumModule_Base {
         super.deleteDomainObject();
     }
 
+    @Override
+    public void setCurriculumGroup(CurriculumGroup curriculumGroup) {
+        invalidateCurriculumSnapshot();
+        super.setCurriculumGroup(curriculumGroup);
+        invalidateCurriculumSnapshot();
+    }
+
+    /*
+     * Discards the curriculum snapshots of the plan this module belongs to,
+     * if it is already attached to one
+     */
+    protected void invalidateCurriculumSnapshot() {
+        CurriculumModule module = this;
+        while (module.getCurriculumGroup() != null) {
+            module = module.getCurriculumGroup();
+        }
+        if (module.isRoot()) {
+            CurriculumSnapshot.invalidate(((RootCurriculumGroup) module).getParentStudentCurricularPlan());
+        }
+    }
+
     public RootCurriculumGroup getRootCurriculumGroup() {
         return getCurriculumGroup() != null ? getCurriculumGroup().getRootCurriculumGroup() : (RootCurriculumGroup) this;
     }
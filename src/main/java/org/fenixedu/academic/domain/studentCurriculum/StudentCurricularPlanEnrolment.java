@@ -253,14 +253,16 @@ abstract public class StudentCurricularPlanEnrolment {
 
     private RuleResult evaluateDegreeModules(final Map<EnrolmentResultType, List<IDegreeModuleToEvaluate>> degreeModulesEnrolMap) {
 
-        RuleResult finalResult = RuleResult.createInitialTrue();
         final Map<IDegreeModuleToEvaluate, Set<ICurricularRule>> rulesToEvaluate = getRulesToEvaluate();
-        for (final Entry<IDegreeModuleToEvaluate, Set<ICurricularRule>> entry : rulesToEvaluate.entrySet()) {
-            RuleResult result = evaluateRules(entry.getKey(), entry.getValue());
-            finalResult = finalResult.and(result);
-        }
+        final RuleResult finalResult = enrolmentContext.evaluate(() -> {
+            RuleResult rulesResult = RuleResult.createInitialTrue();
+            for (final Entry<IDegreeModuleToEvaluate, Set<ICurricularRule>> entry : rulesToEvaluate.entrySet()) {
+                RuleResult result = evaluateRules(entry.getKey(), entry.getValue());
+                rulesResult = rulesResult.and(result);
+            }
 
-        finalResult = evaluateExtraRules(finalResult);
+            return evaluateExtraRules(rulesResult);
+        });
 
         if (!finalResult.isFalse()) {
             for (final IDegreeModuleToEvaluate degreeModuleToEvaluate : rulesToEvaluate.keySet()) {
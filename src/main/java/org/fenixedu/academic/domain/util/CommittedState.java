@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.function.Supplier;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+
+/**
+ * Runs code in a transaction of its own, independent of the transaction (if any) of the calling thread.
+ *
+ * The code runs in a separate thread, since a transaction started by the calling thread would join the one already running.
+ * Reads therefore only see committed state, and writes are committed (and seen by every server) before the call returns.
+ * Whatever the code throws is rethrown to the caller, and so is the interruption of the calling thread while it waits.
+ */
+public class CommittedState {
+
+    private CommittedState() {
+    }
+
+    /**
+     * Returns the value computed by the given reader in a read-only transaction of its own.
+     */
+    public static <R> R read(final Supplier<R> reader) {
+        final Outcome<R> outcome = new Outcome<R>();
+        final Thread thread = new Thread() {
+
+            @Override
+            @Atomic(mode = TxMode.READ)
+            public void run() {
+                outcome.value = reader.get();
+            }
+        };
+        return outcome.await(thread);
+    }
+
+    /**
+     * Returns the value computed by the given writer in a write transaction of its own, which is committed before returning.
+     */
+    public static <R> R write(final Supplier<R> writer) {
+        final Outcome<R> outcome = new Outcome<R>();
+        final Thread thread = new Thread() {
+
+            @Override
+            @Atomic(mode = TxMode.WRITE)
+            public void run() {
+                outcome.value = writer.get();
+            }
+        };
+        return outcome.await(thread);
+    }
+
+    private static class Outcome<R> {
+
+        private R value;
+
+        private Throwable failure;
+
+        private R await(final Thread thread) {
+            thread.setUncaughtExceptionHandler((t, e) -> failure = e);
+            thread.start();
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a transaction of its own", e);
+            }
+
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.bennu.core.domain.Bennu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+/**
+ * Persistent counter of document numbers, identified by a name and an optional scope (usually the civil year), so that the
+ * next number of a series is read from a single slot instead of being computed from the maximum of every document ever
+ * issued.
+ *
+ * When a sequence does not exist yet it is created from the last value already in use, which is computed only once by the
+ * given supplier. Numbers are handed out in one of two ways:
+ * <ul>
+ * <li>{@link #next(String, Integer, IntSupplier)} takes the number in the running transaction, so numbers have no gaps, but
+ * concurrent transactions taking numbers of the same sequence conflict with each other;</li>
+ * <li>{@link #nextInBlocks(String, Integer, int, IntSupplier)} reserves blocks of numbers in short transactions of their own
+ * and hands them out from memory, so concurrent requests do not conflict. Numbers are never repeated, but those of aborted
+ * transactions, or left in a block when the server stops, are lost. A sequence created by the running transaction cannot
+ * be reserved from until that transaction commits, so until then its numbers are taken in the running transaction.</li>
+ * </ul>
+ *
+ * Sequences are never deleted, and their name and scope never change, so committed sequences are kept by name and scope once
+ * found, and later lookups do not go through every sequence ever created.
+ */
+public class DocumentSequence extends DocumentSequence_Base {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSequence.class);
+
+    /* numbers reserved by this server and not handed out yet, by sequence */
+    private static final ConcurrentMap<String, Block> blocks = new ConcurrentHashMap<String, Block>();
+
+    /* committed sequences, by name and scope */
+    private static final ConcurrentMap<String, DocumentSequence> sequences = new ConcurrentHashMap<String, DocumentSequence>();
+
+    /* sequences created by transactions of this server that have not completed yet, which must not be kept */
+    private static final Set<DocumentSequence> uncommitted = ConcurrentHashMap.newKeySet();
+
+    protected DocumentSequence() {
+        super();
+        setRootDomainObject(Bennu.getInstance());
+    }
+
+    private DocumentSequence(final String name, final Integer scope, final int nextValue) {
+        this();
+        super.setName(name);
+        super.setScope(scope);
+        super.setNextValue(nextValue);
+        keepOnceCommitted(key(name, scope));
+    }
+
+    private void keepOnceCommitted(final String key) {
+        final Transaction transaction = FenixFramework.getTransaction();
+        if (transaction == null) {
+            return;
+        }
+        uncommitted.add(this);
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        sequences.putIfAbsent(key, DocumentSequence.this);
+                    }
+                    uncommitted.remove(DocumentSequence.this);
+                }
+            });
+        } catch (final Exception e) {
+            // the sequence is then found by the next lookup that goes through every sequence
+            uncommitted.remove(this);
+            logger.warn("Unable to keep new sequence " + key, e);
+        }
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new DomainException("error.DocumentSequence.cannot.modify.name");
+    }
+
+    @Override
+    public void setScope(Integer scope) {
+        throw new DomainException("error.DocumentSequence.cannot.modify.scope");
+    }
+
+    /**
+     * Takes the next number of the sequence in the running transaction.
+     */
+    public static int next(final String name, final Integer scope, final IntSupplier lastValue) {
+        return find(name, scope, lastValue).take(1);
+    }
+
+    /**
+     * Takes the next number of the sequence from a block reserved by this server, reserving a new block of the given size
+     * when the current one is exhausted.
+     */
+    public static int nextInBlocks(final String name, final Integer scope, final int blockSize, final IntSupplier lastValue) {
+        final Block block = blocks.computeIfAbsent(key(name, scope), key -> new Block());
+        return block.next(blockSize, () -> reserve(name, scope, blockSize, lastValue), () -> lookup(name, scope).take(1));
+    }
+
+    /**
+     * Returns the number the sequence will hand out next, without taking it.
+     */
+    public static int peek(final String name, final Integer scope, final IntSupplier lastValue) {
+        final DocumentSequence sequence = lookup(name, scope);
+        return sequence != null ? sequence.getNextValue() : lastValue.getAsInt() + 1;
+    }
+
+    /**
+     * Returns the number the sequence will hand out next, as seen by the running transaction, or zero if it does not exist.
+     */
+    public static int current(final String name, final Integer scope) {
+        final DocumentSequence sequence = lookup(name, scope);
+        return sequence != null ? sequence.getNextValue() : 0;
+    }
+
+    private int take(final int count) {
+        final int result = getNextValue();
+        super.setNextValue(result + count);
+        return result;
+    }
+
+    static DocumentSequence find(final String name, final Integer scope, final IntSupplier lastValue) {
+        final DocumentSequence sequence = lookup(name, scope);
+        return sequence != null ? sequence : new DocumentSequence(name, scope, lastValue.getAsInt() + 1);
+    }
+
+    /*
+     * A kept sequence is only used if the running transaction sees it, which is not the case of transactions older than it.
+     */
+    private static DocumentSequence lookup(final String name, final Integer scope) {
+        final String key = key(name, scope);
+        final DocumentSequence kept = sequences.get(key);
+        if (kept != null && kept.getRootDomainObject() != null) {
+            return kept;
+        }
+        for (final DocumentSequence sequence : Bennu.getInstance().getDocumentSequencesSet()) {
+            if (sequence.getName().equals(name) && Objects.equals(sequence.getScope(), scope)) {
+                if (!uncommitted.contains(sequence)) {
+                    sequences.putIfAbsent(key, sequence);
+                }
+                return sequence;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * The block is reserved in a transaction of its own, so the reservation is committed (and seen by every server) before any
+     * of its numbers is used. Returns null when the sequence is only seen by the running transaction, which created it and has
+     * not committed yet, as creating it again in the reservation would make two sequences of the same name.
+     */
+    private static Integer reserve(final String name, final Integer scope, final int blockSize, final IntSupplier lastValue) {
+        final boolean visible = lookup(name, scope) != null;
+        try {
+            return CommittedState.write(() -> {
+                final DocumentSequence sequence = lookup(name, scope);
+                if (sequence == null && visible) {
+                    return null;
+                }
+                return Integer.valueOf(find(name, scope, lastValue).take(blockSize));
+            });
+        } catch (final RuntimeException e) {
+            logger.error("Unable to reserve numbers of sequence " + key(name, scope), e);
+            throw new DomainException("error.DocumentSequence.unable.to.reserve.numbers", e);
+        }
+    }
+
+    private static String key(final String name, final Integer scope) {
+        return name + ":" + scope;
+    }
+
+    /*
+     * Numbers reserved by this server and not handed out yet, for one sequence.
+     */
+    static class Block {
+
+        private int next = 0;
+
+        private int end = 0;
+
+        /*
+         * Hands out the next reserved number, reserving a new block of the given size when this one is exhausted. When the
+         * reservation returns null no block is kept, and the number is taken from the running transaction instead. A failed
+         * reservation leaves the block exhausted, so the next call tries again.
+         */
+        synchronized int next(final int size, final Supplier<Integer> reservation, final IntSupplier inRunningTransaction) {
+            if (next >= end) {
+                final Integer start = reservation.get();
+                if (start == null) {
+                    return inRunningTransaction.getAsInt();
+                }
+                next = start.intValue();
+                end = next + size;
+            }
+            return next++;
+        }
+
+    }
+
+}
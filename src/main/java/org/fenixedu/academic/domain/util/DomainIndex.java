@@ -0,0 +1,623 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+/**
+ * In-memory index of domain objects by a value derived from their slots.
+ *
+ * Every transaction that registers objects through {@link #add(Object)} also increments one of the counters of a persistent
+ * {@link Version} of the index, shared by every application server. The counter is picked at random, so transactions
+ * registering objects at the same time seldom conflict with each other. The index is built from the committed state of its
+ * source collection, and remembers the value of each counter at that time. Registrations committed by this server are
+ * applied to it as their transactions complete, in whatever order, moving it forward. Lookups compare how far the index is
+ * with the counters seen by the running transaction:
+ * <ul>
+ * <li>when the index holds every registration the transaction sees, its answers are complete and a key that is not in the
+ * index is reported missing without looking at the source. Unless its keys are fixed (an object that has a key never moves
+ * to another one), the index must also not have been built after registrations the transaction does not see;</li>
+ * <li>otherwise (another server registered objects, or the running transaction started before the index was built) the
+ * lookup scans the source in the running transaction. An index missing registrations is rebuilt in the background, at most
+ * once every thirty seconds, while the registrations of this server keep being applied to the current one.</li>
+ * </ul>
+ * Objects found in the index that still have the key are returned by {@link #getAny(Object, Predicate)} however far behind
+ * the index is, so looking up a key that exists never scans the source.
+ *
+ * Objects registered by the running transaction are visible to its own lookups right away. Every candidate found in the
+ * index is checked against the key function in the running transaction before being returned, so deleted objects or objects
+ * whose key changed are never reported.
+ *
+ * The key function must return <code>null</code> for objects that are no longer part of the source (e.g. deleted ones).
+ */
+public class DomainIndex<K, T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DomainIndex.class);
+
+    private static final long MIN_REBUILD_INTERVAL_SECONDS = 30;
+
+    /* number of counters of persistent versions */
+    private static final int VERSION_STRIPES = 8;
+
+    /**
+     * Counters of the registrations committed in an index.
+     */
+    public interface Version {
+
+        /**
+         * Returns the number of counters.
+         */
+        public int stripes();
+
+        /**
+         * Returns the value of the given counter, as seen by the running transaction.
+         */
+        public long read(int stripe);
+
+        /**
+         * Increments the given counter in the running transaction.
+         */
+        public void increment(int stripe);
+
+    }
+
+    private final Supplier<? extends Collection<? extends T>> source;
+
+    private final Function<T, K> keyFunction;
+
+    private final Version version;
+
+    private final Supplier<? extends ConcurrentMap<K, Set<T>>> entriesFactory;
+
+    private final boolean fixedKeys;
+
+    private final ConcurrentMap<Transaction, Registration> pending = new ConcurrentHashMap<Transaction, Registration>();
+
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    private volatile Snapshot<K, T> snapshot = null;
+
+    private volatile boolean rebuilding = false;
+
+    private volatile long builtAt = 0L;
+
+    /* registrations applied while a build runs, which it may have missed, or null when no build runs */
+    private List<Registration> missed = null;
+
+    /**
+     * Creates an index whose version is kept in the {@link DocumentSequence}s of the given name.
+     */
+    public DomainIndex(final String name, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, K> keyFunction) {
+        this(name, source, keyFunction, false);
+    }
+
+    /**
+     * Creates an index whose version is kept in the {@link DocumentSequence}s of the given name, stating whether the keys of
+     * its objects are fixed once set.
+     */
+    public DomainIndex(final String name, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, K> keyFunction, final boolean fixedKeys) {
+        this(source, keyFunction, persistentVersion(name), ConcurrentHashMap::new, fixedKeys);
+    }
+
+    protected DomainIndex(final Supplier<? extends Collection<? extends T>> source, final Function<T, K> keyFunction,
+            final Version version, final Supplier<? extends ConcurrentMap<K, Set<T>>> entriesFactory) {
+        this(source, keyFunction, version, entriesFactory, false);
+    }
+
+    protected DomainIndex(final Supplier<? extends Collection<? extends T>> source, final Function<T, K> keyFunction,
+            final Version version, final Supplier<? extends ConcurrentMap<K, Set<T>>> entriesFactory, final boolean fixedKeys) {
+        this.source = source;
+        this.keyFunction = keyFunction;
+        this.version = version;
+        this.entriesFactory = entriesFactory;
+        this.fixedKeys = fixedKeys;
+    }
+
+    /**
+     * A version whose counters are kept in the {@link DocumentSequence}s of the given name, one per stripe.
+     */
+    protected static Version persistentVersion(final String name) {
+        return new PersistentVersion("index." + name);
+    }
+
+    /**
+     * Returns all objects with the given key, as seen by the current transaction.
+     */
+    public Set<T> get(final K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+
+        final Map<K, Set<T>> entries = getEntries();
+        return entries != null ? lookup(entries, key) : scan(key);
+    }
+
+    /**
+     * Returns one of the objects with the given key, or <code>null</code> if there is none.
+     */
+    public T getAny(final K key) {
+        return getAny(key, object -> true);
+    }
+
+    /**
+     * Returns one of the objects with the given key accepted by the given filter, or <code>null</code> if there is none.
+     */
+    public T getAny(final K key, final Predicate<? super T> filter) {
+        if (key == null) {
+            return null;
+        }
+
+        // an object of the index still having the key is an answer, even when the index is not up to date
+        final Snapshot<K, T> current = snapshot;
+        if (current != null) {
+            final T found = first(lookup(current.entries, key), filter);
+            if (found != null) {
+                return found;
+            }
+        }
+        return first(get(key), filter);
+    }
+
+    private T first(final Set<T> objects, final Predicate<? super T> filter) {
+        for (final T object : objects) {
+            if (filter.test(object)) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers the object under its current key. Must be called whenever a new object is added to the source or the value of
+     * its key changes. The object is immediately visible to lookups made by the running transaction, and to every other
+     * transaction once it commits.
+     */
+    public void add(final T object) {
+        final Transaction transaction = currentTransaction();
+        if (transaction == null) {
+            final Registration registration = new Registration();
+            registration.objects.add(object);
+            registration.keys.put(object, keyFunction.apply(object));
+            apply(registration);
+            return;
+        }
+
+        Registration registration = pending.get(transaction);
+        if (registration == null) {
+            registration = new Registration();
+            pending.put(transaction, registration);
+            register(transaction, registration);
+        }
+        registration.objects.add(object);
+    }
+
+    private void register(final Transaction transaction, final Registration registration) {
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                    for (final T object : registration.objects) {
+                        registration.keys.put(object, keyFunction.apply(object));
+                    }
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    pending.remove(transaction);
+                    if (status == Status.STATUS_COMMITTED) {
+                        apply(registration);
+                    }
+                }
+            });
+        } catch (final Exception e) {
+            // the version was still incremented, so once this transaction commits the index is behind and gets rebuilt
+            pending.remove(transaction);
+            logger.warn("Unable to register index update", e);
+        }
+    }
+
+    /*
+     * Applies a committed registration to the index, and keeps it for the build running, if any, to apply it as well.
+     */
+    private synchronized void apply(final Registration registration) {
+        if (missed != null) {
+            missed.add(registration);
+        }
+        final Snapshot<K, T> current = snapshot;
+        if (current != null) {
+            apply(current, registration);
+        }
+    }
+
+    private void apply(final Snapshot<K, T> snapshot, final Registration registration) {
+        registration.keys.forEach((object, key) -> put(snapshot, object, key));
+        snapshot.progress.apply(registration.stripe, registration.base);
+    }
+
+    /**
+     * Objects registered by the running transaction, which are not yet part of the index.
+     */
+    protected Set<T> getPending() {
+        final Registration registration = getRegistration();
+        return registration != null ? registration.objects : Collections.<T> emptySet();
+    }
+
+    /**
+     * Discards the current content, forcing the index to be rebuilt on the next lookup.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Returns the indexed objects by key, or <code>null</code> when the index is not complete for the running transaction and
+     * the source must be scanned instead. The returned objects must still be checked against the key function, and
+     * complemented with the pending ones.
+     */
+    protected ConcurrentMap<K, Set<T>> getEntries() {
+        Snapshot<K, T> current = snapshot;
+        if (current == null) {
+            current = rebuild(null);
+        }
+
+        final Registration registration = getRegistration();
+        final long[] view = registration != null ? Progress.view(version, registration.stripe, registration.base) : Progress
+                .view(version, -1, 0L);
+        if (!current.progress.covers(view)) {
+            rebuildInBackground(current);
+            return null;
+        }
+        return fixedKeys || current.progress.isBuiltWithin(view) ? current.entries : null;
+    }
+
+    protected Set<T> lookup(final Map<K, Set<T>> entries, final K key) {
+        final Set<T> result = new HashSet<T>();
+        final Set<T> candidates = entries.get(key);
+        if (candidates != null) {
+            for (final T candidate : candidates) {
+                if (key.equals(keyFunction.apply(candidate))) {
+                    result.add(candidate);
+                }
+            }
+        }
+        for (final T candidate : getPending()) {
+            if (key.equals(keyFunction.apply(candidate))) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    protected Set<T> scan(final K key) {
+        final Set<T> result = new HashSet<T>();
+        for (final T object : getSource()) {
+            if (key.equals(keyFunction.apply(object))) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    protected Collection<? extends T> getSource() {
+        return source.get();
+    }
+
+    protected K keyOf(final T object) {
+        return keyFunction.apply(object);
+    }
+
+    /**
+     * The running transaction, or <code>null</code> when there is none.
+     */
+    Transaction currentTransaction() {
+        return FenixFramework.getTransaction();
+    }
+
+    /**
+     * Runs the given task in a read-only transaction of its own, so that it only sees committed state, rethrowing whatever the
+     * task throws.
+     */
+    void inCommittedState(final Runnable task) {
+        CommittedState.read(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the given task in a thread of its own, without waiting for it.
+     */
+    void inBackground(final Runnable task) {
+        final Thread thread = new Thread(task, "Rebuild index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Registration getRegistration() {
+        final Transaction transaction = currentTransaction();
+        return transaction != null ? pending.get(transaction) : null;
+    }
+
+    /*
+     * Rebuilds an index found behind, unless it was built less than thirty seconds ago or a rebuild is already running. The
+     * lookups made meanwhile scan the source.
+     */
+    private void rebuildInBackground(final Snapshot<K, T> behind) {
+        synchronized (this) {
+            if (rebuilding || currentTimeMillis() - builtAt < TimeUnit.SECONDS.toMillis(MIN_REBUILD_INTERVAL_SECONDS)) {
+                return;
+            }
+            rebuilding = true;
+        }
+        inBackground(() -> {
+            try {
+                rebuild(behind);
+            } catch (final RuntimeException e) {
+                logger.error("Unable to rebuild index", e);
+            } finally {
+                rebuilding = false;
+            }
+        });
+    }
+
+    /*
+     * Builds the index in place of the given snapshot, unless another build already replaced it. A single build runs at a
+     * time, and the lookups waiting for the first one are all served by it. Registrations applied while it runs are applied
+     * to it as well, as it may have read the committed state before they committed.
+     */
+    private Snapshot<K, T> rebuild(final Snapshot<K, T> previous) {
+        buildLock.lock();
+        try {
+            final Snapshot<K, T> current = snapshot;
+            if (current != null && current != previous) {
+                return current;
+            }
+
+            builtAt = currentTimeMillis();
+            synchronized (this) {
+                missed = new ArrayList<Registration>();
+            }
+            try {
+                final Snapshot<K, T> result = build();
+                synchronized (this) {
+                    for (final Registration registration : missed) {
+                        apply(result, registration);
+                    }
+                    snapshot = result;
+                }
+                logger.debug("Built index with {} keys", result.entries.size());
+                return result;
+            } finally {
+                synchronized (this) {
+                    missed = null;
+                }
+            }
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /*
+     * Reads the committed state in a separate transaction, so that objects of an uncommitted transaction are never indexed.
+     * Any failure is propagated, leaving the previous snapshot (if any) in place.
+     */
+    private Snapshot<K, T> build() {
+        final Snapshot<K, T> result = new Snapshot<K, T>(entriesFactory.get());
+        inCommittedState(() -> {
+            result.progress = new Progress(Progress.view(version, -1, 0L));
+            for (final T object : source.get()) {
+                put(result, object, keyFunction.apply(object));
+            }
+        });
+        return result;
+    }
+
+    private void put(final Snapshot<K, T> snapshot, final T object, final K key) {
+        if (key != null) {
+            snapshot.entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(object);
+        }
+    }
+
+    private class Registration {
+
+        private final Set<T> objects = ConcurrentHashMap.newKeySet();
+
+        /* the keys of the objects when the registering transaction committed */
+        private final Map<T, K> keys = new HashMap<T, K>();
+
+        /* the counter incremented by the registering transaction, and its value before the increment */
+        private final int stripe;
+
+        private final long base;
+
+        private Registration() {
+            this.stripe = ThreadLocalRandom.current().nextInt(version.stripes());
+            this.base = version.read(stripe);
+            version.increment(stripe);
+        }
+
+    }
+
+    private static class Snapshot<K, T> {
+
+        private final ConcurrentMap<K, Set<T>> entries;
+
+        private volatile Progress progress;
+
+        private Snapshot(final ConcurrentMap<K, Set<T>> entries) {
+            this.entries = entries;
+        }
+
+    }
+
+    /*
+     * How far an index is with each counter of its version: the value the counter had when the index was built, and the value
+     * up to which the registrations made since then were all applied. Registrations are applied in the order their
+     * transactions complete, which may differ from the order they committed, so those applied ahead of a missing one are kept
+     * until it arrives. Registrations committed by other servers are never applied, so the counters they incremented stay
+     * behind until the index is rebuilt.
+     */
+    static class Progress {
+
+        private final long[] built;
+
+        private final long[] applied;
+
+        private final List<Set<Long>> ahead;
+
+        Progress(final long[] built) {
+            this.built = built;
+            this.applied = built.clone();
+            this.ahead = new ArrayList<Set<Long>>(built.length);
+            for (int i = 0; i < built.length; i++) {
+                ahead.add(new HashSet<Long>());
+            }
+        }
+
+        /*
+         * The values of the counters seen by the running transaction, taking the one it incremented, if any, at its value
+         * before the increment, as the objects it registered are looked up apart.
+         */
+        static long[] view(final Version version, final int ownStripe, final long ownBase) {
+            final long[] result = new long[version.stripes()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = i == ownStripe ? ownBase : version.read(i);
+            }
+            return result;
+        }
+
+        synchronized void apply(final int stripe, final long base) {
+            if (base > applied[stripe]) {
+                ahead.get(stripe).add(base);
+            } else if (base == applied[stripe]) {
+                applied[stripe]++;
+                while (ahead.get(stripe).remove(applied[stripe])) {
+                    applied[stripe]++;
+                }
+            }
+        }
+
+        /*
+         * Whether every registration seen with the given counters was read by the build or applied since.
+         */
+        synchronized boolean covers(final long[] view) {
+            for (int i = 0; i < view.length; i++) {
+                if (view[i] > applied[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Whether the build read no registration that is not seen with the given counters.
+         */
+        boolean isBuiltWithin(final long[] view) {
+            for (int i = 0; i < view.length; i++) {
+                if (built[i] > view[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /*
+     * Keeps each counter in a sequence named after the index and scoped by the number of the counter. The sequences are looked
+     * up once and then read and incremented directly, so lookups do not go through every sequence.
+     */
+    private static class PersistentVersion implements Version {
+
+        private final String name;
+
+        private volatile DocumentSequence[] sequences = null;
+
+        private PersistentVersion(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int stripes() {
+            return VERSION_STRIPES;
+        }
+
+        @Override
+        public long read(final int stripe) {
+            final Integer value = getSequences()[stripe].getNextValue();
+            return value != null ? value.longValue() : 0L;
+        }
+
+        @Override
+        public void increment(final int stripe) {
+            getSequences()[stripe].setNextValue(Integer.valueOf((int) read(stripe) + 1));
+        }
+
+        /*
+         * The sequences missing are created in a transaction of their own, so the ones kept are always committed.
+         */
+        private DocumentSequence[] getSequences() {
+            DocumentSequence[] result = sequences;
+            if (result == null) {
+                result = CommittedState.write(() -> {
+                    final DocumentSequence[] found = new DocumentSequence[VERSION_STRIPES];
+                    for (int i = 0; i < found.length; i++) {
+                        found[i] = DocumentSequence.find(name, Integer.valueOf(i), () -> -1);
+                    }
+                    return found;
+                });
+                sequences = result;
+            }
+            return result;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link DomainIndex} whose keys are kept sorted, also answering range queries.
+ *
+ * Like lookups by key, range queries are answered from the index only when it is up to date with the running
+ * transaction, and scan the source otherwise.
+ */
+public class SortedDomainIndex<K extends Comparable<K>, T> extends DomainIndex<K, T> {
+
+    public SortedDomainIndex(final String name, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, K> keyFunction) {
+        this(source, keyFunction, persistentVersion(name));
+    }
+
+    protected SortedDomainIndex(final Supplier<? extends Collection<? extends T>> source, final Function<T, K> keyFunction,
+            final Version version) {
+        super(source, keyFunction, version, ConcurrentSkipListMap::new);
+    }
+
+    /**
+     * Returns the objects whose key is between the given ones (both inclusive), sorted by key.
+     */
+    public List<T> getRange(final K from, final K to) {
+        final List<T> result = new ArrayList<T>();
+        if (from.compareTo(to) > 0) {
+            return result;
+        }
+
+        final NavigableMap<K, Set<T>> entries = getSortedEntries();
+        if (entries == null) {
+            for (final T object : getSource()) {
+                if (isBetween(keyOf(object), from, to)) {
+                    result.add(object);
+                }
+            }
+        } else {
+            for (final K key : entries.subMap(from, true, to, true).keySet()) {
+                result.addAll(lookup(entries, key));
+            }
+            for (final T object : getPending()) {
+                if (isBetween(keyOf(object), from, to) && !result.contains(object)) {
+                    result.add(object);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(this::keyOf));
+        return result;
+    }
+
+    private NavigableMap<K, Set<T>> getSortedEntries() {
+        return (NavigableMap<K, Set<T>>) getEntries();
+    }
+
+    private boolean isBetween(final K key, final K from, final K to) {
+        return key != null && key.compareTo(from) >= 0 && key.compareTo(to) <= 0;
+    }
+
+}
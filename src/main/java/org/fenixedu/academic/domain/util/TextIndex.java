@@ -0,0 +1,615 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.fenixedu.academic.domain.DomainObjectUtil;
+import org.fenixedu.academic.domain.util.DomainIndex.Progress;
+import org.fenixedu.academic.domain.util.DomainIndex.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.DomainObject;
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * In-memory inverted index of the normalized texts (e.g. names) of domain objects, used to answer searches by words or by
+ * parts of words without scanning every object.
+ *
+ * Each text is indexed by its space separated words and, when substring searches are enabled, by its trigrams. The index is
+ * built from the committed state the first time it is queried, with every object ranked by its sort key and id, so that
+ * results come out in that order and callers that only want the first results can stop early. Objects created or whose
+ * texts or sort keys changed afterwards must be registered through {@link #add(DomainObject)}; they are kept apart, with
+ * their current sort key, and merged into the results. Results are produced while being iterated, so taking the first ones
+ * does not go through every candidate.
+ *
+ * Every transaction that registers objects increments one of the counters of a persistent version of the index, which are
+ * compared with how far the index is, as in {@link DomainIndex}. While the index holds exactly the registrations seen by the
+ * running transaction, its ranks are exact. Otherwise objects were changed by another application server and may be out of
+ * place, so the index is rebuilt in the background if it is behind and, in the meantime, the candidates are sorted by their
+ * current sort keys before being returned. Every result is checked against the current
+ * texts of the object, so objects changed by other servers are never wrongly reported, but may be missed until the index
+ * is rebuilt.
+ *
+ * The texts function must return an empty collection for objects that are no longer part of the source (e.g. deleted ones).
+ */
+public class TextIndex<T extends DomainObject> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextIndex.class);
+
+    /* length of the substrings indexed for substring searches, parts shorter than this cannot narrow a search */
+    public static final int GRAM_LENGTH = 3;
+
+    private static final long MIN_REBUILD_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private static final int MAX_RECENT = 10000;
+
+    private final String description;
+
+    private final Supplier<? extends Collection<? extends T>> source;
+
+    private final Function<T, Collection<String>> texts;
+
+    private final Function<T, ? extends Comparable<?>> sortKey;
+
+    private final boolean substrings;
+
+    /* age after which the index is rebuilt, for texts that may change without objects being registered, or zero */
+    private final long maxAge;
+
+    private final Version version;
+
+    private volatile Snapshot snapshot = null;
+
+    private volatile boolean rebuilding = false;
+
+    private volatile long rebuiltAt = 0L;
+
+    /* registrations applied while a rebuild runs, which it may have missed, or null when no rebuild runs */
+    private List<Registration> missed = null;
+
+    /* objects created or changed since the snapshot was built, with the instant their transaction committed */
+    private final ConcurrentMap<T, Long> recent = new ConcurrentHashMap<T, Long>();
+
+    private final ConcurrentMap<Transaction, Registration> pending = new ConcurrentHashMap<Transaction, Registration>();
+
+    public TextIndex(final String description, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, Collection<String>> texts, final Function<T, ? extends Comparable<?>> sortKey,
+            final boolean substrings) {
+        this(description, source, texts, sortKey, substrings, 0L, DomainIndex.persistentVersion("text." + description));
+    }
+
+    /**
+     * An index whose texts may also change without the objects being registered, for instance when they are kept by another
+     * module. It is rebuilt once older than the given age, which bounds the time such changes take to be seen.
+     */
+    public TextIndex(final String description, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, Collection<String>> texts, final Function<T, ? extends Comparable<?>> sortKey,
+            final boolean substrings, final long maxAge, final TimeUnit unit) {
+        this(description, source, texts, sortKey, substrings, unit.toMillis(maxAge), DomainIndex.persistentVersion("text."
+                + description));
+    }
+
+    TextIndex(final String description, final Supplier<? extends Collection<? extends T>> source,
+            final Function<T, Collection<String>> texts, final Function<T, ? extends Comparable<?>> sortKey,
+            final boolean substrings, final long maxAge, final Version version) {
+        this.description = description;
+        this.source = source;
+        this.texts = texts;
+        this.sortKey = sortKey;
+        this.substrings = substrings;
+        this.maxAge = maxAge;
+        this.version = version;
+    }
+
+    /**
+     * Returns, in order, the objects having each of the given words as a whole word of one of their texts. When no word is
+     * given every object is returned.
+     */
+    public Iterable<T> withWords(final String... words) {
+        final String[] distinct = distinct(words, 1);
+        final long[] view = getView();
+        final Snapshot current = getSnapshot(view);
+        final int[] ranks = distinct.length == 0 ? null : current.intersect(current.words, distinct);
+        return candidates(current, current.isExactFor(view), ranks, object -> hasWords(object, distinct));
+    }
+
+    /**
+     * Returns, in order, the objects having each of the given parts inside one of their texts, or <code>null</code> if no part
+     * is at least {@link #GRAM_LENGTH} characters long, in which case the index cannot help and the caller must scan.
+     */
+    public Iterable<T> containing(final String... parts) {
+        if (!substrings) {
+            throw new UnsupportedOperationException("Substring searches are not enabled for the " + description + " index");
+        }
+        final String[] distinct = distinct(parts, 1);
+        final String[] grams = grams(distinct(parts, GRAM_LENGTH));
+        if (grams.length == 0) {
+            return null;
+        }
+        final long[] view = getView();
+        final Snapshot current = getSnapshot(view);
+        return candidates(current, current.isExactFor(view), current.intersect(current.grams, grams),
+                object -> containsAll(object, distinct));
+    }
+
+    /**
+     * Must be called whenever an object is added to the source or its texts change. The object is immediately found by
+     * searches made by the running transaction, and by every other transaction once it commits.
+     */
+    public void add(final T object) {
+        final Transaction transaction = currentTransaction();
+        if (transaction == null) {
+            recent.put(object, System.currentTimeMillis());
+            return;
+        }
+
+        Registration registration = pending.get(transaction);
+        if (registration == null) {
+            registration = new Registration();
+            pending.put(transaction, registration);
+            register(transaction, registration);
+        }
+        registration.objects.add(object);
+    }
+
+    private void register(final Transaction transaction, final Registration registration) {
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    pending.remove(transaction);
+                    if (status == Status.STATUS_COMMITTED) {
+                        apply(registration);
+                    }
+                }
+            });
+        } catch (final Exception e) {
+            // the version was still incremented, so once this transaction commits the index is behind and gets rebuilt
+            pending.remove(transaction);
+            logger.warn("Unable to register " + description + " index update", e);
+        }
+    }
+
+    /*
+     * Applies a committed registration, and keeps it for the rebuild running, if any, to apply it as well.
+     */
+    private synchronized void apply(final Registration registration) {
+        final Long now = System.currentTimeMillis();
+        for (final T object : registration.objects) {
+            recent.put(object, now);
+        }
+        if (missed != null) {
+            missed.add(registration);
+        }
+        final Snapshot current = snapshot;
+        if (current != null) {
+            current.progress.apply(registration.stripe, registration.base);
+        }
+    }
+
+    private Iterable<T> candidates(final Snapshot current, final boolean exact, final int[] ranks, final Predicate<T> matcher) {
+        // changed objects are placed by their current sort key, the others by the one they had when the index was built
+        final List<T> changed = new ArrayList<T>();
+        for (final T object : getRecentAndPending()) {
+            if (matcher.test(object)) {
+                changed.add(object);
+            }
+        }
+        final Set<T> changedSet = new HashSet<T>(changed);
+        final int size = ranks == null ? current.objects.length : ranks.length;
+
+        if (!exact) {
+            // objects changed by other servers may be out of place, so every candidate is placed by its current sort key
+            final List<Object[]> entries = new ArrayList<Object[]>();
+            for (final T object : changed) {
+                entries.add(new Object[] { object, sortKey.apply(object) });
+            }
+            for (int i = 0; i < size; i++) {
+                final T object = current.objects[ranks == null ? i : ranks[i]];
+                if (!changedSet.contains(object) && matcher.test(object)) {
+                    entries.add(new Object[] { object, sortKey.apply(object) });
+                }
+            }
+            Collections.sort(entries, (e1, e2) -> compare(e1[1], (DomainObject) e1[0], e2[1], (DomainObject) e2[0]));
+            final List<T> result = new ArrayList<T>(entries.size());
+            for (final Object[] entry : entries) {
+                result.add(object(entry));
+            }
+            return result;
+        }
+
+        final List<Object> changedKeys = new ArrayList<Object>(changed.size());
+        if (!changed.isEmpty()) {
+            final Comparator<T> order = (o1, o2) -> compare(sortKey.apply(o1), o1, sortKey.apply(o2), o2);
+            Collections.sort(changed, order);
+            for (final T object : changed) {
+                changedKeys.add(sortKey.apply(object));
+            }
+        }
+
+        return () -> new AbstractIterator<T>() {
+
+            /* position of the next candidate of the index to check, and the last one found to match */
+            private int position = 0;
+
+            private int head = -1;
+
+            private int next = 0;
+
+            @Override
+            protected T computeNext() {
+                while (head < 0 && position < size) {
+                    final int rank = ranks == null ? position : ranks[position];
+                    position++;
+                    final T object = current.objects[rank];
+                    if (!changedSet.contains(object) && matcher.test(object)) {
+                        head = rank;
+                    }
+                }
+                if (next < changed.size()
+                        && (head < 0 || compare(changedKeys.get(next), changed.get(next), current.keys[head],
+                                current.objects[head]) < 0)) {
+                    return changed.get(next++);
+                }
+                if (head < 0) {
+                    return endOfData();
+                }
+                final T result = current.objects[head];
+                head = -1;
+                return result;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private T object(final Object[] entry) {
+        return (T) entry[0];
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static int compare(final Object key1, final DomainObject object1, final Object key2, final DomainObject object2) {
+        final int byKey = key1 == null ? (key2 == null ? 0 : -1) : key2 == null ? 1 : ((Comparable) key1).compareTo(key2);
+        return byKey != 0 ? byKey : DomainObjectUtil.COMPARATOR_BY_ID.compare(object1, object2);
+    }
+
+    private boolean hasWords(final T object, final String[] words) {
+        final Set<String> objectWords = new HashSet<String>();
+        for (final String text : texts.apply(object)) {
+            objectWords.addAll(Arrays.asList(text.split(" ")));
+        }
+        return objectWords.containsAll(Arrays.asList(words));
+    }
+
+    private boolean containsAll(final T object, final String[] parts) {
+        final Collection<String> objectTexts = texts.apply(object);
+        for (final String part : parts) {
+            boolean found = false;
+            for (final String text : objectTexts) {
+                if (text.indexOf(part) >= 0) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return !objectTexts.isEmpty();
+    }
+
+    private Set<T> getRecentAndPending() {
+        final Registration registration = getRegistration();
+        if (registration == null || registration.objects.isEmpty()) {
+            return recent.keySet();
+        }
+        final Set<T> result = new HashSet<T>(recent.keySet());
+        result.addAll(registration.objects);
+        return result;
+    }
+
+    private Registration getRegistration() {
+        final Transaction transaction = currentTransaction();
+        return transaction != null ? pending.get(transaction) : null;
+    }
+
+    /*
+     * The counters seen by the running transaction, before its own registrations, which are merged apart.
+     */
+    private long[] getView() {
+        final Registration registration = getRegistration();
+        return registration != null ? Progress.view(version, registration.stripe, registration.base) : Progress.view(version,
+                -1, 0L);
+    }
+
+    /**
+     * The running transaction, or <code>null</code> when there is none.
+     */
+    Transaction currentTransaction() {
+        return FenixFramework.getTransaction();
+    }
+
+    /**
+     * Returns the value computed by the given builder in a read-only transaction of its own, so that it only sees committed
+     * state.
+     */
+    <R> R inCommittedState(final Supplier<R> builder) {
+        return CommittedState.read(builder);
+    }
+
+    private static String[] distinct(final String[] parts, final int minLength) {
+        final Set<String> result = new LinkedHashSet<String>();
+        if (parts != null) {
+            for (final String part : parts) {
+                if (part != null && part.length() >= minLength) {
+                    result.add(part);
+                }
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    private static String[] grams(final String... texts) {
+        final Set<String> result = new LinkedHashSet<String>();
+        for (final String text : texts) {
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+                result.add(text.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    private Snapshot getSnapshot(final long[] view) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = build();
+                    install(current);
+                }
+            }
+        } else if (!rebuilding && (!current.progress.covers(view) || recent.size() > MAX_RECENT || current.isOlderThan(maxAge))
+                && System.currentTimeMillis() - rebuiltAt > MIN_REBUILD_INTERVAL) {
+            rebuildInBackground();
+        }
+        return current;
+    }
+
+    private void rebuildInBackground() {
+        synchronized (this) {
+            if (rebuilding) {
+                return;
+            }
+            rebuilding = true;
+            rebuiltAt = System.currentTimeMillis();
+            missed = new ArrayList<Registration>();
+        }
+        final Thread thread = new Thread("Rebuild " + description + " index") {
+            @Override
+            public void run() {
+                try {
+                    final Snapshot rebuilt = build();
+                    synchronized (TextIndex.this) {
+                        install(rebuilt);
+                    }
+                } catch (final Throwable t) {
+                    logger.error("Unable to rebuild " + description + " index", t);
+                } finally {
+                    synchronized (TextIndex.this) {
+                        missed = null;
+                    }
+                    rebuilding = false;
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void install(final Snapshot rebuilt) {
+        if (missed != null) {
+            for (final Registration registration : missed) {
+                rebuilt.progress.apply(registration.stripe, registration.base);
+            }
+        }
+        snapshot = rebuilt;
+        // objects committed after the build started may be missing from it, so they are kept apart until the next one
+        recent.entrySet().removeIf(entry -> entry.getValue().longValue() < rebuilt.builtAt);
+    }
+
+    /*
+     * Reads the committed state in a separate transaction, so that uncommitted texts are never indexed. Any failure is
+     * propagated, leaving the previous snapshot (if any) in place.
+     */
+    private Snapshot build() {
+        return inCommittedState(Snapshot::new);
+    }
+
+    private class Registration {
+
+        private final Set<T> objects = ConcurrentHashMap.newKeySet();
+
+        /* the counter incremented by the registering transaction, and its value before the increment */
+        private final int stripe;
+
+        private final long base;
+
+        private Registration() {
+            this.stripe = ThreadLocalRandom.current().nextInt(version.stripes());
+            this.base = version.read(stripe);
+            version.increment(stripe);
+        }
+
+    }
+
+    private class Snapshot {
+
+        private final long builtAt = System.currentTimeMillis();
+
+        /* the registrations the ranks correspond to, and those applied since */
+        private final Progress progress = new Progress(Progress.view(version, -1, 0L));
+
+        /* every indexed object, sorted by sort key and id */
+        private final T[] objects;
+
+        /* sort key of each object when the index was built */
+        private final Object[] keys;
+
+        /* ranks of the objects having each word or trigram in their texts, in ascending order */
+        private final Map<String, int[]> words;
+
+        private final Map<String, int[]> grams;
+
+        @SuppressWarnings("unchecked")
+        private Snapshot() {
+            final List<Object[]> entries = new ArrayList<Object[]>();
+            for (final T object : source.get()) {
+                final Collection<String> objectTexts = texts.apply(object);
+                if (!objectTexts.isEmpty()) {
+                    entries.add(new Object[] { object, sortKey.apply(object), objectTexts });
+                }
+            }
+            Collections.sort(entries, (e1, e2) -> compare(e1[1], (DomainObject) e1[0], e2[1], (DomainObject) e2[0]));
+
+            this.objects = (T[]) new DomainObject[entries.size()];
+            this.keys = new Object[entries.size()];
+            final Map<String, IntList> wordRanks = new HashMap<String, IntList>();
+            final Map<String, IntList> gramRanks = new HashMap<String, IntList>();
+            for (int i = 0; i < objects.length; i++) {
+                final Object[] entry = entries.get(i);
+                objects[i] = (T) entry[0];
+                keys[i] = entry[1];
+
+                final Set<String> objectWords = new HashSet<String>();
+                final Set<String> objectGrams = new HashSet<String>();
+                for (final String text : (Collection<String>) entry[2]) {
+                    objectWords.addAll(Arrays.asList(text.split(" ")));
+                    if (substrings) {
+                        objectGrams.addAll(Arrays.asList(grams(text)));
+                    }
+                }
+                for (final String word : objectWords) {
+                    wordRanks.computeIfAbsent(word, w -> new IntList()).add(i);
+                }
+                for (final String gram : objectGrams) {
+                    gramRanks.computeIfAbsent(gram, g -> new IntList()).add(i);
+                }
+            }
+
+            this.words = toArrays(wordRanks);
+            this.grams = toArrays(gramRanks);
+
+            logger.info("Built {} index with {} objects, {} words and {} trigrams", description, objects.length, words.size(),
+                    grams.size());
+        }
+
+        /*
+         * Whether the ranks correspond to the registrations seen with the given counters, neither missing any of them nor
+         * reflecting later ones.
+         */
+        private boolean isExactFor(final long[] view) {
+            return progress.covers(view) && progress.isBuiltWithin(view);
+        }
+
+        private boolean isOlderThan(final long age) {
+            return age > 0 && System.currentTimeMillis() - builtAt > age;
+        }
+
+        private int[] intersect(final Map<String, int[]> postings, final String[] terms) {
+            final int[][] lists = new int[terms.length][];
+            for (int i = 0; i < terms.length; i++) {
+                lists[i] = postings.get(terms[i]);
+                if (lists[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(lists, (l1, l2) -> Integer.compare(l1.length, l2.length));
+
+            final IntList result = new IntList();
+            candidates: for (final int rank : lists[0]) {
+                for (int i = 1; i < lists.length; i++) {
+                    if (Arrays.binarySearch(lists[i], rank) < 0) {
+                        continue candidates;
+                    }
+                }
+                result.add(rank);
+            }
+            return result.toArray();
+        }
+
+        private Map<String, int[]> toArrays(final Map<String, IntList> ranks) {
+            final Map<String, int[]> result = new HashMap<String, int[]>(ranks.size() * 2);
+            for (final Map.Entry<String, IntList> entry : ranks.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().toArray());
+            }
+            return result;
+        }
+
+    }
+
+    private static class IntList {
+
+        private int[] values = new int[4];
+
+        private int size = 0;
+
+        private void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+    }
+
+}
@@ -0,0 +1,368 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Values derived from the state of an owner (a course group, a party, a student curricular plan...), computed once and shared
+ * by every thread until a transaction that changes the owner commits.
+ *
+ * Changes are registered by the transaction that makes them (see {@link #invalidate(Object)}, {@link #invalidateIf(Predicate)}
+ * and {@link #invalidateAll()}).
+ * That transaction computes the values of the owners it changed by itself until it completes, so it always sees its own
+ * changes, and their values are discarded once it commits. Values are tagged with the generation of their owner, which is
+ * replaced when the owner changes, so discarding the values of an owner takes constant time whatever the size of the cache.
+ *
+ * Values are computed from committed state, in a transaction of their own, and are only shared if the generation of their
+ * owner is still the same once they are computed, so a change committed during the computation is never hidden. Changes
+ * committed by other application servers are only seen through the persistent version of the owner, for caches that have
+ * one (see {@link #versioned(String, long, ToLongFunction, long, TimeUnit)}), and otherwise once values expire: the
+ * expiration time is the bound on their staleness across servers.
+ */
+public class TransactionalCache<O, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionalCache.class);
+
+    private final String name;
+
+    private final Cache<Key<O>, Entry<V>> values;
+
+    /* generations of the owners with values being computed or cached, dropped once no value refers to them */
+    private final Cache<O, Generation> generations = CacheBuilder.newBuilder().weakValues().build();
+
+    private final AtomicLong epoch = new AtomicLong();
+
+    private final ToLongFunction<O> version;
+
+    private final ConcurrentMap<Transaction, Changes<O>> changed = new ConcurrentHashMap<Transaction, Changes<O>>();
+
+    TransactionalCache(final String name, final Cache<Key<O>, Entry<V>> values, final ToLongFunction<O> version) {
+        this.name = name;
+        this.values = values;
+        this.version = version;
+    }
+
+    /**
+     * A cache of at most the given number of values, each expiring the given time after being computed.
+     */
+    public static <O, V> TransactionalCache<O, V> ofSize(final String name, final long maximumSize, final long duration,
+            final TimeUnit unit) {
+        return new TransactionalCache<O, V>(name, CacheBuilder.newBuilder().maximumSize(maximumSize)
+                .expireAfterWrite(duration, unit).<Key<O>, Entry<V>> build(), null);
+    }
+
+    /**
+     * A cache of values whose weights, as given by the weigher, add up to at most the given weight, each expiring the given
+     * time after being computed.
+     */
+    public static <O, V> TransactionalCache<O, V> ofWeight(final String name, final long maximumWeight,
+            final ToIntFunction<V> weigher, final long duration, final TimeUnit unit) {
+        return new TransactionalCache<O, V>(name, CacheBuilder.newBuilder().maximumWeight(maximumWeight)
+                .weigher((final Key<O> key, final Entry<V> entry) -> key.key.length() + weigher.applyAsInt(entry.value))
+                .expireAfterWrite(duration, unit).build(), null);
+    }
+
+    /**
+     * A cache of at most the given number of values, computed along with the given persistent version of their owner, which
+     * must change in every transaction that calls {@link #invalidate(Object)} for the owner. Values are only used by
+     * transactions that see the version they were computed with, whatever the server that changed the owner. They also
+     * expire the given time after being computed, which bounds the staleness caused by changes that do not go through the
+     * owner, such as those registered with {@link #invalidateAll()} by other servers.
+     */
+    public static <O, V> TransactionalCache<O, V> versioned(final String name, final long maximumSize,
+            final ToLongFunction<O> version, final long duration, final TimeUnit unit) {
+        return new TransactionalCache<O, V>(name, CacheBuilder.newBuilder().maximumSize(maximumSize)
+                .expireAfterWrite(duration, unit).<Key<O>, Entry<V>> build(), version);
+    }
+
+    /**
+     * Returns the value of the owner under the given key, computing it with the loader if it is not cached.
+     */
+    public V get(final O owner, final String key, final Supplier<V> loader) {
+        if (isChangedInCurrentTransaction(owner)) {
+            return loader.get();
+        }
+
+        final long expected = versionOf(owner);
+        final Key<O> cacheKey = new Key<O>(owner, key);
+        final Entry<V> entry = values.getIfPresent(cacheKey);
+        if (entry != null && entry.isCurrent() && entry.version == expected) {
+            return entry.value;
+        }
+
+        final Generation generation = generationOf(owner);
+        final Entry<V> loaded = inCommittedState(() -> new Entry<V>(loader.get(), generation, versionOf(owner)));
+        if (generation.isCurrent()) {
+            values.asMap().merge(cacheKey, loaded, (previous, current) -> previous.isCurrent()
+                    && previous.version > current.version ? previous : current);
+        }
+        // a transaction that does not see the last version of the owner computes the value it sees
+        return loaded.version == expected ? loaded.value : loader.get();
+    }
+
+    /**
+     * Must be called whenever the state the values of the owner are derived from changes. The values of the owner are
+     * discarded once the running transaction commits, and are not used by it in the meantime.
+     */
+    public void invalidate(final O owner) {
+        if (owner == null) {
+            return;
+        }
+        final Changes<O> changes = changes();
+        if (changes == null) {
+            discard(Collections.singleton(owner));
+        } else {
+            changes.owners.add(owner);
+        }
+    }
+
+    /**
+     * Must be called whenever a change affects the values of every owner accepted by the given predicate. Their values are
+     * discarded once the running transaction commits, and are not used by it in the meantime.
+     */
+    public void invalidateIf(final Predicate<? super O> affected) {
+        final Changes<O> changes = changes();
+        if (changes == null) {
+            discardIf(Collections.<Predicate<? super O>> singleton(affected));
+        } else {
+            changes.affected.add(affected);
+        }
+    }
+
+    /**
+     * Must be called whenever something the values of many owners are derived from changes. Every value is discarded once
+     * the running transaction commits, and none is used by it in the meantime.
+     */
+    public void invalidateAll() {
+        final Changes<O> changes = changes();
+        if (changes == null) {
+            discardAll();
+        } else {
+            changes.all = true;
+        }
+    }
+
+    Transaction currentTransaction() {
+        return FenixFramework.getTransaction();
+    }
+
+    /**
+     * Returns the value computed by the given loader in a read-only transaction of its own, so that it only sees committed
+     * state.
+     */
+    <R> R inCommittedState(final Supplier<R> loader) {
+        return CommittedState.read(loader);
+    }
+
+    private long versionOf(final O owner) {
+        return version != null ? version.applyAsLong(owner) : 0L;
+    }
+
+    private Generation generationOf(final O owner) {
+        try {
+            return generations.get(owner, () -> new Generation(epoch));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private boolean isChangedInCurrentTransaction(final O owner) {
+        final Transaction transaction = currentTransaction();
+        final Changes<O> changes = transaction != null ? changed.get(transaction) : null;
+        return changes != null && (changes.all || changes.owners.contains(owner) || changes.affects(owner));
+    }
+
+    /*
+     * Outside of a transaction there is nothing to defer, so changes are applied at once and null is returned.
+     */
+    private Changes<O> changes() {
+        final Transaction transaction = currentTransaction();
+        if (transaction == null) {
+            return null;
+        }
+        return changed.computeIfAbsent(transaction, tx -> {
+            final Changes<O> changes = new Changes<O>();
+            register(tx, changes);
+            return changes;
+        });
+    }
+
+    private void register(final Transaction transaction, final Changes<O> changes) {
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    changed.remove(transaction);
+                    if (status == Status.STATUS_COMMITTED) {
+                        if (changes.all) {
+                            discardAll();
+                        } else {
+                            discard(changes.owners);
+                            discardIf(changes.affected);
+                        }
+                    }
+                }
+            });
+        } catch (final Exception e) {
+            logger.warn("Unable to register the invalidation of " + name + ", discarding every value", e);
+            discardAll();
+        }
+    }
+
+    private void discard(final Set<O> owners) {
+        for (final O owner : owners) {
+            final Generation generation = generations.asMap().remove(owner);
+            if (generation != null) {
+                generation.discarded = true;
+            }
+        }
+    }
+
+    /*
+     * Only owners with a generation can have values cached or being computed, so the others need not be discarded.
+     */
+    private void discardIf(final Set<Predicate<? super O>> affected) {
+        if (affected.isEmpty()) {
+            return;
+        }
+        generations.asMap().entrySet().removeIf(entry -> {
+            final boolean matches = affected.stream().anyMatch(predicate -> predicate.test(entry.getKey()));
+            if (matches) {
+                entry.getValue().discarded = true;
+            }
+            return matches;
+        });
+    }
+
+    private void discardAll() {
+        epoch.incrementAndGet();
+        generations.invalidateAll();
+        values.invalidateAll();
+    }
+
+    private static class Generation {
+
+        private final AtomicLong epoch;
+
+        private final long created;
+
+        private volatile boolean discarded = false;
+
+        private Generation(final AtomicLong epoch) {
+            this.epoch = epoch;
+            this.created = epoch.get();
+        }
+
+        private boolean isCurrent() {
+            return !discarded && created == epoch.get();
+        }
+
+    }
+
+    static class Entry<V> {
+
+        private final V value;
+
+        private final Generation generation;
+
+        private final long version;
+
+        private Entry(final V value, final Generation generation, final long version) {
+            this.value = value;
+            this.generation = generation;
+            this.version = version;
+        }
+
+        private boolean isCurrent() {
+            return generation.isCurrent();
+        }
+
+    }
+
+    static class Key<O> {
+
+        private final O owner;
+
+        private final String key;
+
+        private Key(final O owner, final String key) {
+            this.owner = owner;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            final Key<?> other = (Key<?>) object;
+            return owner.equals(other.owner) && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(owner, key);
+        }
+
+    }
+
+    private static class Changes<O> {
+
+        private volatile boolean all = false;
+
+        private final Set<O> owners = ConcurrentHashMap.newKeySet();
+
+        private final Set<Predicate<? super O>> affected = ConcurrentHashMap.newKeySet();
+
+        private boolean affects(final O owner) {
+            return affected.stream().anyMatch(predicate -> predicate.test(owner));
+        }
+
+    }
+
+}
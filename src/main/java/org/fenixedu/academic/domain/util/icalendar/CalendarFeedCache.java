@@ -0,0 +1,217 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util.icalendar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.ValidationException;
+
+import org.fenixedu.academic.domain.Attends;
+import org.fenixedu.academic.domain.Evaluation;
+import org.fenixedu.academic.domain.ExecutionCourse;
+import org.fenixedu.academic.domain.Lesson;
+import org.fenixedu.academic.domain.Shift;
+import org.fenixedu.academic.domain.WrittenEvaluationEnrolment;
+import org.fenixedu.academic.domain.student.Registration;
+import org.fenixedu.academic.domain.util.TransactionalCache;
+import org.fenixedu.bennu.core.domain.User;
+import org.joda.time.DateTime;
+
+import pt.ist.fenixframework.dml.runtime.RelationAdapter;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Serialized iCalendar feeds, keyed by user, feed and key validity, so that calendar clients polling the same feed over and
+ * over get the same bytes (and the same entity tag) without the events being computed again.
+ *
+ * Feeds of a user are discarded when a transaction that changed their shifts, attends or exam rooms commits, and every feed
+ * is discarded when lessons or evaluations are created, edited or removed (see {@link #invalidate(User)},
+ * {@link #invalidateAll()} and {@link TransactionalCache}). Feeds also expire after a few minutes, which bounds the staleness
+ * caused by changes made by other application servers or by the change of the current execution semester.
+ */
+public class CalendarFeedCache {
+
+    private static final long MAX_WEIGHT = 128L * 1024L * 1024L;
+
+    private static final TransactionalCache<User, CalendarFeed> feeds = TransactionalCache.ofWeight("calendar feeds",
+            MAX_WEIGHT, CalendarFeed::getContentLength, 15, TimeUnit.MINUTES);
+
+    static {
+        Registration.getRelationShiftStudent().addListener(new RelationAdapter<Registration, Shift>() {
+            @Override
+            public void afterAdd(Registration registration, Shift shift) {
+                invalidate(registration);
+            }
+
+            @Override
+            public void afterRemove(Registration registration, Shift shift) {
+                invalidate(registration);
+            }
+        });
+        Registration.getRelationAttendsStudent().addListener(new RelationAdapter<Registration, Attends>() {
+            @Override
+            public void afterAdd(Registration registration, Attends attends) {
+                invalidate(registration);
+            }
+
+            @Override
+            public void afterRemove(Registration registration, Attends attends) {
+                invalidate(registration);
+            }
+        });
+        Registration.getRelationWrittenEvaluationEnrolmentStudent().addListener(
+                new RelationAdapter<Registration, WrittenEvaluationEnrolment>() {
+                    @Override
+                    public void afterAdd(Registration registration, WrittenEvaluationEnrolment enrolment) {
+                        invalidate(registration);
+                    }
+
+                    @Override
+                    public void afterRemove(Registration registration, WrittenEvaluationEnrolment enrolment) {
+                        invalidate(registration);
+                    }
+                });
+        Lesson.getRelationLessonShift().addListener(new RelationAdapter<Shift, Lesson>() {
+            @Override
+            public void afterAdd(Shift shift, Lesson lesson) {
+                invalidateAll();
+            }
+
+            @Override
+            public void afterRemove(Shift shift, Lesson lesson) {
+                invalidateAll();
+            }
+        });
+        Evaluation.getRelationEvaluationExecutionCourse().addListener(new RelationAdapter<Evaluation, ExecutionCourse>() {
+            @Override
+            public void afterAdd(Evaluation evaluation, ExecutionCourse executionCourse) {
+                invalidateAll();
+            }
+
+            @Override
+            public void afterRemove(Evaluation evaluation, ExecutionCourse executionCourse) {
+                invalidateAll();
+            }
+        });
+    }
+
+    private CalendarFeedCache() {
+    }
+
+    /**
+     * Returns the serialized feed of the user, building and serializing the calendar only if it is not cached.
+     */
+    public static CalendarFeed get(final User user, final String feed, final DateTime validity,
+            final Supplier<Calendar> calendar) {
+        final String key = feed + ":" + (validity != null ? validity.getMillis() : 0L);
+        return feeds.get(user, key, () -> new CalendarFeed(serialize(calendar.get())));
+    }
+
+    /**
+     * Must be called whenever the events of a single user change. Their feeds are discarded once the running transaction
+     * commits, and are not used by it in the meantime.
+     */
+    public static void invalidate(final User user) {
+        feeds.invalidate(user);
+    }
+
+    /**
+     * Must be called whenever events that may be part of the feeds of many users change, such as lessons or evaluations.
+     */
+    public static void invalidateAll() {
+        feeds.invalidateAll();
+    }
+
+    private static void invalidate(final Registration registration) {
+        if (registration != null && registration.getPerson() != null) {
+            invalidate(registration.getPerson().getUser());
+        }
+    }
+
+    private static byte[] serialize(final Calendar calendar) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream(16 * 1024);
+        try {
+            new CalendarOutputter(false).output(calendar, stream);
+        } catch (IOException | ValidationException e) {
+            throw new RuntimeException(e);
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * A serialized calendar, along with the validators used to answer conditional requests.
+     */
+    public static class CalendarFeed {
+
+        private final byte[] content;
+
+        private final String entityTag;
+
+        private final long lastModified;
+
+        private CalendarFeed(final byte[] content) {
+            this.content = content;
+            this.entityTag = "\"" + Hashing.sha1().hashBytes(content).toString() + "\"";
+            // HTTP dates have a precision of one second
+            this.lastModified = System.currentTimeMillis() / 1000L * 1000L;
+        }
+
+        public int getContentLength() {
+            return content.length;
+        }
+
+        public String getEntityTag() {
+            return entityTag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Whether a client sending the given If-None-Match and If-Modified-Since headers already has this feed. As in RFC
+         * 7232, If-Modified-Since is ignored when If-None-Match is present.
+         */
+        public boolean isNotModified(final String ifNoneMatch, final long ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                for (final String tag : ifNoneMatch.split(",")) {
+                    final String value = tag.trim();
+                    if (value.equals("*") || value.equals(entityTag) || value.equals("W/" + entityTag)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        }
+
+        public void writeTo(final OutputStream stream) throws IOException {
+            stream.write(content);
+        }
+
+    }
+
+}
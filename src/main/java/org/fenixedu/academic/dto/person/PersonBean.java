@@ -722,7 +722,7 @@ public class PersonBean implements Serializable {
 
     @Atomic(mode = TxMode.WRITE)
     public Person save(Person person) {
-        person.getProfile().changeName(this.getGivenNames(), this.getFamilyNames(), null);
+        person.changeName(this.getGivenNames(), this.getFamilyNames(), null);
 
         person.setGender(this.getGender());
         person.setProfession(this.getProfession());
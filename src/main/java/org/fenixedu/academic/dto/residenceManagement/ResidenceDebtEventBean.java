@@ -28,6 +28,8 @@ import org.joda.time.YearMonthDay;
 
 public class ResidenceDebtEventBean extends ResidenceEventBean {
 
+    private static final Pattern DATE_PATTERN = Pattern.compile("^(\\d\\d).(\\d\\d).((\\d\\d){1,2})$");
+
     private Money roomValuePaid;
     private String paidDate;
 
@@ -65,8 +67,7 @@ public class ResidenceDebtEventBean extends ResidenceEventBean {
         }
 
         String date = getPaidDate();
-        Pattern p = Pattern.compile("^(\\d\\d).(\\d\\d).((\\d\\d){1,2})$");
-        Matcher m = p.matcher(date);
+        Matcher m = DATE_PATTERN.matcher(date);
 
         if (!m.matches()) {
             setStatusMessage("label.error.invalid.date");
@@ -88,11 +89,7 @@ public class ResidenceDebtEventBean extends ResidenceEventBean {
             return false;
         }
 
-        for (ResidenceEvent residenceEvent : getMonth().getEventsSet()) {
-            if (residenceEvent.getPerson() != getStudent().getPerson()) {
-                continue;
-            }
-
+        for (ResidenceEvent residenceEvent : getMonth().getEvents(getStudent().getPerson())) {
             if (!residenceEvent.isOpen()) {
                 setStatusMessage("label.error.already.paid");
                 return false;
@@ -0,0 +1,159 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.service.services.administrativeOffice.gradeSubmission;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.fenixedu.academic.domain.Enrolment;
+import org.fenixedu.academic.domain.MarkSheet;
+import org.fenixedu.academic.domain.Person;
+import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.academic.domain.exceptions.InDebtEnrolmentsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+
+/**
+ * Confirms many mark sheets at once, such as all the sheets of a semester.
+ *
+ * The debts of every enrolment are checked up front, in a single read-only pass, and the sheets with unpaid enrolments are
+ * reported without being touched. The remaining sheets are then confirmed one per write transaction, so that each transaction
+ * stays short and a failing sheet neither undoes nor forces to redo the ones already confirmed. The {@link DomainException}s
+ * of each sheet are reported, as thrown, in its outcome; any other failure is not a problem of the sheet, and is propagated
+ * unchanged, leaving the sheets already confirmed as they are.
+ *
+ * Must not be called from within a transaction, otherwise every sheet would be confirmed in the caller's transaction.
+ */
+public class ConfirmMarkSheets {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfirmMarkSheets.class);
+
+    public static List<MarkSheetConfirmation> run(final Collection<MarkSheet> markSheets, final Person person) {
+        final long start = System.currentTimeMillis();
+
+        final List<MarkSheetConfirmation> result = new ArrayList<MarkSheetConfirmation>();
+        int confirmedGrades = 0;
+        for (final Map.Entry<MarkSheet, Set<Enrolment>> entry : findInDebtEnrolments(markSheets).entrySet()) {
+            final MarkSheet markSheet = entry.getKey();
+            final MarkSheetConfirmation confirmation;
+            if (!entry.getValue().isEmpty()) {
+                confirmation = new MarkSheetConfirmation(markSheet, 0, 0L, new InDebtEnrolmentsException(
+                        "EnrolmentEvaluation.cannot.set.grade.on.not.payed.enrolment.evaluation", entry.getValue()));
+            } else {
+                confirmation = confirm(markSheet, person);
+                if (confirmation.isConfirmed()) {
+                    confirmedGrades += confirmation.getNumberOfGrades();
+                }
+            }
+            result.add(confirmation);
+        }
+
+        final long elapsed = System.currentTimeMillis() - start;
+        final long failed = result.stream().filter(confirmation -> !confirmation.isConfirmed()).count();
+        logger.info("Confirmed {} of {} mark sheets ({} grades) in {} ms, {} grades per second", result.size() - failed,
+                result.size(), confirmedGrades, elapsed, elapsed > 0 ? confirmedGrades * 1000L / elapsed : confirmedGrades);
+        return result;
+    }
+
+    @Atomic(mode = TxMode.READ)
+    private static Map<MarkSheet, Set<Enrolment>> findInDebtEnrolments(final Collection<MarkSheet> markSheets) {
+        final Map<MarkSheet, Set<Enrolment>> result = new LinkedHashMap<MarkSheet, Set<Enrolment>>();
+        for (final MarkSheet markSheet : markSheets) {
+            // confirmed sheets are left for the confirmation itself to report
+            result.put(markSheet, markSheet.isNotConfirmed() ? markSheet.getInDebtEnrolments() : Collections
+                    .<Enrolment> emptySet());
+        }
+        return result;
+    }
+
+    private static MarkSheetConfirmation confirm(final MarkSheet markSheet, final Person person) {
+        final long start = System.currentTimeMillis();
+        try {
+            final int grades = confirmInTransaction(markSheet, person);
+            return new MarkSheetConfirmation(markSheet, grades, System.currentTimeMillis() - start, null);
+        } catch (final DomainException e) {
+            return new MarkSheetConfirmation(markSheet, 0, System.currentTimeMillis() - start, e);
+        } catch (final RuntimeException e) {
+            logger.error("Unable to confirm mark sheet " + markSheet.getExternalId(), e);
+            throw e;
+        }
+    }
+
+    @Atomic(mode = TxMode.WRITE)
+    private static int confirmInTransaction(final MarkSheet markSheet, final Person person) {
+        markSheet.confirm(person);
+        return markSheet.getEnrolmentEvaluationsSet().size();
+    }
+
+    /**
+     * Outcome of the confirmation of a single mark sheet.
+     */
+    public static class MarkSheetConfirmation {
+
+        private final MarkSheet markSheet;
+
+        private final int numberOfGrades;
+
+        private final long elapsedMillis;
+
+        private final DomainException error;
+
+        private MarkSheetConfirmation(final MarkSheet markSheet, final int numberOfGrades, final long elapsedMillis,
+                final DomainException error) {
+            this.markSheet = markSheet;
+            this.numberOfGrades = numberOfGrades;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        public MarkSheet getMarkSheet() {
+            return markSheet;
+        }
+
+        public boolean isConfirmed() {
+            return error == null;
+        }
+
+        public int getNumberOfGrades() {
+            return numberOfGrades;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * The reason why the sheet was not confirmed, an {@link InDebtEnrolmentsException} when some of its enrolments are not
+         * payed.
+         */
+        public DomainException getError() {
+            return error;
+        }
+
+    }
+
+}
@@ -18,6 +18,8 @@
  */
 package org.fenixedu.academic.service.services.enrollment.shift;
 
+import java.util.concurrent.locks.Lock;
+
 import org.fenixedu.academic.domain.ExecutionSemester;
 import org.fenixedu.academic.domain.Shift;
 import org.fenixedu.academic.domain.student.Registration;
@@ -86,18 +88,38 @@ public class EnrollStudentInShifts {
 
     private static final EnrollStudentInShifts serviceInstance = new EnrollStudentInShifts();
 
-    @Atomic
     public static ShiftEnrollmentErrorReport runEnrollStudentInShifts(Registration registration, String shiftId)
             throws FenixServiceException, NotAuthorizedException {
+        final Lock admission = ShiftAdmission.acquire(shiftId);
+        try {
+            return enrol(registration, shiftId);
+        } finally {
+            ShiftAdmission.release(admission);
+        }
+    }
+
+    public static ShiftEnrollmentErrorReport runEnrollStudentInShifts(Registration registration, String shiftId,
+            ExecutionSemester executionSemester) throws FenixServiceException, NotAuthorizedException {
+        final Lock admission = ShiftAdmission.acquire(shiftId);
+        try {
+            return enrol(registration, shiftId, executionSemester);
+        } finally {
+            ShiftAdmission.release(admission);
+        }
+    }
+
+    @Atomic
+    private static ShiftEnrollmentErrorReport enrol(Registration registration, String shiftId) throws FenixServiceException,
+            NotAuthorizedException {
         ClassEnrollmentAuthorizationFilter.instance.execute(registration);
         return serviceInstance.run(registration, shiftId);
     }
 
     @Atomic
-    public static ShiftEnrollmentErrorReport runEnrollStudentInShifts(Registration registration, String shiftId,
+    private static ShiftEnrollmentErrorReport enrol(Registration registration, String shiftId,
             ExecutionSemester executionSemester) throws FenixServiceException, NotAuthorizedException {
         ClassEnrollmentAuthorizationFilter.instance.execute(registration, executionSemester);
         return serviceInstance.run(registration, shiftId);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.service.services.enrollment.shift;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.transaction.Synchronization;
+
+import org.fenixedu.academic.service.services.exceptions.FenixServiceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
+import pt.ist.fenixframework.Transaction;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Admission control for shift enrolments.
+ *
+ * Enrolling in a shift reads and writes the set of students of that shift, so concurrent enrolments in the same shift always
+ * conflict and all but one of them are restarted. When shift enrolment opens, thousands of students compete for the same
+ * popular shifts and most of the time is spent restarting transactions. Enrolments in the same shift are instead admitted one
+ * at a time, so that each transaction sees the capacity left by the previous one and commits at the first attempt. The turn
+ * of an enrolment only ends once its transaction has completed, so the next one starts from the committed state.
+ *
+ * Admission is local to this application server, and servlet threads are never parked for long: a request waits at most a
+ * fraction of a second for its turn, and does not wait at all when several requests are already waiting for the same shift.
+ * Requests that are not admitted are rejected, asking the student to try again, instead of competing with the admitted ones.
+ * The capacity of the shift is always checked inside the enrolling transaction, which the STM serializes with every other
+ * enrolment in the same shift, whatever server it comes from, so no shift is ever filled over its capacity.
+ *
+ * There is a lock per shift being enrolled in, which is dropped once no request holds or waits for it.
+ */
+public class ShiftAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftAdmission.class);
+
+    private static final long MAX_WAIT_MILLIS = 200;
+
+    private static final int MAX_WAITING = 4;
+
+    private static final LoadingCache<String, ReentrantLock> locks = CacheBuilder.newBuilder().weakValues()
+            .build(CacheLoader.from(shiftId -> new ReentrantLock()));
+
+    private ShiftAdmission() {
+    }
+
+    /**
+     * Waits briefly for the turn of the caller to enrol in the given shift, failing with an error asking to try again if the
+     * turn does not come. When called inside a transaction the turn ends when that transaction completes, and
+     * <code>null</code> is returned. Otherwise the enrolment must run in a transaction of its own, and the returned lock must
+     * be passed to {@link #release(Lock)} once that transaction finishes.
+     */
+    public static Lock acquire(final String shiftId) throws FenixServiceException {
+        if (shiftId == null) {
+            return null;
+        }
+        final ReentrantLock lock = locks.getUnchecked(shiftId);
+        if (lock.getQueueLength() >= MAX_WAITING || !tryLock(lock)) {
+            throw new FenixServiceException("error.shift.enrollment.busy");
+        }
+
+        final Transaction transaction = FenixFramework.getTransaction();
+        if (transaction == null) {
+            return lock;
+        }
+        try {
+            transaction.registerSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    lock.unlock();
+                }
+            });
+        } catch (final Exception e) {
+            logger.warn("Unable to hold the shift admission until the transaction completes", e);
+            lock.unlock();
+        }
+        return null;
+    }
+
+    public static void release(final Lock lock) {
+        if (lock != null) {
+            lock.unlock();
+        }
+    }
+
+    private static boolean tryLock(final ReentrantLock lock) {
+        try {
+            return lock.tryLock(MAX_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+}
@@ -21,7 +21,7 @@ package org.fenixedu.academic.service.services.person;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import java.util.TreeSet;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -35,6 +35,7 @@ import org.fenixedu.academic.domain.Teacher;
 import org.fenixedu.academic.domain.accounting.PaymentCode;
 import org.fenixedu.academic.domain.degree.DegreeType;
 import org.fenixedu.academic.domain.person.IDDocumentType;
+import org.fenixedu.academic.domain.person.PersonNameIndex;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.student.Student;
@@ -238,6 +239,7 @@ public class SearchPerson implements Serializable {
         }
 
         final Collection<Person> persons;
+        boolean sortedByName = false;
 
         if (searchParameters.getUsername() != null && searchParameters.getUsername().length() > 0) {
 
@@ -270,25 +272,23 @@ public class SearchPerson implements Serializable {
 
             persons = new ArrayList<Person>();
 
-            persons.addAll(Person.findPerson(searchParameters.getName()));
+            if (predicate instanceof SearchPersonPredicate && searchParameters.getNameWords() != null) {
+                // the predicate only accepts persons having every name word, which are exactly the ones found in the index
+                persons.addAll(PersonNameIndex.find(searchParameters.getNameWords()));
+                sortedByName = true;
+            } else {
+                persons.addAll(Person.findPerson(searchParameters.getName()));
+            }
             final RoleType roleBd = searchParameters.getRole();
             if (roleBd != null) {
-                for (final Iterator<Person> peopleIterator = persons.iterator(); peopleIterator.hasNext();) {
-                    final Person person = peopleIterator.next();
-                    if (!roleBd.isMember(person.getUser())) {
-                        peopleIterator.remove();
-                    }
-                }
+                persons.removeIf(person -> !roleBd.isMember(person.getUser()));
             }
             final Department department = searchParameters.getDepartment();
             if (department != null) {
-                for (final Iterator<Person> peopleIterator = persons.iterator(); peopleIterator.hasNext();) {
-                    final Person person = peopleIterator.next();
+                persons.removeIf(person -> {
                     final Teacher teacher = person.getTeacher();
-                    if (teacher == null || teacher.getDepartment() != department) {
-                        peopleIterator.remove();
-                    }
-                }
+                    return teacher == null || teacher.getDepartment() != department;
+                });
             }
         } else if (!StringUtils.isEmpty(searchParameters.getPaymentCode())) {
             persons = new ArrayList<Person>();
@@ -302,6 +302,12 @@ public class SearchPerson implements Serializable {
             persons = new ArrayList<Person>(0);
         }
 
+        if (sortedByName) {
+            final List<Person> result = new ArrayList<Person>();
+            CollectionUtils.select(persons, predicate, result);
+            return new CollectionPager<Person>(result, 25);
+        }
+
         TreeSet<Person> result = new TreeSet<Person>(Person.COMPARATOR_BY_NAME_AND_ID);
         result.addAll(CollectionUtils.select(persons, predicate));
         return new CollectionPager<Person>(result, 25);
@@ -23,17 +23,40 @@ import java.util.List;
 import org.fenixedu.academic.domain.accounting.ResidenceEvent;
 import org.fenixedu.academic.domain.residence.ResidenceMonth;
 import org.fenixedu.academic.dto.residenceManagement.ResidenceEventBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+
+import com.google.common.collect.Lists;
 
 public class CreateResidenceEvents {
 
-    @Atomic
+    private static final Logger logger = LoggerFactory.getLogger(CreateResidenceEvents.class);
+
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * Creates the events of the imported residents in transactions of a few residents each, so that importing a full
+     * residence does not hold a single long transaction. Residents that already have an event for the month are skipped, so
+     * an interrupted import only has to be repeated.
+     */
     public static void run(List<ResidenceEventBean> beans, ResidenceMonth month) {
+        int processed = 0;
+        for (List<ResidenceEventBean> batch : Lists.partition(beans, BATCH_SIZE)) {
+            createEvents(batch, month);
+            processed += batch.size();
+            logger.debug("Processed {} of {} residents of month {}", processed, beans.size(), month.getExternalId());
+        }
+    }
+
+    @Atomic(mode = TxMode.WRITE)
+    private static void createEvents(List<ResidenceEventBean> beans, ResidenceMonth month) {
         for (ResidenceEventBean bean : beans) {
             if (!month.isEventPresent(bean.getStudent().getPerson())) {
                 new ResidenceEvent(month, bean.getStudent().getPerson(), bean.getRoomValue(), bean.getRoom());
             }
         }
     }
-}
\ No newline at end of file
+}
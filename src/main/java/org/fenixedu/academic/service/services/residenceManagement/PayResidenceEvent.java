@@ -18,19 +18,53 @@
  */
 package org.fenixedu.academic.service.services.residenceManagement;
 
+import java.util.List;
+
 import org.fenixedu.academic.domain.accounting.PaymentMode;
 import org.fenixedu.academic.domain.accounting.ResidenceEvent;
 import org.fenixedu.academic.dto.accounting.AccountingTransactionDetailDTO;
+import org.fenixedu.academic.dto.residenceManagement.ResidenceDebtEventBean;
+import org.fenixedu.academic.dto.residenceManagement.ResidenceEventBean;
 import org.fenixedu.bennu.core.domain.User;
 import org.joda.time.YearMonthDay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import pt.ist.fenixframework.Atomic;
+import pt.ist.fenixframework.Atomic.TxMode;
+
+import com.google.common.collect.Lists;
 
 public class PayResidenceEvent {
 
+    private static final Logger logger = LoggerFactory.getLogger(PayResidenceEvent.class);
+
+    private static final int BATCH_SIZE = 50;
+
     @Atomic
     public static void run(User user, ResidenceEvent event, YearMonthDay date) {
         event.process(user, event.calculateEntries(), new AccountingTransactionDetailDTO(date.toDateTimeAtMidnight(),
                 PaymentMode.CASH));
     }
-}
\ No newline at end of file
+
+    /**
+     * Pays the events of the imported payments in transactions of a few payments each. Payed events are reported as such when
+     * the file is imported again, so an interrupted import only has to be repeated.
+     */
+    public static void run(User user, List<ResidenceEventBean> payments) {
+        int processed = 0;
+        for (List<ResidenceEventBean> batch : Lists.partition(payments, BATCH_SIZE)) {
+            pay(user, batch);
+            processed += batch.size();
+            logger.debug("Processed {} of {} residence payments", processed, payments.size());
+        }
+    }
+
+    @Atomic(mode = TxMode.WRITE)
+    private static void pay(User user, List<ResidenceEventBean> payments) {
+        for (ResidenceEventBean payment : payments) {
+            ResidenceDebtEventBean debtEvent = (ResidenceDebtEventBean) payment;
+            run(user, debtEvent.getEventObject(), debtEvent.getPaidDateObject());
+        }
+    }
+}
@@ -18,7 +18,15 @@
  */
 package org.fenixedu.academic.task;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.fenixedu.academic.domain.ExecutionDegree;
 import org.fenixedu.academic.domain.ExecutionYear;
@@ -31,51 +39,154 @@ import org.fenixedu.commons.i18n.I18N;
 
 import pt.ist.fenixframework.Atomic;
 import pt.ist.fenixframework.Atomic.TxMode;
+import pt.ist.fenixframework.FenixFramework;
 
 @Deprecated
 @Task(englishTitle = "CreateGratuityEvents", readOnly = true)
 public class CreateGratuityEvents extends CronTask {
 
-    private int GratuityEvent_TOTAL_CREATED = 0;
+    private static final int BATCH = 50;
 
-    private void generateGratuityEventsForAllStudents(final ExecutionYear executionYear) {
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private static final int PROGRESS_INTERVAL = 20;
+
+    private static final Locale LOCALE = new Locale("PT", "pt");
+
+    private List<String> getStudentCurricularPlansToProcess(final ExecutionYear executionYear) {
+        final List<String> result = new ArrayList<String>();
         for (final ExecutionDegree executionDegree : executionYear.getExecutionDegreesSet()) {
             for (final StudentCurricularPlan studentCurricularPlan : executionDegree.getDegreeCurricularPlan()
                     .getStudentCurricularPlansSet()) {
-                generateGratuityEvents(executionYear, studentCurricularPlan);
+                if (studentCurricularPlan.isBolonhaDegree() && studentCurricularPlan.hasRegistration()) {
+                    result.add(studentCurricularPlan.getExternalId());
+                }
             }
         }
+        return result;
     }
 
-    private void generateGratuityEvents(final ExecutionYear executionYear, final StudentCurricularPlan studentCurricularPlan) {
+    /*
+     * Plans are split in batches of BATCH plans, each batch created in a
+     * single write transaction by one of WORKERS threads. Results are
+     * consumed in submission order by the task thread, which is the only one
+     * writing to the task log.
+     */
+    private void generateGratuityEventsForAllStudents(final ExecutionYear executionYear) {
+        final List<String> studentCurricularPlans = getStudentCurricularPlansToProcess(executionYear);
+        taskLog("Processing %s student curricular plans in batches of %s with %s workers\n", studentCurricularPlans.size(),
+                BATCH, WORKERS);
+
+        final long start = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            final List<Future<BatchResult>> batches = new ArrayList<Future<BatchResult>>();
+            for (int i = 0; i < studentCurricularPlans.size(); i += BATCH) {
+                final List<String> batch =
+                        studentCurricularPlans.subList(i, Math.min(i + BATCH, studentCurricularPlans.size()));
+                batches.add(executor.submit(() -> generateGratuityEvents(executionYear, batch)));
+            }
 
-        if (!studentCurricularPlan.isBolonhaDegree() || !studentCurricularPlan.hasRegistration()) {
-            return;
+            int processed = 0;
+            int created = 0;
+            int failed = 0;
+            int fallbacks = 0;
+            for (int i = 0; i < batches.size(); i++) {
+                final BatchResult result = batches.get(i).get();
+                processed += result.processed;
+                created += result.created;
+                failed += result.failed;
+                fallbacks += result.fallback ? 1 : 0;
+                if (result.errors.length() > 0) {
+                    taskLog("%s", result.errors);
+                }
+                if ((i + 1) % PROGRESS_INTERVAL == 0 || i + 1 == batches.size()) {
+                    final long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                    taskLog("Processed %s/%s plans in %ss (%.1f plans/s): %s created, %s failed, %s batches retried per plan\n",
+                            processed, studentCurricularPlans.size(), elapsed / 1000, processed * 1000d / elapsed, created,
+                            failed, fallbacks);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        generateGratuityEvent(studentCurricularPlan, executionYear);
+    private BatchResult generateGratuityEvents(final ExecutionYear executionYear, final List<String> studentCurricularPlans) {
+        I18N.setLocale(LOCALE);
+        final BatchResult result = new BatchResult();
+        try {
+            result.created = generateGratuityEventsInBatch(executionYear, studentCurricularPlans);
+            result.processed = studentCurricularPlans.size();
+        } catch (Exception e) {
+            // the batch was rolled back, retry each plan in its own transaction to isolate the failing ones
+            result.fallback = true;
+            for (final String studentCurricularPlan : studentCurricularPlans) {
+                try {
+                    if (generateGratuityEvent(executionYear, studentCurricularPlan)) {
+                        result.created++;
+                    }
+                } catch (Exception ex) {
+                    result.failed++;
+                    result.addError(studentCurricularPlan, ex);
+                }
+                result.processed++;
+            }
+        }
+        return result;
     }
 
     @Atomic(mode = TxMode.WRITE)
-    private void generateGratuityEvent(StudentCurricularPlan studentCurricularPlan, ExecutionYear executionYear) {
-        try {
-            final AccountingEventsManager manager = new AccountingEventsManager();
+    private int generateGratuityEventsInBatch(final ExecutionYear executionYear, final List<String> studentCurricularPlans) {
+        int created = 0;
+        for (final String studentCurricularPlan : studentCurricularPlans) {
+            if (createGratuityEvent(executionYear, studentCurricularPlan)) {
+                created++;
+            }
+        }
+        return created;
+    }
 
-            final InvocationResult result = manager.createGratuityEvent(studentCurricularPlan, executionYear);
+    @Atomic(mode = TxMode.WRITE)
+    private boolean generateGratuityEvent(final ExecutionYear executionYear, final String studentCurricularPlan) {
+        return createGratuityEvent(executionYear, studentCurricularPlan);
+    }
 
-            if (result.isSuccess()) {
-                GratuityEvent_TOTAL_CREATED++;
-            }
-        } catch (Exception e) {
-            taskLog("Exception on student curricular plan with oid : %s\n", studentCurricularPlan.getExternalId());
-            e.printStackTrace(getTaskLogWriter());
+    private boolean createGratuityEvent(final ExecutionYear executionYear, final String studentCurricularPlanId) {
+        final StudentCurricularPlan studentCurricularPlan = FenixFramework.getDomainObject(studentCurricularPlanId);
+        final AccountingEventsManager manager = new AccountingEventsManager();
+        final InvocationResult result = manager.createGratuityEvent(studentCurricularPlan, executionYear);
+        return result.isSuccess();
+    }
+
+    private static class BatchResult {
+
+        private int processed = 0;
+
+        private int created = 0;
+
+        private int failed = 0;
+
+        private boolean fallback = false;
+
+        private final StringBuilder errors = new StringBuilder();
+
+        private void addError(final String studentCurricularPlan, final Exception e) {
+            final StringWriter writer = new StringWriter();
+            e.printStackTrace(new PrintWriter(writer));
+            errors.append(String.format("Exception on student curricular plan with oid : %s\n", studentCurricularPlan));
+            errors.append(writer.toString());
         }
     }
 
     @Override
     public void runTask() {
-        I18N.setLocale(new Locale("PT", "pt"));
+        I18N.setLocale(LOCALE);
         generateGratuityEventsForAllStudents(ExecutionYear.readCurrentExecutionYear());
-        taskLog("Created %s GratuityEvent events\n", GratuityEvent_TOTAL_CREATED);
     }
 }
@@ -18,18 +18,90 @@
  */
 package org.fenixedu.academic.task;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.fenixedu.academic.domain.Alert;
-import org.fenixedu.bennu.core.domain.Bennu;
+import org.fenixedu.academic.domain.AlertSchedule;
+import org.fenixedu.academic.domain.util.CommittedState;
 import org.fenixedu.bennu.scheduler.CronTask;
 import org.fenixedu.bennu.scheduler.annotation.Task;
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import pt.ist.fenixframework.FenixFramework;
 
-@Task(englishTitle = "FireAlerts")
+/**
+ * Checks the alerts that are due according to the {@link AlertSchedule}, in batches that run in their own short write
+ * transactions, so that each run only pays for the alerts that may fire. When a batch fails, each of its alerts is checked
+ * again in a transaction of its own, so that a failing alert does not keep the others of its batch from being checked.
+ */
+@Task(englishTitle = "FireAlerts", readOnly = true)
 public class FireAlerts extends CronTask {
 
+    private static final Logger logger = LoggerFactory.getLogger(FireAlerts.class);
+
+    private static final int BATCH_SIZE = 50;
+
     @Override
     public void runTask() {
-        for (final Alert alert : Bennu.getInstance().getActiveAlertsSet()) {
-            alert.fire();
+        final DateTime now = new DateTime();
+        final List<String> due = new ArrayList<String>();
+        long maxDelay = 0L;
+        for (final Alert alert : AlertSchedule.getDue(now)) {
+            due.add(alert.getExternalId());
+            if (alert.getNextCheck() != null) {
+                maxDelay = Math.max(maxDelay, now.getMillis() - alert.getNextCheck().getMillis());
+            }
+        }
+        taskLog("Due alerts: %s of %s scheduled, most overdue by %s ms\n", due.size(), AlertSchedule.getScheduledCount(),
+                maxDelay);
+
+        int failed = 0;
+        for (int i = 0; i < due.size(); i += BATCH_SIZE) {
+            final List<String> batch = due.subList(i, Math.min(i + BATCH_SIZE, due.size()));
+            if (!checkInNewTransaction(batch)) {
+                for (final String externalId : batch) {
+                    if (!checkInNewTransaction(Collections.singletonList(externalId))) {
+                        failed++;
+                    }
+                }
+            }
+        }
+
+        taskLog("Checked %s alerts in %s ms, %s failed\n", due.size(), System.currentTimeMillis() - now.getMillis(), failed);
+    }
+
+    /*
+     * The task runs in a read-only transaction, so the alerts are checked in a write transaction of their own instead of
+     * joining the one of the task.
+     */
+    private static boolean checkInNewTransaction(final List<String> externalIds) {
+        try {
+            CommittedState.write(() -> {
+                check(externalIds);
+                return null;
+            });
+            return true;
+        } catch (final RuntimeException | Error e) {
+            if (externalIds.size() == 1) {
+                logger.error("Unable to check alert " + externalIds.get(0), e);
+            } else {
+                logger.warn("Unable to check batch of " + externalIds.size() + " alerts, checking them one by one", e);
+            }
+            return false;
+        }
+    }
+
+    private static void check(final List<String> externalIds) {
+        for (final String externalId : externalIds) {
+            final Alert alert = FenixFramework.getDomainObject(externalId);
+            // may have been discarded since the schedule was read
+            if (alert.getRootDomainObjectForActiveAlerts() != null) {
+                alert.check();
+            }
         }
     }
 
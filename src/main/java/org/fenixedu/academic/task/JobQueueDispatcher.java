@@ -18,6 +18,7 @@
  */
 package org.fenixedu.academic.task;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -25,8 +26,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.fenixedu.academic.domain.QueueJob;
+import org.fenixedu.academic.domain.QueueJobProgress;
 import org.fenixedu.academic.domain.QueueJobResult;
 import org.fenixedu.academic.domain.QueueJobResultFile;
 import org.fenixedu.academic.domain.QueueJobWithFile;
@@ -36,12 +42,49 @@ import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.scheduler.CronTask;
 import org.fenixedu.bennu.scheduler.annotation.Task;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import pt.ist.fenixframework.Atomic;
 import pt.ist.fenixframework.Atomic.TxMode;
+import pt.ist.fenixframework.FenixFramework;
 
+/**
+ * Runs the undone {@link QueueJob}s on a bounded pool of workers, jobs with fewer failures and higher priority first.
+ *
+ * Each run of the task only hands the best undone jobs to the idle workers and logs the state of the queue; a worker that
+ * finishes a job takes the next one without waiting for the next run. A job is computed in a read-only transaction and only
+ * its result is stored in a short write transaction, so long reports do not hold (or restart) a write transaction.
+ *
+ * A worker claims a job by setting its start time, and only if no worker of any server claimed it in the last
+ * {@value #CLAIM_TIMEOUT_HOURS} hours; after that the claim is considered lost with its server. A job that fails is only
+ * retried by the next run of the task, and once it failed {@value #MAX_FAILURES} times, at most once every
+ * {@value #RETRY_INTERVAL_HOURS} hours, so a job that always fails does not keep a worker busy.
+ */
 @Task(englishTitle = "JobQueueDispatcher", readOnly = true)
 public class JobQueueDispatcher extends CronTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobQueueDispatcher.class);
+
+    private static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final AtomicInteger workerCounter = new AtomicInteger();
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(WORKERS, runnable -> {
+        final Thread thread = new Thread(runnable, "QueueJob worker " + workerCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static final int MAX_FAILURES = 3;
+
+    static final int RETRY_INTERVAL_HOURS = 1;
+
+    static final int CLAIM_TIMEOUT_HOURS = 2;
+
+    /* external ids of the jobs handed to the workers that did not finish yet */
+    private static final Set<String> running = ConcurrentHashMap.newKeySet();
+
     private static class QueueComparator implements Comparator<QueueJob> {
         @Override
         public int compare(final QueueJob queueJob1, final QueueJob queueJob2) {
@@ -63,36 +106,169 @@ public class JobQueueDispatcher extends CronTask {
 
     @Override
     public void runTask() {
-        final Set<QueueJob> undoneJobs = Bennu.getInstance().getQueueJobUndoneSet();
-        final QueueJob queueJob = undoneJobs.isEmpty() ? null : Collections.min(undoneJobs, new QueueComparator());
-        if (queueJob != null) {
+        final List<QueueJob> dispatched = dispatch();
+        for (final QueueJob queueJob : dispatched) {
+            taskLog("Dispatched: %s (%s) requested by %s on %s\n", queueJob.getClass().getName(), queueJob.getExternalId(),
+                    getQueueJobResponsibleName(queueJob), queueJob.getRequestDate());
+        }
+        taskLog("Queue depth: %s undone jobs, %s running on %s workers\n", Bennu.getInstance().getQueueJobUndoneSet().size(),
+                running.size(), WORKERS);
+        for (final QueueJobProgress progress : QueueJobProgress.getRunning()) {
+            taskLog("%s\n", progress);
+        }
+    }
+
+    /*
+     * Hands the undone jobs with the highest precedence to the idle workers. A job already finished or claimed by a transaction
+     * that committed after the current one started may still be seen as available here, so workers check it again before
+     * running it.
+     */
+    private static List<QueueJob> dispatch() {
+        final List<QueueJob> dispatched = new ArrayList<QueueJob>();
+        synchronized (running) {
+            if (running.size() >= WORKERS) {
+                return dispatched;
+            }
+            final List<QueueJob> undoneJobs = new ArrayList<QueueJob>(Bennu.getInstance().getQueueJobUndoneSet());
+            Collections.sort(undoneJobs, new QueueComparator());
+            final DateTime now = new DateTime();
+            for (final QueueJob queueJob : undoneJobs) {
+                if (running.size() >= WORKERS) {
+                    break;
+                }
+                if (!isDispatchable(queueJob.getFailedCounter(), queueJob.getJobStartTime(), queueJob.getJobEndTime(), now)) {
+                    continue;
+                }
+                final String externalId = queueJob.getExternalId();
+                if (running.add(externalId)) {
+                    dispatched.add(queueJob);
+                    executor.execute(() -> process(externalId));
+                }
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Whether a job may be handed to a worker: it is not claimed by a worker of any server, and it did not fail too many times
+     * lately.
+     */
+    static boolean isDispatchable(final Integer failedCounter, final DateTime jobStartTime, final DateTime jobEndTime,
+            final DateTime now) {
+        if (isClaimed(jobStartTime, jobEndTime, now)) {
+            return false;
+        }
+        return failedCounter == null || failedCounter < MAX_FAILURES || jobEndTime == null
+                || !jobEndTime.plusHours(RETRY_INTERVAL_HOURS).isAfter(now);
+    }
+
+    /**
+     * Whether a worker started the job, and did not finish or fail it, in the last {@value #CLAIM_TIMEOUT_HOURS} hours.
+     */
+    static boolean isClaimed(final DateTime jobStartTime, final DateTime jobEndTime, final DateTime now) {
+        return jobStartTime != null && (jobEndTime == null || jobStartTime.isAfter(jobEndTime))
+                && jobStartTime.plusHours(CLAIM_TIMEOUT_HOURS).isAfter(now);
+    }
+
+    @Atomic(mode = TxMode.READ)
+    private static void dispatchNext() {
+        dispatch();
+    }
+
+    /*
+     * The worker only takes the next job when this one was finished or skipped; a failed job waits for the next run of the
+     * task, which puts it after the jobs that did not fail.
+     */
+    private static void process(final String externalId) {
+        final QueueJob queueJob = FenixFramework.getDomainObject(externalId);
+        boolean next = false;
+        try {
+            final String description = start(queueJob);
+            if (description == null) {
+                next = true;
+                return;
+            }
+            QueueJobProgress.started(queueJob, description);
+            logger.info("Started: {}", description);
+            final long begin = System.currentTimeMillis();
+            QueueJobResult result = null;
             try {
-                taskLog("Started: %s (%s) requested by %s on %s\n", queueJob.getClass().getName(), queueJob.getExternalId(),
-                        getQueueJobResponsibleName(queueJob), queueJob.getRequestDate());
-                runJob(queueJob);
-                taskLog("Finished Successfully\n");
+                result = compute(queueJob);
+                if (finish(queueJob, result)) {
+                    logger.info("Finished successfully in {} ms: {}", System.currentTimeMillis() - begin, description);
+                } else {
+                    logger.info("Discarded the result of a job done or cancelled meanwhile: {}", description);
+                }
+                next = true;
             } catch (Throwable e) {
-                fail(queueJob, e);
-                taskLog("Failed %s times\n", queueJob.getFailedCounter());
-                throw new Error(e);
+                final int failedCounter = fail(queueJob, e);
+                logger.error("Failed " + failedCounter + " times in " + (System.currentTimeMillis() - begin) + " ms: "
+                        + description, e);
+            } finally {
+                QueueJobProgress.finished(queueJob);
+                if (result != null) {
+                    result.discard();
+                }
+            }
+        } catch (Throwable e) {
+            logger.error("Unable to run job " + externalId, e);
+        } finally {
+            running.remove(externalId);
+            if (next) {
+                try {
+                    dispatchNext();
+                } catch (Throwable e) {
+                    logger.error("Unable to dispatch the next job", e);
+                }
             }
         }
     }
 
-    public String getQueueJobResponsibleName(final QueueJob queueJob) {
+    public static String getQueueJobResponsibleName(final QueueJob queueJob) {
         return queueJob.getPerson() != null ? queueJob.getPerson().getName() + "(" + queueJob.getPerson().getUsername() + ")" : "system";
     }
 
+    /*
+     * Claims the job, returning its description, or null if it was meanwhile done, cancelled or claimed by another worker.
+     * Concurrent claims of the same job conflict, so only one of them commits.
+     */
     @Atomic(mode = TxMode.WRITE)
-    protected void runJob(QueueJob job) throws Exception {
+    protected static String start(final QueueJob job) {
+        if (job.getDone() || job.getRootDomainObjectQueueUndone() == null
+                || isClaimed(job.getJobStartTime(), job.getJobEndTime(), new DateTime())) {
+            return null;
+        }
         job.setJobStartTime(new DateTime());
-        QueueJobResult result = job.execute();
+        return String.format("%s (%s) requested by %s on %s", job.getClass().getName(), job.getExternalId(),
+                getQueueJobResponsibleName(job), job.getRequestDate());
+    }
+
+    @Atomic(mode = TxMode.SPECULATIVE_READ)
+    protected static QueueJobResult compute(final QueueJob job) throws Exception {
+        return job.execute();
+    }
+
+    /*
+     * Stores the result of the job and marks it as done, unless it was meanwhile done or cancelled, in which case the result is
+     * dropped and false is returned.
+     */
+    @Atomic(mode = TxMode.WRITE)
+    protected static boolean finish(final QueueJob job, final QueueJobResult result) throws IOException {
+        if (job.getDone() || job.getRootDomainObjectQueueUndone() == null) {
+            return false;
+        }
         if (job instanceof QueueJobWithFile) {
             final QueueJobWithFile queueJobWithFile = (QueueJobWithFile) job;
             queueJobWithFile.setContentType(result.getContentType());
-            QueueJobResultFile.store(queueJobWithFile, queueJobWithFile.getPerson(), queueJobWithFile.getFilename(),
-                    result.getContent());
+            if (result.getContentFile() != null) {
+                QueueJobResultFile.store(queueJobWithFile, queueJobWithFile.getPerson(), queueJobWithFile.getFilename(),
+                        result.getContentFile());
+            } else {
+                QueueJobResultFile.store(queueJobWithFile, queueJobWithFile.getPerson(), queueJobWithFile.getFilename(),
+                        result.getContent());
+            }
         }
+        job.storeResult(result);
         job.setDone(true);
         job.setRootDomainObjectQueueUndone(null);
         job.setJobEndTime(new DateTime());
@@ -103,10 +279,11 @@ public class JobQueueDispatcher extends CronTask {
             String body = "O seu pedido de " + job.getDescription() + " já se encontra disponível no sistema Fénix.";
             new Message(Bennu.getInstance().getSystemSender(), job.getPerson().getEmailForSendingEmails(), subject, body);
         }
+        return true;
     }
 
     @Atomic(mode = TxMode.WRITE)
-    protected void fail(final QueueJob job, Throwable t) {
+    protected static int fail(final QueueJob job, Throwable t) {
         job.setFailedCounter(job.getFailedCounter() + 1);
         job.setJobEndTime(new DateTime());
         if (job.getFailedCounter() == 3) {
@@ -121,5 +298,6 @@ public class JobQueueDispatcher extends CronTask {
             new Message(Bennu.getInstance().getSystemSender(), Bennu.getInstance().getSystemSender()
                     .getRoleRecipient(RoleType.MANAGER), subject, body);
         }
+        return job.getFailedCounter();
     }
 }
\ No newline at end of file
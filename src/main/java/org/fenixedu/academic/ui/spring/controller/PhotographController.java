@@ -19,11 +19,10 @@
 package org.fenixedu.academic.ui.spring.controller;
 
 import java.io.IOException;
-import java.io.InputStream;
 
 import org.fenixedu.academic.domain.Photograph;
 import org.fenixedu.academic.domain.photograph.PictureMode;
-import org.fenixedu.bennu.core.domain.Avatar;
+import org.fenixedu.academic.domain.photograph.PictureRenditionCache;
 import org.fenixedu.bennu.core.domain.User;
 import org.fenixedu.bennu.core.domain.exceptions.BennuCoreDomainException;
 import org.joda.time.DateTime;
@@ -49,9 +48,9 @@ public class PhotographController {
         if (size <= 0) {
             size = 100;
         }
-        if (size > 512) {
-            size = 512;
-        }
+        // the requested size is rounded up to the nearest rendition size (e.g. 60 to 64) and that rendition is served as is,
+        // so clients must scale it down themselves; the rounded size is part of the etag
+        size = PictureRenditionCache.renditionSize(size);
 
         User user = User.findByUsername(username);
 
@@ -73,11 +72,9 @@ public class PhotographController {
                 headers.set("Content-Type", personalPhoto.getOriginal().getPictureFileFormat().getMimeType());
                 return new ResponseEntity<>(personalPhoto.getCustomAvatar(size, size, PictureMode.ZOOM), headers, HttpStatus.OK);
             } else {
-                try (InputStream mm =
-                        PhotographController.class.getClassLoader().getResourceAsStream("META-INF/resources/img/mysteryman.png")) {
-                    headers.set("Content-Type", "image/png");
-                    return new ResponseEntity<>(Avatar.process(mm, "image/png", size), headers, HttpStatus.OK);
-                }
+                headers.set("Content-Type", "image/png");
+                final byte[] mysteryMan = Photograph.mysteryManPhoto(1, 1, size, size, PictureMode.FIT);
+                return new ResponseEntity<>(mysteryMan, headers, HttpStatus.OK);
             }
         }
 
@@ -19,7 +19,6 @@
 package org.fenixedu.academic.ui.struts.action;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -43,6 +42,8 @@ import org.fenixedu.academic.domain.WrittenEvaluation;
 import org.fenixedu.academic.domain.person.RoleType;
 import org.fenixedu.academic.domain.student.Registration;
 import org.fenixedu.academic.domain.util.icalendar.CalendarFactory;
+import org.fenixedu.academic.domain.util.icalendar.CalendarFeedCache;
+import org.fenixedu.academic.domain.util.icalendar.CalendarFeedCache.CalendarFeed;
 import org.fenixedu.academic.domain.util.icalendar.EventBean;
 import org.fenixedu.academic.ui.struts.action.base.FenixDispatchAction;
 import org.fenixedu.academic.ui.struts.action.exceptions.FenixActionException;
@@ -170,14 +171,11 @@ public class ICalendarSyncPoint extends FenixDispatchAction {
         return allEvents;
     }
 
-    private Calendar getCalendar(String method, User user, DateTime validity, HttpServletRequest request)
-            throws FenixActionException {
-        if (method == "syncClasses") {
+    private Calendar getCalendar(String method, User user, DateTime validity, HttpServletRequest request) {
+        if ("syncClasses".equals(method)) {
             return getClassCalendar(user, validity, request);
-        } else if (method == "syncExams") {
-            return getExamsCalendar(user, validity, request);
         } else {
-            throw new FenixActionException("unexpected.syncing.method");
+            return getExamsCalendar(user, validity, request);
         }
     }
 
@@ -190,6 +188,9 @@ public class ICalendarSyncPoint extends FenixDispatchAction {
         if (userId == null || payload == null || regId == null) {
             throw new FenixActionException("error.expecting.parameter.not.found");
         }
+        if (!"syncClasses".equals(method) && !"syncExams".equals(method)) {
+            throw new FenixActionException("unexpected.syncing.method");
+        }
 
         final DomainObject object = FenixFramework.getDomainObject(regId);
         if (object instanceof Registration) {
@@ -203,8 +204,10 @@ public class ICalendarSyncPoint extends FenixDispatchAction {
                     } else {
                         if (RoleType.STUDENT.isMember(user.getPerson().getUser())) {
 
-                            encodeAndTransmitResponse(httpServletResponse,
-                                    getCalendar(method, user, user.getPrivateKey().getPrivateKeyValidity(), request));
+                            final DateTime validity = user.getPrivateKey().getPrivateKeyValidity();
+                            final CalendarFeed feed = CalendarFeedCache.get(user, method, validity,
+                                    () -> getCalendar(method, user, validity, request));
+                            encodeAndTransmitResponse(request, httpServletResponse, feed);
 
                         } else {
                             returnError(httpServletResponse, "user.is.not.student");
@@ -239,11 +242,28 @@ public class ICalendarSyncPoint extends FenixDispatchAction {
         httpServletResponse.getWriter().write(error);
     }
 
-    private void encodeAndTransmitResponse(HttpServletResponse httpServletResponse, Calendar calendar) throws Exception {
+    private void encodeAndTransmitResponse(HttpServletRequest request, HttpServletResponse httpServletResponse,
+            CalendarFeed feed) throws IOException {
+        httpServletResponse.setHeader("ETag", feed.getEntityTag());
+        httpServletResponse.setDateHeader("Last-Modified", feed.getLastModified());
+        httpServletResponse.setHeader("Cache-Control", "private, no-cache");
+
+        if (feed.isNotModified(request.getHeader("If-None-Match"), getIfModifiedSince(request))) {
+            httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
         httpServletResponse.setHeader("Content-Type", "text/calendar; charset=" + CharEncoding.UTF_8);
+        httpServletResponse.setContentLength(feed.getContentLength());
+        feed.writeTo(httpServletResponse.getOutputStream());
+        httpServletResponse.getOutputStream().close();
+    }
 
-        final OutputStream outputStream = httpServletResponse.getOutputStream();
-        outputStream.write(calendar.toString().getBytes(CharEncoding.UTF_8));
-        outputStream.close();
+    private long getIfModifiedSince(HttpServletRequest request) {
+        try {
+            return request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
     }
 }
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,7 @@ import org.apache.struts.util.LabelValueBean;
 import org.fenixedu.academic.domain.CurricularCourse;
 import org.fenixedu.academic.domain.Degree;
 import org.fenixedu.academic.domain.DegreeCurricularPlan;
+import org.fenixedu.academic.domain.Enrolment;
 import org.fenixedu.academic.domain.EnrolmentEvaluation;
 import org.fenixedu.academic.domain.EvaluationSeason;
 import org.fenixedu.academic.domain.ExecutionSemester;
@@ -51,9 +53,12 @@ import org.fenixedu.academic.domain.MarkSheetState;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicAccessRule;
 import org.fenixedu.academic.domain.accessControl.academicAdministration.AcademicOperationType;
 import org.fenixedu.academic.domain.exceptions.DomainException;
+import org.fenixedu.academic.domain.exceptions.InDebtEnrolmentsException;
 import org.fenixedu.academic.dto.degreeAdministrativeOffice.gradeSubmission.MarkSheetManagementSearchBean;
 import org.fenixedu.academic.dto.degreeAdministrativeOffice.gradeSubmission.MarkSheetSearchResultBean;
 import org.fenixedu.academic.predicate.AccessControl;
+import org.fenixedu.academic.service.services.administrativeOffice.gradeSubmission.ConfirmMarkSheets;
+import org.fenixedu.academic.service.services.administrativeOffice.gradeSubmission.ConfirmMarkSheets.MarkSheetConfirmation;
 import org.fenixedu.academic.service.services.administrativeOffice.gradeSubmission.SearchMarkSheets;
 import org.fenixedu.academic.service.services.exceptions.FenixServiceException;
 import org.fenixedu.academic.service.services.exceptions.InvalidArgumentsServiceException;
@@ -82,6 +87,7 @@ import pt.ist.fenixframework.FenixFramework;
 @Forward(name = "searchMarkSheetFilled",
         path = "/academicAdministration/markSheetManagement.do?method=prepareSearchMarkSheetFilled")
 @Forward(name = "confirmMarkSheet", path = "/academicAdministration/gradeSubmission/confirmMarkSheet.jsp")
+@Forward(name = "confirmMarkSheets", path = "/academicAdministration/gradeSubmission/confirmMarkSheets.jsp")
 @Forward(name = "listMarkSheet", path = "/manager/markSheet/viewMarkSheet.jsp")
 @Forward(name = "choosePrinterMarkSheetsWeb", path = "/academicAdministration/gradeSubmission/choosePrinterMarkSheetsWeb_bd.jsp")
 public class MarkSheetSearchDispatchAction extends MarkSheetDispatchAction {
@@ -180,6 +186,82 @@ public class MarkSheetSearchDispatchAction extends MarkSheetDispatchAction {
         return stringBuilder.toString();
     }
 
+    public ActionForward prepareConfirmMarkSheets(ActionMapping mapping, ActionForm actionForm, HttpServletRequest request,
+            HttpServletResponse response) throws FenixServiceException {
+        MarkSheetManagementSearchBean searchBean = new MarkSheetManagementSearchBean();
+        fillMarkSheetSearchBean(actionForm, request, searchBean);
+
+        List<MarkSheet> markSheets = getConfirmableMarkSheets(searchBean);
+        if (markSheets.isEmpty()) {
+            addMessage(request, createActionMessages(), "error.markSheets.none.to.confirm");
+            return prepareSearchMarkSheetFilled(mapping, actionForm, request, response);
+        }
+        request.setAttribute("markSheets", markSheets);
+        return mapping.findForward("confirmMarkSheets");
+    }
+
+    public ActionForward confirmMarkSheets(ActionMapping mapping, ActionForm actionForm, HttpServletRequest request,
+            HttpServletResponse response) throws FenixServiceException {
+        if (!"POST".equalsIgnoreCase(request.getMethod())) {
+            return prepareConfirmMarkSheets(mapping, actionForm, request, response);
+        }
+
+        MarkSheetManagementSearchBean searchBean = new MarkSheetManagementSearchBean();
+        fillMarkSheetSearchBean(actionForm, request, searchBean);
+
+        // only the mark sheets listed for confirmation, as long as they can still be confirmed
+        Set<MarkSheet> confirmable = new HashSet<MarkSheet>(getConfirmableMarkSheets(searchBean));
+        Collection<MarkSheet> markSheets = new ArrayList<MarkSheet>();
+        String[] markSheetIDs = request.getParameterValues("markSheetIDs");
+        if (markSheetIDs != null) {
+            for (String markSheetID : markSheetIDs) {
+                MarkSheet markSheet = FenixFramework.getDomainObject(markSheetID);
+                if (confirmable.contains(markSheet)) {
+                    markSheets.add(markSheet);
+                }
+            }
+        }
+
+        ActionMessages actionMessages = createActionMessages();
+        int confirmed = 0;
+        for (MarkSheetConfirmation confirmation : ConfirmMarkSheets.run(markSheets, getUserView(request).getPerson())) {
+            if (confirmation.isConfirmed()) {
+                confirmed++;
+                continue;
+            }
+
+            MarkSheet markSheet = confirmation.getMarkSheet();
+            DateTime evaluationDate = markSheet.getEvaluationDateDateTime();
+            addMessage(request, actionMessages, "error.markSheet.not.confirmed", markSheet.getEvaluationSeason().getName()
+                    .getContent(), evaluationDate != null ? evaluationDate.toString("dd/MM/yyyy") : "-");
+            DomainException error = confirmation.getError();
+            if (error instanceof InDebtEnrolmentsException) {
+                for (Enrolment enrolment : ((InDebtEnrolmentsException) error).getEnrolments()) {
+                    addMessage(request, actionMessages, error.getMessage(), enrolment.getRegistration().getStudent().getNumber()
+                            .toString());
+                }
+            } else {
+                addMessage(request, actionMessages, error.getMessage(), error.getArgs());
+            }
+        }
+        addMessage(request, actionMessages, "message.markSheets.confirmed", String.valueOf(confirmed),
+                String.valueOf(markSheets.size()));
+
+        return prepareSearchMarkSheetFilled(mapping, actionForm, request, response);
+    }
+
+    private List<MarkSheet> getConfirmableMarkSheets(MarkSheetManagementSearchBean searchBean) {
+        List<MarkSheet> result = new ArrayList<MarkSheet>();
+        if (searchBean.getCurricularCourse() != null) {
+            for (MarkSheet markSheet : searchBean.getCurricularCourse().getMarkSheetsSet()) {
+                if (markSheet.getExecutionPeriod() == searchBean.getExecutionPeriod() && markSheet.getCanConfirm()) {
+                    result.add(markSheet);
+                }
+            }
+        }
+        return result;
+    }
+
     public ActionForward prepareViewRectificationMarkSheet(ActionMapping mapping, ActionForm actionForm,
             HttpServletRequest request, HttpServletResponse response) {
 
@@ -338,17 +338,6 @@ public class SIBSPaymentsDA extends FenixDispatchAction {
     }
 
     private PaymentCode getPaymentCode(final String code, ProcessResult result) {
-        /*
-         * TODO:
-         * 
-         * 09/07/2009 - Payments are not related only to students. readAll() may
-         * be heavy to get the PaymentCode.
-         * 
-         * 
-         * Ask Nadir and Joao what is best way to deal with PaymentCode
-         * retrieval.
-         */
-
         return PaymentCode.readByCode(code);
     }
 }
@@ -49,7 +49,6 @@ import org.fenixedu.academic.domain.candidacyProcess.IndividualCandidacyProcessW
 import org.fenixedu.academic.domain.candidacyProcess.IndividualCandidacyProcessWithPrecedentDegreeInformationBean.PrecedentDegreeType;
 import org.fenixedu.academic.domain.candidacyProcess.degreeChange.DegreeChangeIndividualCandidacyProcess.SendEmailForApplicationSubmission;
 import org.fenixedu.academic.domain.candidacyProcess.exceptions.HashCodeForEmailAndProcessAlreadyBounded;
-import org.fenixedu.academic.domain.caseHandling.Process;
 import org.fenixedu.academic.domain.exceptions.DomainException;
 import org.fenixedu.academic.domain.person.IDDocumentType;
 import org.fenixedu.academic.dto.candidacy.PrecedentDegreeInformationBean;
@@ -60,7 +59,6 @@ import org.fenixedu.academic.ui.struts.action.candidacy.IndividualCandidacyProce
 import org.fenixedu.academic.ui.struts.action.publico.KaptchaAction;
 import org.fenixedu.academic.util.Bundle;
 import org.fenixedu.academic.util.Pair;
-import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.core.i18n.BundleUtil;
 import org.fenixedu.bennu.struts.portal.EntryPoint;
 import org.fenixedu.commons.i18n.I18N;
@@ -68,9 +66,6 @@ import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
-
 public abstract class RefactoredIndividualCandidacyProcessPublicDA extends IndividualCandidacyProcessDA {
 
     private static final Logger logger = LoggerFactory.getLogger(RefactoredIndividualCandidacyProcessPublicDA.class);
@@ -146,16 +141,11 @@ public abstract class RefactoredIndividualCandidacyProcessPublicDA extends Indiv
     }
 
     protected CandidacyProcess getCurrentOpenParentProcess() {
-        Set<Process> degreeChangeCandidacyProcesses =
-                Sets.<Process> newHashSet(Iterables.filter(Bennu.getInstance().getProcessesSet(), getParentProcessType()));
-
-        for (Process candidacyProcess : degreeChangeCandidacyProcesses) {
-            if (candidacyProcess instanceof CandidacyProcess && ((CandidacyProcess) candidacyProcess).hasOpenCandidacyPeriod()) {
-                return (CandidacyProcess) candidacyProcess;
-            }
+        if (!CandidacyProcess.class.isAssignableFrom(getParentProcessType())) {
+            return null;
         }
-
-        return null;
+        return CandidacyProcess.getCandidacyProcessByDate(getParentProcessType().asSubclass(CandidacyProcess.class),
+                new DateTime());
     }
 
     public ActionForward bindEmailWithHashCodeAndSendMailWithLink(ActionMapping mapping, ActionForm form,
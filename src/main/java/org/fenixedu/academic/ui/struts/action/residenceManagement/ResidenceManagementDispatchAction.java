@@ -19,21 +19,16 @@
 package org.fenixedu.academic.ui.struts.action.residenceManagement;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.function.Function;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.struts.action.ActionForm;
 import org.apache.struts.action.ActionForward;
 import org.apache.struts.action.ActionMapping;
@@ -47,13 +42,14 @@ import org.fenixedu.academic.dto.residenceManagement.ResidentListsHolderBean;
 import org.fenixedu.academic.service.services.residenceManagement.CreateResidenceEvents;
 import org.fenixedu.academic.service.services.residenceManagement.PayResidenceEvent;
 import org.fenixedu.academic.ui.struts.action.base.FenixDispatchAction;
+import org.fenixedu.academic.ui.struts.action.residenceManagement.ResidenceSpreadsheetReader.InvalidRowException;
+import org.fenixedu.academic.ui.struts.action.residenceManagement.ResidenceSpreadsheetReader.Row;
 import org.fenixedu.bennu.core.domain.Bennu;
 import org.fenixedu.bennu.struts.annotations.Forward;
 import org.fenixedu.bennu.struts.annotations.Forwards;
 import org.fenixedu.bennu.struts.annotations.Mapping;
 
 import pt.ist.fenixWebFramework.renderers.utils.RenderUtils;
-import pt.ist.fenixframework.Atomic;
 import pt.ist.fenixframework.FenixFramework;
 
 @Mapping(path = "/residenceManagement", module = "residenceManagement",
@@ -69,11 +65,12 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
     public ActionForward missingPayments(ActionMapping mapping, ActionForm actionForm, HttpServletRequest request,
             HttpServletResponse response) throws Exception {
         List<ResidenceEvent> results = new ArrayList<ResidenceEvent>();
-        for (ResidenceMonth month : rootDomainObject.getResidenceMonths0Set()) {
-            for (ResidenceEvent residenceEvent : month.getEventsSet()) {
-                if (residenceEvent.isInDebt()) {
-                    results.add(residenceEvent);
-                }
+        ResidenceMonth selectedMonth = getResidenceMonth(request);
+        if (selectedMonth != null) {
+            results.addAll(selectedMonth.getEventsInDebt());
+        } else {
+            for (ResidenceMonth month : rootDomainObject.getResidenceMonths0Set()) {
+                results.addAll(month.getEventsInDebt());
             }
         }
         Collections.sort(results, new Comparator<ResidenceEvent>() {
@@ -94,18 +91,20 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
             bean = month != null ? new ImportResidenceEventBean(month) : new ImportResidenceEventBean();
         } else {
 
-            List<ResidenceEventBean> sucessful = new ArrayList<ResidenceEventBean>();
-            List<ResidenceEventBean> unsucessful = new ArrayList<ResidenceEventBean>();
-
-            List<ResidenceEventBean> process = null;
+            ResidentListsHolderBean listHolder = null;
             try {
-                process = processCurrentDebts(bean);
+                listHolder = processCurrentDebts(bean);
             } catch (InvalidSpreadSheetName exception) {
                 addActionMessage(request, "label.error.invalid.spreadsheetname", exception.getRequestedSheet());
                 request.setAttribute("availableSpreadsheets", exception.getAvailableSpreadSheets());
                 RenderUtils.invalidateViewState();
                 request.setAttribute("importFileBean", bean);
                 return mapping.findForward("importCurrentDebt");
+            } catch (InvalidRowException exception) {
+                addActionMessage(request, "label.error.invalid.table.row", String.valueOf(exception.getRowNumber()));
+                RenderUtils.invalidateViewState();
+                request.setAttribute("importFileBean", bean);
+                return mapping.findForward("importCurrentDebt");
             } catch (Exception exception) {
                 addActionMessage(request, "label.error.invalid.table");
                 RenderUtils.invalidateViewState();
@@ -113,15 +112,6 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
                 return mapping.findForward("importCurrentDebt");
             }
 
-            for (ResidenceEventBean eventBean : process) {
-                if (eventBean.getStatus()) {
-                    sucessful.add(eventBean);
-                } else {
-                    unsucessful.add(eventBean);
-                }
-            }
-
-            ResidentListsHolderBean listHolder = new ResidentListsHolderBean(sucessful, unsucessful);
             request.setAttribute("importList", listHolder);
         }
 
@@ -140,18 +130,20 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
             bean = month != null ? new ImportResidenceEventBean(month) : new ImportResidenceEventBean();
         } else {
 
-            List<ResidenceEventBean> sucessful = new ArrayList<ResidenceEventBean>();
-            List<ResidenceEventBean> unsucessful = new ArrayList<ResidenceEventBean>();
-
-            List<ResidenceEventBean> process = null;
+            ResidentListsHolderBean listHolder = null;
             try {
-                process = process(bean);
+                listHolder = process(bean);
             } catch (InvalidSpreadSheetName exception) {
                 addActionMessage(request, "label.error.invalid.spreadsheetname", exception.getRequestedSheet());
                 request.setAttribute("availableSpreadsheets", exception.getAvailableSpreadSheets());
                 RenderUtils.invalidateViewState();
                 request.setAttribute("importFileBean", bean);
                 return mapping.findForward("importData");
+            } catch (InvalidRowException exception) {
+                addActionMessage(request, "label.error.invalid.table.row", String.valueOf(exception.getRowNumber()));
+                RenderUtils.invalidateViewState();
+                request.setAttribute("importFileBean", bean);
+                return mapping.findForward("importData");
             } catch (Exception exception) {
                 addActionMessage(request, "label.error.invalid.table");
                 RenderUtils.invalidateViewState();
@@ -159,15 +151,6 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
                 return mapping.findForward("importCurrentDebt");
             }
 
-            for (ResidenceEventBean eventBean : process) {
-                if (eventBean.getStatus()) {
-                    sucessful.add(eventBean);
-                } else {
-                    unsucessful.add(eventBean);
-                }
-            }
-
-            ResidentListsHolderBean listHolder = new ResidentListsHolderBean(sucessful, unsucessful);
             request.setAttribute("importList", listHolder);
         }
 
@@ -223,20 +206,13 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
             CreateResidenceEvents.run(listHolder.getSuccessfulEvents(), eventBean.getResidenceMonth());
         } catch (Exception e) {
             addActionMessage(request, e.getMessage());
+            addActionMessage(request, "label.error.import.interrupted");
             return importData(mapping, actionForm, request, response);
         }
         request.setAttribute("createdDebts", true);
         return importData(mapping, actionForm, request, response);
     }
 
-    @Atomic
-    public void makePayments(List<ResidenceEventBean> events, HttpServletRequest request) throws Exception {
-        for (ResidenceEventBean event : events) {
-            ResidenceDebtEventBean debtEvent = (ResidenceDebtEventBean) event;
-            PayResidenceEvent.run(getLoggedPerson(request).getUser(), debtEvent.getEventObject(), debtEvent.getPaidDateObject());
-        }
-    }
-
     public ActionForward generatePayments(ActionMapping mapping, ActionForm actionForm, HttpServletRequest request,
             HttpServletResponse response) throws Exception {
 
@@ -244,9 +220,10 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
         ImportResidenceEventBean eventBean = getRenderedObject("dateBean");
 
         try {
-            makePayments(listHolder.getSuccessfulEvents(), request);
+            PayResidenceEvent.run(getLoggedPerson(request).getUser(), listHolder.getSuccessfulEvents());
         } catch (Exception e) {
             addActionMessage(request, e.getMessage());
+            addActionMessage(request, "label.error.import.interrupted");
             return importData(mapping, actionForm, request, response);
         }
 
@@ -254,106 +231,49 @@ public class ResidenceManagementDispatchAction extends FenixDispatchAction {
         return importCurrentDebts(mapping, actionForm, request, response);
     }
 
-    private List<ResidenceEventBean> process(ImportResidenceEventBean bean) throws IOException, InvalidSpreadSheetName {
-        List<ResidenceEventBean> beans = new ArrayList<ResidenceEventBean>();
-
-        POIFSFileSystem fs = new POIFSFileSystem(bean.getFile());
-        HSSFWorkbook wb = new HSSFWorkbook(fs);
-
-        HSSFSheet sheet = wb.getSheetAt(0);
-
-        if (sheet == null) {
-            throw new InvalidSpreadSheetName(bean.getSpreadsheetName(), getAllSpreadsheets(wb));
-        }
-
-        int i = 2;
-        HSSFRow row;
-        while ((row = sheet.getRow(i)) != null) {
-            String room = row.getCell((short) 0).getStringCellValue();
-            if (StringUtils.isEmpty(room)) {
-                break;
-            }
-
-            String userName = getValueFromColumnMayBeNull(row, 1);
-            String fiscalNumber = getValueFromColumnMayBeNull(row, 2);
-            String name = getValueFromColumnMayBeNull(row, 3);
-            Double roomValue = new Double(row.getCell((short) 4).getNumericCellValue());
-            beans.add(new ResidenceEventBean(userName, fiscalNumber, name, roomValue, room));
-
-            i++;
-        }
-        return beans;
+    private ResidentListsHolderBean process(ImportResidenceEventBean bean) throws IOException, InvalidSpreadSheetName {
+        return read(bean, row -> new ResidenceEventBean(row.getValue(1), row.getValue(2), row.getValue(3), row.getNumber(4), row
+                .getString(0)));
     }
 
-    private List<ResidenceEventBean> processCurrentDebts(ImportResidenceEventBean bean) throws IOException,
+    private ResidentListsHolderBean processCurrentDebts(ImportResidenceEventBean bean) throws IOException,
             InvalidSpreadSheetName {
-        List<ResidenceEventBean> beans = new ArrayList<ResidenceEventBean>();
-
-        POIFSFileSystem fs = new POIFSFileSystem(bean.getFile());
-        HSSFWorkbook wb = new HSSFWorkbook(fs);
-
-        HSSFSheet sheet = wb.getSheetAt(0);
-
-        if (sheet == null) {
-            throw new InvalidSpreadSheetName(bean.getSpreadsheetName(), getAllSpreadsheets(wb));
-        }
-
-        int i = 2;
-        HSSFRow row;
-        while ((row = sheet.getRow(i)) != null) {
-            String room = row.getCell((short) 0).getStringCellValue();
-            if (StringUtils.isEmpty(room)) {
-                break;
-            }
-
-            String userName = getValueFromColumnMayBeNull(row, 1);
-            String fiscalNumber = getValueFromColumnMayBeNull(row, 2);
-            String name = getValueFromColumnMayBeNull(row, 3);
-            Double roomValue = new Double(row.getCell((short) 4).getNumericCellValue());
-            String paidDate = getDateFromColumn(row, 5);
-            Double roomValuePaid = new Double(row.getCell((short) 6).getNumericCellValue());
+        return read(bean, row -> {
             ResidenceDebtEventBean residenceDebtEventBean =
-                    new ResidenceDebtEventBean(userName, fiscalNumber, name, roomValue, room, paidDate, roomValuePaid);
+                    new ResidenceDebtEventBean(row.getValue(1), row.getValue(2), row.getValue(3), row.getNumber(4),
+                            row.getString(0), row.getDate(5), row.getNumber(6));
             residenceDebtEventBean.setMonth(bean.getResidenceMonth());
-            beans.add(residenceDebtEventBean);
-
-            i++;
-        }
-        return beans;
-    }
-
-    private String getValueFromColumnMayBeNull(HSSFRow row, int i) {
-        HSSFCell cell = row.getCell((short) i);
-        if (cell == null) {
-            return StringUtils.EMPTY;
-        }
-        return getValueFromColumn(row, i);
+            return residenceDebtEventBean;
+        });
     }
 
-    private String[] getAllSpreadsheets(HSSFWorkbook wb) {
-        String[] spreadsheets = new String[wb.getNumberOfSheets()];
-        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
-            spreadsheets[i] = wb.getSheetName(i);
-        }
-        return spreadsheets;
-    }
+    /*
+     * Rows are read as the file is parsed and each one is validated right away, so the whole workbook is never held in memory
+     */
+    private ResidentListsHolderBean read(ImportResidenceEventBean bean, Function<Row, ResidenceEventBean> toEventBean)
+            throws IOException, InvalidSpreadSheetName {
+        List<ResidenceEventBean> sucessful = new ArrayList<ResidenceEventBean>();
+        List<ResidenceEventBean> unsucessful = new ArrayList<ResidenceEventBean>();
+
+        ResidenceSpreadsheetReader reader = new ResidenceSpreadsheetReader();
+        boolean hasSheet = reader.read(bean.getFile(), row -> {
+            if (StringUtils.isEmpty(row.getString(0))) {
+                return false;
+            }
 
-    private String getDateFromColumn(HSSFRow row, int i) {
-        try {
-            return new SimpleDateFormat("dd-MM-yy").format(row.getCell((short) i).getDateCellValue());
-        } catch (Exception e) {
-            return row.getCell((short) i).getStringCellValue();
-        }
-    }
+            ResidenceEventBean eventBean = toEventBean.apply(row);
+            if (eventBean.getStatus()) {
+                sucessful.add(eventBean);
+            } else {
+                unsucessful.add(eventBean);
+            }
+            return true;
+        });
 
-    private String getValueFromColumn(HSSFRow row, int i) {
-        try {
-            return new Integer(new Double(row.getCell((short) i).getNumericCellValue()).intValue()).toString();
-        } catch (NumberFormatException e) {
-            return row.getCell((short) i).getStringCellValue();
-        } catch (IllegalStateException e) {
-            return row.getCell((short) i).getStringCellValue();
+        if (!hasSheet) {
+            throw new InvalidSpreadSheetName(bean.getSpreadsheetName(), reader.getSheetNames());
         }
+        return new ResidentListsHolderBean(sucessful, unsucessful);
     }
 
     private static class InvalidSpreadSheetName extends Exception {
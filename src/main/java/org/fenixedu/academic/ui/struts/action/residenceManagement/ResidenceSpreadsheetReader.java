@@ -0,0 +1,284 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.ui.struts.action.residenceManagement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+
+/**
+ * Reads the rows of the first sheet of a residence spreadsheet as the records of the file are parsed, without building the
+ * whole workbook in memory, and hands each one to a {@link RowHandler} as soon as all its cells are known.
+ *
+ * Rows are read from the third one onwards (the first two hold the headers) and reading stops at the first missing row,
+ * when the handler asks to stop, or at the end of the first sheet.
+ */
+public class ResidenceSpreadsheetReader {
+
+    private static final int FIRST_ROW = 2;
+
+    private static final short CONTINUE = 0;
+
+    private static final short STOP = 1;
+
+    public interface RowHandler {
+
+        /**
+         * Processes a row and returns whether the following ones should be read.
+         */
+        boolean handle(Row row);
+
+    }
+
+    private final List<String> sheetNames = new ArrayList<String>();
+
+    private boolean sheetFound = false;
+
+    /**
+     * Reads the rows of the spreadsheet, returning <code>false</code> if the file has no sheets.
+     */
+    public boolean read(final InputStream file, final RowHandler handler) throws IOException {
+        final HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(new RowListener(handler));
+        try {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, new POIFSFileSystem(file));
+        } catch (HSSFUserException e) {
+            throw new IOException(e);
+        }
+        return sheetFound;
+    }
+
+    public String[] getSheetNames() {
+        return sheetNames.toArray(new String[sheetNames.size()]);
+    }
+
+    private class RowListener extends AbortableHSSFListener {
+
+        private final RowHandler handler;
+
+        private SSTRecord strings;
+
+        private int sheets = 0;
+
+        private int currentRow = -1;
+
+        private Map<Integer, Object> cells = new HashMap<Integer, Object>();
+
+        /* formulas with a string result are followed by a record holding that string */
+        private FormulaRecord pendingFormula;
+
+        private RowListener(final RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public short abortableProcessRecord(final Record record) {
+            switch (record.getSid()) {
+            case BoundSheetRecord.sid:
+                sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                return CONTINUE;
+            case SSTRecord.sid:
+                strings = (SSTRecord) record;
+                return CONTINUE;
+            case BOFRecord.sid:
+                if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                    sheetFound = true;
+                    sheets++;
+                    // only the first sheet is read
+                    return sheets > 1 ? STOP : CONTINUE;
+                }
+                return CONTINUE;
+            case EOFRecord.sid:
+                return sheets == 1 ? flush() : CONTINUE;
+            default:
+                return sheets == 1 ? processCell(record) : CONTINUE;
+            }
+        }
+
+        private short processCell(final Record record) {
+            switch (record.getSid()) {
+            case LabelSSTRecord.sid:
+                final LabelSSTRecord label = (LabelSSTRecord) record;
+                return cell(label.getRow(), label.getColumn(), strings.getString(label.getSSTIndex()).getString());
+            case LabelRecord.sid:
+                final LabelRecord oldLabel = (LabelRecord) record;
+                return cell(oldLabel.getRow(), oldLabel.getColumn(), oldLabel.getValue());
+            case NumberRecord.sid:
+                final NumberRecord number = (NumberRecord) record;
+                return cell(number.getRow(), number.getColumn(), Double.valueOf(number.getValue()));
+            case FormulaRecord.sid:
+                final FormulaRecord formula = (FormulaRecord) record;
+                if (formula.hasCachedResultString()) {
+                    pendingFormula = formula;
+                    return CONTINUE;
+                }
+                return cell(formula.getRow(), formula.getColumn(), Double.valueOf(formula.getValue()));
+            case StringRecord.sid:
+                if (pendingFormula == null) {
+                    return CONTINUE;
+                }
+                final FormulaRecord stringFormula = pendingFormula;
+                pendingFormula = null;
+                return cell(stringFormula.getRow(), stringFormula.getColumn(), ((StringRecord) record).getString());
+            default:
+                return CONTINUE;
+            }
+        }
+
+        private short cell(final int row, final int column, final Object value) {
+            if (row < FIRST_ROW) {
+                return CONTINUE;
+            }
+            if (row != currentRow) {
+                final int expectedRow = currentRow < 0 ? FIRST_ROW : currentRow + 1;
+                if (currentRow >= 0 && flush() == STOP) {
+                    return STOP;
+                }
+                if (row != expectedRow) {
+                    // as with the rows of a workbook, a missing row ends the data
+                    return STOP;
+                }
+                currentRow = row;
+            }
+            cells.put(Integer.valueOf(column), value);
+            return CONTINUE;
+        }
+
+        private short flush() {
+            if (cells.isEmpty()) {
+                return STOP;
+            }
+            final Row row = new Row(currentRow, cells);
+            cells = new HashMap<Integer, Object>();
+            return handler.handle(row) ? CONTINUE : STOP;
+        }
+
+    }
+
+    /**
+     * The cells of a row, converted as the old import did when reading them from a workbook.
+     */
+    public static class Row {
+
+        private final int index;
+
+        private final Map<Integer, Object> cells;
+
+        private Row(final int index, final Map<Integer, Object> cells) {
+            this.index = index;
+            this.cells = cells;
+        }
+
+        /**
+         * The number of the row as shown by spreadsheet applications, starting at 1.
+         */
+        public int getRowNumber() {
+            return index + 1;
+        }
+
+        public String getString(final int column) {
+            final Object value = cells.get(Integer.valueOf(column));
+            if (value == null) {
+                return "";
+            }
+            if (!(value instanceof String)) {
+                throw new InvalidRowException(this);
+            }
+            return (String) value;
+        }
+
+        /**
+         * Text of the cell, or of the integer part of its number. Empty if the cell does not exist.
+         */
+        public String getValue(final int column) {
+            final Object value = cells.get(Integer.valueOf(column));
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof Double) {
+                return Integer.toString(((Double) value).intValue());
+            }
+            return (String) value;
+        }
+
+        public Double getNumber(final int column) {
+            final Object value = cells.get(Integer.valueOf(column));
+            if (!(value instanceof Double)) {
+                throw new InvalidRowException(this);
+            }
+            return (Double) value;
+        }
+
+        /**
+         * Date of the cell formatted as dd-MM-yy, or its text if it is not a date.
+         */
+        public String getDate(final int column) {
+            final Object value = cells.get(Integer.valueOf(column));
+            if (value == null) {
+                throw new InvalidRowException(this);
+            }
+            if (value instanceof Double) {
+                return new SimpleDateFormat("dd-MM-yy").format(HSSFDateUtil.getJavaDate(((Double) value).doubleValue()));
+            }
+            return (String) value;
+        }
+
+    }
+
+    /**
+     * Thrown when a cell of a row is missing or does not have the expected type.
+     */
+    public static class InvalidRowException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int rowNumber;
+
+        private InvalidRowException(final Row row) {
+            this.rowNumber = row.getRowNumber();
+        }
+
+        public int getRowNumber() {
+            return rowNumber;
+        }
+
+    }
+
+}
@@ -20,6 +20,8 @@ package org.fenixedu.academic.util;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
 
 public class CollectionPager<T> {
 
@@ -64,6 +66,12 @@ public class CollectionPager<T> {
         final int startIndex = (pageNumber - 1) * maxElementsPerPage;
         final int endIndex = pageNumber * maxElementsPerPage;
 
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            final List<T> list = (List<T>) collection;
+            final int size = list.size();
+            return new ArrayList<T>(list.subList(Math.min(startIndex, size), Math.min(endIndex, size)));
+        }
+
         final Collection<T> page = new ArrayList<T>(maxElementsPerPage);
         int counter = 0;
         for (final T t : collection) {
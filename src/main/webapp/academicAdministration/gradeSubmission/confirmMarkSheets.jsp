@@ -0,0 +1,66 @@
+<%--
+
+    Copyright © 2002 Instituto Superior Técnico
+
+    This file is part of FenixEdu Academic.
+
+    FenixEdu Academic is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    FenixEdu Academic is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+
+--%>
+<%@ taglib uri="http://struts.apache.org/tags-html" prefix="html"%>
+<html:xhtml/>
+<%@ taglib uri="http://struts.apache.org/tags-bean" prefix="bean"%>
+<%@ taglib uri="http://struts.apache.org/tags-logic" prefix="logic"%>
+<%@ taglib uri="http://fenix-ashes.ist.utl.pt/fenix-renderers" prefix="fr" %>
+
+
+<h2><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.confirmMarkSheets"/></h2>
+
+<logic:messagesPresent message="true">
+	<ul>
+		<html:messages bundle="ACADEMIC_OFFICE_RESOURCES" id="messages" message="true">
+			<li><span class="error0"><bean:write name="messages" /></span></li>
+		</html:messages>
+	</ul>
+</logic:messagesPresent>
+
+<bean:size id="markSheetsCount" name="markSheets"/>
+<p class="mtop15">
+	<bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="message.markSheets.confirm" arg0="<%= markSheetsCount.toString() %>"/>
+</p>
+
+<fr:view name="markSheets" schema="markSheet.search.result.list">
+	<fr:layout name="tabular">
+		<fr:property name="classes" value="tstyle4" />
+	</fr:layout>
+</fr:view>
+
+<html:form action="/markSheetManagement.do">
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.method" property="method" value="confirmMarkSheets"/>
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.epID" property="epID" />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.dID" property="dID" />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.dcpID" property="dcpID" />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.ccID" property="ccID"  />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.tn" property="tn" />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.ed" property="ed"/>
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.mss" property="mss" />
+	<html:hidden bundle="HTMLALT_RESOURCES" altKey="hidden.mst" property="mst" />
+	<logic:iterate id="markSheet" name="markSheets" type="org.fenixedu.academic.domain.MarkSheet">
+		<input type="hidden" name="markSheetIDs" value="<%= markSheet.getExternalId() %>"/>
+	</logic:iterate>
+	<p>
+		<html:submit bundle="HTMLALT_RESOURCES" altKey="submit.submit" styleClass="inputbutton"><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.confirm"/></html:submit>
+		<html:cancel bundle="HTMLALT_RESOURCES" altKey="cancel.cancel" styleClass="inputbutton" onclick="this.form.method.value='prepareSearchMarkSheetFilled';this.form.submit();"><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.back"/></html:cancel>
+	</p>
+</html:form>
@@ -73,6 +73,10 @@
 		 - 
 			<html:link action='<%= "/createMarkSheet.do?method=prepareCreateMarkSheetFilled" + url %>'><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.createMarkSheet"/></html:link>
 		</logic:equal>
+		<logic:notEmpty name="searchResult">
+		 - 
+			<html:link action='<%= "/markSheetManagement.do?method=prepareConfirmMarkSheets" + url %>'><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.markSheets.confirm.all"/></html:link>
+		</logic:notEmpty>
 	
 		<logic:empty name="searchResult">
 			<em><bean:message bundle="ACADEMIC_OFFICE_RESOURCES" key="label.noMarkSheetsFound"/></em>
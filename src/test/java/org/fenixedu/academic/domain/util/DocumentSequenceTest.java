@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class DocumentSequenceTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    /* the committed next value of the sequence, advanced by each reservation */
+    private final AtomicInteger committed = new AtomicInteger(1);
+
+    private final AtomicInteger reservations = new AtomicInteger();
+
+    private final Supplier<Integer> reservation = () -> {
+        reservations.incrementAndGet();
+        return Integer.valueOf(committed.getAndAdd(BLOCK_SIZE));
+    };
+
+    private final IntSupplier inRunningTransaction = () -> {
+        throw new AssertionError("Must not take numbers in the running transaction");
+    };
+
+    @Test
+    public void handsOutReservedNumbersInOrder() {
+        final DocumentSequence.Block block = new DocumentSequence.Block();
+        for (int i = 1; i <= 25; i++) {
+            assertEquals(i, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        }
+        assertEquals(3, reservations.get());
+    }
+
+    @Test
+    public void doesNotRepeatNumbersReservedByOtherServers() {
+        final DocumentSequence.Block block = new DocumentSequence.Block();
+        final DocumentSequence.Block other = new DocumentSequence.Block();
+
+        assertEquals(1, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        assertEquals(11, other.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        assertEquals(2, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        for (int i = 3; i <= 10; i++) {
+            block.next(BLOCK_SIZE, reservation, inRunningTransaction);
+        }
+        assertEquals(21, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+    }
+
+    @Test
+    public void concurrentRequestsGetDistinctNumbers() throws InterruptedException {
+        final DocumentSequence.Block block = new DocumentSequence.Block();
+        final Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    numbers.add(block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(800, numbers.size());
+        assertEquals(80, reservations.get());
+    }
+
+    @Test
+    public void failedReservationIsRetriedByTheNextRequest() {
+        final DocumentSequence.Block block = new DocumentSequence.Block();
+        try {
+            block.next(BLOCK_SIZE, () -> {
+                throw new IllegalStateException("conflict");
+            }, inRunningTransaction);
+            fail();
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+
+        assertEquals(1, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        assertEquals(2, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+    }
+
+    @Test
+    public void uncommittedSequenceIsTakenFromInTheRunningTransaction() {
+        final DocumentSequence.Block block = new DocumentSequence.Block();
+        final AtomicInteger uncommitted = new AtomicInteger(1);
+
+        assertEquals(1, block.next(BLOCK_SIZE, () -> null, uncommitted::getAndIncrement));
+        assertEquals(2, block.next(BLOCK_SIZE, () -> null, uncommitted::getAndIncrement));
+
+        // once the sequence is committed, blocks are reserved from where the transaction left it
+        committed.set(uncommitted.get());
+        assertEquals(3, block.next(BLOCK_SIZE, reservation, inRunningTransaction));
+        assertEquals(1, reservations.get());
+    }
+
+}
@@ -0,0 +1,425 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import pt.ist.fenixframework.Transaction;
+
+public class DomainIndexTest {
+
+    private final List<Item> source = new ArrayList<Item>();
+
+    private Counter version;
+
+    private int sourceReads;
+
+    private boolean failReads;
+
+    private TestIndex index;
+
+    @Before
+    public void setUp() {
+        source.clear();
+        sourceReads = 0;
+        failReads = false;
+        version = new Counter(2);
+        index = new TestIndex();
+    }
+
+    @Test
+    public void hitsAndMissesAreAnsweredFromTheIndex() {
+        final Item a = item("a");
+        item("b");
+
+        assertEquals(new HashSet<Item>(Arrays.asList(a)), index.get("a"));
+        assertTrue(index.get("missing").isEmpty());
+        assertNull(index.getAny("other"));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void objectsRegisteredByThisServerAreFoundWithoutScanning() {
+        index.get("a");
+
+        final Item a = item("a");
+        index.add(a);
+
+        assertSame(a, index.getAny("a"));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void registrationsAreVisibleToTheirTransactionAndAppliedWhenItCommits() {
+        index.get("a");
+
+        final List<Synchronization> synchronizations = new ArrayList<Synchronization>();
+        index.transaction = transaction(synchronizations);
+        final Item a = item("a");
+        index.add(a);
+        assertSame(a, index.getAny("a"));
+        assertEquals(1, synchronizations.size());
+
+        index.transaction = null;
+        complete(synchronizations.get(0));
+
+        assertSame(a, index.getAny("a"));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void registrationsCompletingOutOfOrderAreAllApplied() {
+        version = new Counter(1);
+        index = new TestIndex();
+        index.get("a");
+
+        final List<Synchronization> first = new ArrayList<Synchronization>();
+        index.transaction = transaction(first);
+        final Item a = item("a");
+        index.add(a);
+        final List<Synchronization> second = new ArrayList<Synchronization>();
+        index.transaction = transaction(second);
+        final Item b = item("b");
+        index.add(b);
+
+        index.transaction = null;
+        complete(second.get(0));
+        complete(first.get(0));
+
+        assertSame(a, index.getAny("a"));
+        assertSame(b, index.getAny("b"));
+        assertTrue(index.get("missing").isEmpty());
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void changedKeysAreFoundUnderTheNewKeyOnly() {
+        final Item a = item("a");
+        index.get("a");
+
+        a.key = "b";
+        index.add(a);
+
+        assertTrue(index.get("a").isEmpty());
+        assertSame(a, index.getAny("b"));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void deletedObjectsAreNeverReported() {
+        final Item a = item("a");
+        index.get("a");
+
+        a.deleted = true;
+
+        assertTrue(index.get("a").isEmpty());
+    }
+
+    @Test
+    public void missesAreCheckedAgainstTheSourceWhenAnotherServerRegisteredObjects() {
+        index.get("a");
+
+        final Item a = registeredElsewhere("a");
+
+        assertSame(a, index.getAny("a"));
+        assertEquals(2, sourceReads);
+        // the index was just built, so it is not rebuilt again yet
+        assertTrue(index.background.isEmpty());
+    }
+
+    @Test
+    public void hitsAreAnsweredWhileTheIndexIsBehind() {
+        final Item a = item("a");
+        index.get("a");
+
+        registeredElsewhere("b");
+
+        assertSame(a, index.getAny("a"));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void onlyHitsAcceptedByTheFilterAreAnsweredWhileTheIndexIsBehind() {
+        final Item a = item("a");
+        index.get("a");
+
+        final Item remote = registeredElsewhere("a");
+
+        assertSame(a, index.getAny("a", item -> item == a));
+        assertEquals(1, sourceReads);
+        assertSame(remote, index.getAny("a", item -> item != a));
+        assertEquals(2, sourceReads);
+    }
+
+    @Test
+    public void hitsDoNotHideObjectsRegisteredByAnotherServer() {
+        final Item local = item("a");
+        index.get("a");
+
+        final Item remote = registeredElsewhere("a");
+
+        assertEquals(new HashSet<Item>(Arrays.asList(local, remote)), index.get("a"));
+    }
+
+    @Test
+    public void rebuildBringsTheIndexUpToDate() {
+        index.get("a");
+        final Item a = registeredElsewhere("a");
+
+        index.invalidate();
+
+        assertSame(a, index.getAny("a"));
+        assertTrue(index.get("b").isEmpty());
+        assertEquals(2, sourceReads);
+    }
+
+    @Test
+    public void buildFailuresArePropagatedAndTheBuildRetried() {
+        final Item a = item("a");
+        failReads = true;
+        try {
+            index.get("a");
+            fail("the build failure should have been propagated");
+        } catch (final IllegalStateException e) {
+            assertEquals("unavailable", e.getMessage());
+        }
+
+        failReads = false;
+        assertSame(a, index.getAny("a"));
+        assertTrue(index.get("b").isEmpty());
+        assertEquals(2, sourceReads);
+    }
+
+    @Test
+    public void indexesBehindAreRebuiltInTheBackground() {
+        index = new TestIndex(true);
+        index.get("a");
+        final Item b = registeredElsewhere("b");
+        index.now += TimeUnit.MINUTES.toMillis(1);
+
+        assertTrue(index.get("missing").isEmpty());
+        assertEquals(2, sourceReads);
+        assertEquals(1, index.background.size());
+
+        index.background.remove(0).run();
+
+        assertTrue(index.get("other").isEmpty());
+        assertSame(b, index.getAny("b"));
+        assertEquals(3, sourceReads);
+        assertTrue(index.background.isEmpty());
+    }
+
+    @Test
+    public void registrationsAppliedWhileTheIndexIsRebuiltAreKeptByIt() {
+        index.get("a");
+        registeredElsewhere("b");
+        index.now += TimeUnit.MINUTES.toMillis(1);
+        index.get("b");
+
+        final Item c = new Item("c");
+        index.duringBuild = () -> {
+            source.add(c);
+            index.add(c);
+        };
+        index.background.remove(0).run();
+
+        assertSame(c, index.getAny("c"));
+        assertTrue(index.get("missing").isEmpty());
+        assertEquals(3, sourceReads);
+    }
+
+    @Test
+    public void indexesWithFixedKeysAnswerTransactionsOlderThanThem() {
+        index = new TestIndex(true);
+        final Item a = registeredElsewhere("a");
+        index.get("a");
+
+        // the running transaction started before the registration of the index was committed
+        version.values[0]--;
+
+        assertSame(a, index.getAny("a"));
+        assertTrue(index.get("missing").isEmpty());
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void transactionsOlderThanTheIndexScanTheSource() {
+        final Item a = registeredElsewhere("a");
+        index.get("a");
+
+        version.values[0]--;
+
+        assertEquals(new HashSet<Item>(Arrays.asList(a)), index.get("a"));
+        assertEquals(2, sourceReads);
+    }
+
+    @Test
+    public void nullKeysAreNeverFound() {
+        item("a");
+
+        assertTrue(index.get(null).isEmpty());
+        assertEquals(0, sourceReads);
+    }
+
+    private Item item(final String key) {
+        final Item result = new Item(key);
+        source.add(result);
+        return result;
+    }
+
+    private Item registeredElsewhere(final String key) {
+        final Item result = item(key);
+        version.increment(0);
+        return result;
+    }
+
+    private static void complete(final Synchronization synchronization) {
+        synchronization.beforeCompletion();
+        synchronization.afterCompletion(Status.STATUS_COMMITTED);
+    }
+
+    private static Transaction transaction(final List<Synchronization> synchronizations) {
+        return (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(), new Class<?>[] { Transaction.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("registerSynchronization")) {
+                        synchronizations.add((Synchronization) args[0]);
+                        return null;
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private List<Item> readSource() {
+        sourceReads++;
+        if (failReads) {
+            throw new IllegalStateException("unavailable");
+        }
+        return source;
+    }
+
+    private static class Item {
+
+        private String key;
+
+        private boolean deleted = false;
+
+        private Item(final String key) {
+            this.key = key;
+        }
+
+    }
+
+    private static class Counter implements DomainIndex.Version {
+
+        private final long[] values;
+
+        private Counter(final int stripes) {
+            this.values = new long[stripes];
+        }
+
+        @Override
+        public int stripes() {
+            return values.length;
+        }
+
+        @Override
+        public long read(final int stripe) {
+            return values[stripe];
+        }
+
+        @Override
+        public void increment(final int stripe) {
+            values[stripe]++;
+        }
+
+    }
+
+    /*
+     * Registrations made without a transaction are applied as if committed right away, builds read the source directly, and
+     * background tasks are kept until the test runs them.
+     */
+    private class TestIndex extends DomainIndex<String, Item> {
+
+        private Transaction transaction = null;
+
+        private long now = System.currentTimeMillis();
+
+        private final List<Runnable> background = new ArrayList<Runnable>();
+
+        private Runnable duringBuild = null;
+
+        private TestIndex() {
+            this(false);
+        }
+
+        private TestIndex(final boolean fixedKeys) {
+            super(DomainIndexTest.this::readSource, item -> item.deleted ? null : item.key, version, ConcurrentHashMap::new,
+                    fixedKeys);
+        }
+
+        @Override
+        Transaction currentTransaction() {
+            return transaction;
+        }
+
+        @Override
+        void inCommittedState(final Runnable task) {
+            task.run();
+            if (duringBuild != null) {
+                duringBuild.run();
+            }
+        }
+
+        @Override
+        void inBackground(final Runnable task) {
+            background.add(task);
+        }
+
+        @Override
+        long currentTimeMillis() {
+            return now;
+        }
+
+    }
+
+}
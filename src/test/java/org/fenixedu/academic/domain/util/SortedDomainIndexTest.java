@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import pt.ist.fenixframework.Transaction;
+
+public class SortedDomainIndexTest {
+
+    private final List<Item> source = new ArrayList<Item>();
+
+    private long version;
+
+    private int sourceReads;
+
+    private TestIndex index;
+
+    @Before
+    public void setUp() {
+        source.clear();
+        version = 0L;
+        sourceReads = 0;
+        index = new TestIndex();
+    }
+
+    @Test
+    public void rangesAreSortedAndInclusive() {
+        final Item five = item(5);
+        final Item one = item(1);
+        final Item three = item(3);
+        item(7);
+
+        assertEquals(Arrays.asList(one, three, five), index.getRange(1, 5));
+        assertTrue(index.getRange(5, 1).isEmpty());
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void rangesIncludeObjectsRegisteredByThisServer() {
+        final Item one = item(1);
+        index.getRange(1, 1);
+
+        final Item two = item(2);
+        index.add(two);
+
+        assertEquals(Arrays.asList(one, two), index.getRange(0, 10));
+        assertEquals(1, sourceReads);
+    }
+
+    @Test
+    public void rangesIncludeObjectsRegisteredByAnotherServer() {
+        final Item one = item(1);
+        index.getRange(1, 1);
+
+        final Item two = item(2);
+        version++;
+
+        assertEquals(Arrays.asList(one, two), index.getRange(0, 10));
+        assertEquals(2, sourceReads);
+    }
+
+    @Test
+    public void rangesSkipObjectsWhoseKeyChanged() {
+        final Item one = item(1);
+        final Item two = item(2);
+        index.getRange(1, 1);
+
+        one.number = 20;
+        index.add(one);
+
+        assertEquals(Arrays.asList(two), index.getRange(0, 10));
+        assertEquals(Arrays.asList(two, one), index.getRange(0, 20));
+    }
+
+    private Item item(final int number) {
+        final Item result = new Item(number);
+        source.add(result);
+        return result;
+    }
+
+    private List<Item> readSource() {
+        sourceReads++;
+        return source;
+    }
+
+    private static class Item {
+
+        private Integer number;
+
+        private Item(final int number) {
+            this.number = number;
+        }
+
+    }
+
+    private class TestIndex extends SortedDomainIndex<Integer, Item> {
+
+        private TestIndex() {
+            super(SortedDomainIndexTest.this::readSource, item -> item.number, new Version() {
+
+                @Override
+                public int stripes() {
+                    return 1;
+                }
+
+                @Override
+                public long read(final int stripe) {
+                    return version;
+                }
+
+                @Override
+                public void increment(final int stripe) {
+                    version++;
+                }
+            });
+        }
+
+        @Override
+        Transaction currentTransaction() {
+            return null;
+        }
+
+        @Override
+        void inCommittedState(final Runnable task) {
+            task.run();
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import pt.ist.fenixframework.DomainObject;
+import pt.ist.fenixframework.Transaction;
+
+import com.google.common.collect.Lists;
+
+public class TextIndexTest {
+
+    private final Map<DomainObject, String> names = new LinkedHashMap<DomainObject, String>();
+
+    private final Counter version = new Counter();
+
+    private int textReads;
+
+    private TestIndex index;
+
+    @Before
+    public void setUp() {
+        names.clear();
+        textReads = 0;
+        index = new TestIndex();
+    }
+
+    @Test
+    public void resultsComeOutInOrderOfTheirSortKeys() {
+        final DomainObject c = object("3", "maria carla");
+        final DomainObject a = object("1", "maria ana");
+        object("2", "joana");
+        final DomainObject b = object("4", "maria beatriz");
+
+        assertEquals(Arrays.asList(a, b, c), Lists.newArrayList(index.withWords("maria")));
+    }
+
+    @Test
+    public void takingTheFirstResultsDoesNotCheckEveryCandidate() {
+        for (int i = 0; i < 100; i++) {
+            object(String.valueOf(i), "maria " + (1000 + i));
+        }
+        index.withWords("maria");
+        textReads = 0;
+
+        final Iterator<DomainObject> results = index.withWords("maria").iterator();
+        results.next();
+        results.next();
+
+        assertTrue(textReads < 10);
+    }
+
+    @Test
+    public void objectsRenamedByThisServerAreMergedAtTheirNewPlace() {
+        final DomainObject a = object("1", "maria ana");
+        final DomainObject b = object("2", "maria beatriz");
+        final DomainObject c = object("3", "maria carla");
+        index.withWords("maria");
+
+        names.put(a, "maria zulmira");
+        index.add(a);
+        final DomainObject d = object("4", "maria daniela");
+        index.add(d);
+
+        assertEquals(Arrays.asList(b, c, d, a), Lists.newArrayList(index.withWords("maria")));
+        assertEquals(1, index.builds);
+    }
+
+    @Test
+    public void objectsRenamedByAnotherServerAreStillReturnedInOrder() {
+        final DomainObject a = object("1", "maria ana");
+        final DomainObject b = object("2", "maria beatriz");
+        final DomainObject c = object("3", "maria carla");
+        index.withWords("maria");
+
+        names.put(a, "maria zulmira");
+        names.put(c, "joana carla");
+        version.increment(0);
+
+        assertEquals(Arrays.asList(b, a), Lists.newArrayList(index.withWords("maria")));
+    }
+
+    @Test
+    public void substringSearchesOnlyReturnObjectsContainingEveryPart() {
+        final DomainObject a = object("1", "anabela");
+        object("2", "isobel");
+        final DomainObject c = object("3", "belarmino");
+
+        assertEquals(Arrays.asList(a, c), Lists.newArrayList(index.containing("bel", "a")));
+        assertEquals(Collections.singletonList(a), Lists.newArrayList(index.containing("abel")));
+    }
+
+    private DomainObject object(final String id, final String name) {
+        final DomainObject result = (DomainObject) Proxy.newProxyInstance(DomainObject.class.getClassLoader(),
+                new Class<?>[] { DomainObject.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getExternalId")) {
+                        return id;
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    return "object " + id;
+                });
+        names.put(result, name);
+        return result;
+    }
+
+    private Collection<String> texts(final DomainObject object) {
+        textReads++;
+        final String name = names.get(object);
+        return name != null ? Collections.singletonList(name) : Collections.<String> emptyList();
+    }
+
+    private static class Counter implements DomainIndex.Version {
+
+        private final long[] values = new long[2];
+
+        @Override
+        public int stripes() {
+            return values.length;
+        }
+
+        @Override
+        public long read(final int stripe) {
+            return values[stripe];
+        }
+
+        @Override
+        public void increment(final int stripe) {
+            values[stripe]++;
+        }
+
+    }
+
+    /*
+     * Objects are registered without a transaction, as if committed right away, and builds read the source directly.
+     */
+    private class TestIndex extends TextIndex<DomainObject> {
+
+        private int builds = 0;
+
+        private TestIndex() {
+            super("test", () -> new ArrayList<DomainObject>(names.keySet()), TextIndexTest.this::texts, names::get, true, 0L,
+                    version);
+        }
+
+        @Override
+        Transaction currentTransaction() {
+            return null;
+        }
+
+        @Override
+        <R> R inCommittedState(final Supplier<R> builder) {
+            builds++;
+            return builder.get();
+        }
+
+    }
+
+}
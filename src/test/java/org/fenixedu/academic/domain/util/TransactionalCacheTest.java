@@ -0,0 +1,238 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.domain.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import pt.ist.fenixframework.Transaction;
+
+import com.google.common.cache.CacheBuilder;
+
+public class TransactionalCacheTest {
+
+    /* committed state of each owner */
+    private final Map<String, String> committed = new HashMap<String, String>();
+
+    private final Map<String, Long> versions = new HashMap<String, Long>();
+
+    private final List<Synchronization> synchronizations = new ArrayList<Synchronization>();
+
+    private int loads;
+
+    private Runnable duringLoad;
+
+    private TestCache cache;
+
+    @Before
+    public void setUp() {
+        committed.clear();
+        versions.clear();
+        synchronizations.clear();
+        loads = 0;
+        duringLoad = null;
+        cache = new TestCache(false);
+    }
+
+    @Test
+    public void valuesAreComputedOnceAndShared() {
+        committed.put("a", "1");
+
+        assertEquals("1", get("a"));
+        assertEquals("1", get("a"));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    public void changesAreSeenByTheirTransactionAndDiscardedWhenItCommits() {
+        committed.put("a", "1");
+        committed.put("b", "1");
+        get("a");
+        get("b");
+
+        cache.transaction = transaction();
+        cache.invalidate("a");
+        committed.put("a", "2");
+        assertEquals("2", get("a"));
+        assertEquals("1", get("b"));
+        assertEquals(1, synchronizations.size());
+
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals("2", get("a"));
+        assertEquals("1", get("b"));
+        assertEquals(4, loads);
+    }
+
+    @Test
+    public void abortedChangesKeepTheValues() {
+        committed.put("a", "1");
+        get("a");
+
+        cache.transaction = transaction();
+        cache.invalidate("a");
+        complete(Status.STATUS_ROLLEDBACK);
+
+        assertEquals("1", get("a"));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    public void valuesComputedWhileTheirOwnerChangedAreNotShared() {
+        committed.put("a", "1");
+        duringLoad = () -> {
+            duringLoad = null;
+            cache.invalidate("a");
+        };
+
+        assertEquals("1", get("a"));
+        committed.put("a", "2");
+
+        assertEquals("2", get("a"));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void invalidateIfDiscardsTheValuesOfTheOwnersAccepted() {
+        committed.put("a1", "1");
+        committed.put("a2", "1");
+        committed.put("b", "1");
+        get("a1");
+        get("a2");
+        get("b");
+
+        cache.transaction = transaction();
+        cache.invalidateIf(owner -> owner.startsWith("a"));
+        committed.put("a1", "2");
+        assertEquals("2", get("a1"));
+        assertEquals("1", get("b"));
+        complete(Status.STATUS_COMMITTED);
+
+        assertEquals("2", get("a1"));
+        assertEquals("1", get("a2"));
+        assertEquals("1", get("b"));
+        assertEquals(6, loads);
+    }
+
+    @Test
+    public void invalidateAllDiscardsEveryValue() {
+        committed.put("a", "1");
+        committed.put("b", "1");
+        get("a");
+        get("b");
+
+        cache.transaction = transaction();
+        cache.invalidateAll();
+        assertEquals("1", get("b"));
+        complete(Status.STATUS_COMMITTED);
+
+        get("a");
+        get("b");
+        assertEquals(5, loads);
+    }
+
+    @Test
+    public void versionedValuesFollowChangesMadeElsewhere() {
+        cache = new TestCache(true);
+        committed.put("a", "1");
+        versions.put("a", 1L);
+        assertEquals("1", get("a"));
+
+        // committed by another server, which only discards its own values
+        committed.put("a", "2");
+        versions.put("a", 2L);
+
+        assertEquals("2", get("a"));
+        assertEquals("2", get("a"));
+        assertEquals(2, loads);
+    }
+
+    private String get(final String owner) {
+        return cache.get(owner, "key", () -> {
+            loads++;
+            if (duringLoad != null) {
+                duringLoad.run();
+            }
+            return committed.get(owner);
+        });
+    }
+
+    private void complete(final int status) {
+        cache.transaction = null;
+        for (final Synchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+        synchronizations.clear();
+    }
+
+    private Transaction transaction() {
+        return (Transaction) Proxy.newProxyInstance(Transaction.class.getClassLoader(), new Class<?>[] { Transaction.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("registerSynchronization")) {
+                        synchronizations.add((Synchronization) args[0]);
+                        return null;
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /*
+     * Values are computed in the calling thread, and changes made without a transaction are applied as if committed right
+     * away.
+     */
+    private class TestCache extends TransactionalCache<String, String> {
+
+        private Transaction transaction = null;
+
+        private TestCache(final boolean versioned) {
+            super("test", CacheBuilder.newBuilder().maximumSize(100).<Key<String>, Entry<String>> build(),
+                    versioned ? owner -> versions.get(owner) : null);
+        }
+
+        @Override
+        Transaction currentTransaction() {
+            return transaction;
+        }
+
+        @Override
+        <R> R inCommittedState(final Supplier<R> loader) {
+            return loader.get();
+        }
+
+    }
+
+}
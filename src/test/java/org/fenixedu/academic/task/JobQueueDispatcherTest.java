@@ -0,0 +1,71 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.task;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+public class JobQueueDispatcherTest {
+
+    private final DateTime now = new DateTime(2015, 3, 2, 10, 0, 0, 0);
+
+    @Test
+    public void newJobsAreDispatched() {
+        assertTrue(JobQueueDispatcher.isDispatchable(0, null, null, now));
+        assertTrue(JobQueueDispatcher.isDispatchable(null, null, null, now));
+    }
+
+    @Test
+    public void jobsClaimedByAWorkerAreNotDispatchedAgain() {
+        final DateTime started = now.minusMinutes(5);
+
+        assertTrue(JobQueueDispatcher.isClaimed(started, null, now));
+        assertFalse(JobQueueDispatcher.isDispatchable(0, started, null, now));
+        assertFalse(JobQueueDispatcher.isDispatchable(1, started, now.minusHours(1), now));
+    }
+
+    @Test
+    public void claimsOfWorkersThatNeverFinishedExpire() {
+        final DateTime started = now.minusHours(JobQueueDispatcher.CLAIM_TIMEOUT_HOURS).minusMinutes(1);
+
+        assertFalse(JobQueueDispatcher.isClaimed(started, null, now));
+        assertTrue(JobQueueDispatcher.isDispatchable(0, started, null, now));
+    }
+
+    @Test
+    public void failedJobsAreRetriedUntilTheyFailTooManyTimes() {
+        final DateTime started = now.minusMinutes(10);
+        final DateTime failed = now.minusMinutes(5);
+
+        assertFalse(JobQueueDispatcher.isClaimed(started, failed, now));
+        assertTrue(JobQueueDispatcher.isDispatchable(JobQueueDispatcher.MAX_FAILURES - 1, started, failed, now));
+        assertFalse(JobQueueDispatcher.isDispatchable(JobQueueDispatcher.MAX_FAILURES, started, failed, now));
+    }
+
+    @Test
+    public void jobsThatFailedTooManyTimesAreRetriedAfterAWhile() {
+        final DateTime failed = now.minusHours(JobQueueDispatcher.RETRY_INTERVAL_HOURS);
+
+        assertTrue(JobQueueDispatcher.isDispatchable(JobQueueDispatcher.MAX_FAILURES + 2, failed.minusMinutes(1), failed, now));
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright © 2002 Instituto Superior Técnico
+ *
+ * This file is part of FenixEdu Academic.
+ *
+ * FenixEdu Academic is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * FenixEdu Academic is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with FenixEdu Academic.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.fenixedu.academic.ui.struts.action.residenceManagement;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.fenixedu.academic.ui.struts.action.residenceManagement.ResidenceSpreadsheetReader.InvalidRowException;
+import org.fenixedu.academic.ui.struts.action.residenceManagement.ResidenceSpreadsheetReader.Row;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResidenceSpreadsheetReaderTest {
+
+    private HSSFWorkbook workbook;
+
+    private HSSFSheet sheet;
+
+    private final List<Row> rows = new ArrayList<Row>();
+
+    @Before
+    public void setUp() {
+        workbook = new HSSFWorkbook();
+        sheet = workbook.createSheet("Residence");
+        sheet.createRow(0).createCell(0).setCellValue("Residence payments");
+        sheet.createRow(1).createCell(0).setCellValue("Number");
+        rows.clear();
+    }
+
+    @Test
+    public void readsTheCellsOfEachRowAfterTheHeaders() throws IOException {
+        final HSSFRow first = row(2, "12345", "Room 1");
+        first.createCell(2).setCellValue(150.5d);
+        first.createCell(3).setCellValue(new LocalDate(2014, 10, 1).toDate());
+        row(3, "67890", "Room 2").createCell(2).setCellValue(98d);
+
+        assertTrue(read(row -> rows.add(row)));
+
+        assertEquals(2, rows.size());
+        final Row row = rows.get(0);
+        assertEquals(3, row.getRowNumber());
+        assertEquals("12345", row.getString(0));
+        assertEquals("Room 1", row.getString(1));
+        assertEquals(Double.valueOf(150.5d), row.getNumber(2));
+        assertEquals("150", row.getValue(2));
+        assertEquals("01-10-14", row.getDate(3));
+        assertEquals("", row.getString(4));
+
+        assertEquals(4, rows.get(1).getRowNumber());
+        assertEquals("98", rows.get(1).getValue(2));
+    }
+
+    @Test
+    public void stopsAtTheFirstMissingRow() throws IOException {
+        row(2, "1", "Room 1");
+        row(3, "2", "Room 2");
+        row(5, "4", "Room 4");
+
+        read(row -> rows.add(row));
+
+        assertEquals(2, rows.size());
+        assertEquals("2", rows.get(1).getString(0));
+    }
+
+    @Test
+    public void stopsWhenTheHandlerAsksTo() throws IOException {
+        row(2, "1", "Room 1");
+        row(3, "2", "Room 2");
+
+        read(row -> {
+            rows.add(row);
+            return false;
+        });
+
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    public void onlyTheFirstSheetIsRead() throws IOException {
+        row(2, "1", "Room 1");
+        final HSSFSheet other = workbook.createSheet("Other");
+        other.createRow(3).createCell(0).setCellValue("2");
+
+        final ResidenceSpreadsheetReader reader = new ResidenceSpreadsheetReader();
+        reader.read(new ByteArrayInputStream(write()), row -> rows.add(row));
+
+        assertEquals(1, rows.size());
+        assertArrayEquals(new String[] { "Residence", "Other" }, reader.getSheetNames());
+    }
+
+    @Test
+    public void cellsOfTheWrongTypeAreReportedWithTheirRow() throws IOException {
+        row(2, "1", "Room 1");
+        row(3, "2", "Room 2");
+
+        read(row -> rows.add(row));
+
+        try {
+            rows.get(1).getNumber(1);
+            fail("a text cell should not be read as a number");
+        } catch (final InvalidRowException e) {
+            assertEquals(4, e.getRowNumber());
+        }
+    }
+
+    @Test
+    public void spreadsheetsWithoutDataRowsHandNoRows() throws IOException {
+        assertTrue(read(row -> rows.add(row)));
+        assertTrue(rows.isEmpty());
+    }
+
+    private HSSFRow row(final int index, final String number, final String room) {
+        final HSSFRow result = sheet.createRow(index);
+        result.createCell(0).setCellValue(number);
+        result.createCell(1).setCellValue(room);
+        return result;
+    }
+
+    private boolean read(final ResidenceSpreadsheetReader.RowHandler handler) throws IOException {
+        return new ResidenceSpreadsheetReader().read(new ByteArrayInputStream(write()), handler);
+    }
+
+    private byte[] write() throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        workbook.write(result);
+        return result.toByteArray();
+    }
+
+}